@@ -0,0 +1,188 @@
+package com.banking.account.aggregate;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceListener;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.CurrencyUnit;
+import com.banking.core.domain.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running balance totals of active accounts per currency, per customer and
+ * currency, and per account type and currency, updated on every balance and
+ * status change instead of being recomputed by scanning all accounts.
+ * <p>
+ * Each total is a pair of {@link LongAdder}s counting minor units and
+ * accounts, so concurrent updates to the same total (every deposit touches the
+ * currency total) spread over striped cells instead of contending on one
+ * value. Amounts finer than a minor unit, which only {@code MONEY}-mode
+ * accounts can hold, go to a rarely used exact remainder. Reads are weakly
+ * consistent: a total read during a transfer may include one leg but not the
+ * other.
+ */
+public class BalanceAggregates implements BalanceListener {
+    // Minor-unit scale for currency codes that are not ISO-4217
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+
+    private final Totals byCurrency = new Totals();
+    private final Totals[] byAccountType;
+    private final Map<String, Totals> byCustomer = new ConcurrentHashMap<>();
+
+    public BalanceAggregates() {
+        byAccountType = new Totals[AccountType.values().length];
+        for (int i = 0; i < byAccountType.length; i++) {
+            byAccountType[i] = new Totals();
+        }
+    }
+
+    /**
+     * Counts a newly stored account and, if active, its balance.
+     */
+    public void add(Account account) {
+        if (account.isActive()) {
+            include(account, account.getBalance().getAmount(), 1);
+        }
+    }
+
+    /**
+     * Stops counting an account, for example before it is replaced by a restored copy.
+     */
+    public void remove(Account account) {
+        if (account.isActive()) {
+            include(account, account.getBalance().getAmount().negate(), -1);
+        }
+    }
+
+    @Override
+    public void balanceChanged(Account account, Money amount, boolean credit) {
+        include(account, credit ? amount.getAmount() : amount.getAmount().negate(), 0);
+    }
+
+    @Override
+    public void statusChanged(Account account, boolean active) {
+        BigDecimal balance = account.getBalance().getAmount();
+        include(account, active ? balance : balance.negate(), active ? 1 : -1);
+    }
+
+    /**
+     * Totals over all active accounts, one per currency.
+     */
+    public List<BalanceTotal> getTotals() {
+        return byCurrency.snapshot();
+    }
+
+    public List<BalanceTotal> getTotalsByCustomer(String customerId) {
+        Totals totals = byCustomer.get(customerId);
+        return totals == null ? new ArrayList<>() : totals.snapshot();
+    }
+
+    public List<BalanceTotal> getTotalsByAccountType(AccountType accountType) {
+        return byAccountType[accountType.ordinal()].snapshot();
+    }
+
+    private void include(Account account, BigDecimal amount, int accounts) {
+        String currency = account.getBalance().getCurrency();
+        byCurrency.get(currency).add(amount, accounts);
+        byAccountType[account.getAccountType().ordinal()].get(currency).add(amount, accounts);
+        Totals customer = byCustomer.get(account.getCustomerId());
+        if (customer == null) {
+            customer = byCustomer.computeIfAbsent(account.getCustomerId(), id -> new Totals());
+        }
+        customer.get(currency).add(amount, accounts);
+    }
+
+    /**
+     * One total per currency; a group rarely holds more than one or two
+     * currencies, so lookups scan a small copy-on-write array.
+     */
+    private static final class Totals {
+        private volatile Total[] totals = new Total[0];
+
+        Total get(String currency) {
+            for (Total total : totals) {
+                if (total.currency.equals(currency)) {
+                    return total;
+                }
+            }
+            return create(currency);
+        }
+
+        private synchronized Total create(String currency) {
+            Total[] current = totals;
+            for (Total total : current) {
+                if (total.currency.equals(currency)) {
+                    return total;
+                }
+            }
+            Total total = new Total(currency);
+            Total[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = total;
+            totals = grown;
+            return total;
+        }
+
+        List<BalanceTotal> snapshot() {
+            List<BalanceTotal> snapshot = new ArrayList<>();
+            for (Total total : totals) {
+                snapshot.add(new BalanceTotal(new Money(total.sum(), total.currency), total.accounts.sum()));
+            }
+            snapshot.sort(Comparator.comparing(BalanceTotal::getCurrency));
+            return snapshot;
+        }
+    }
+
+    private static final class Total {
+        final String currency;
+        final int fractionDigits;
+        final LongAdder minorUnits = new LongAdder();
+        final LongAdder accounts = new LongAdder();
+        // Amounts not representable in whole minor units; guarded by this
+        private BigDecimal remainder = BigDecimal.ZERO;
+
+        Total(String currency) {
+            this.currency = currency;
+            this.fractionDigits = fractionDigitsOf(currency);
+        }
+
+        void add(BigDecimal amount, int accountDelta) {
+            long units;
+            try {
+                units = amount.movePointRight(fractionDigits).longValueExact();
+            } catch (ArithmeticException e) {
+                synchronized (this) {
+                    remainder = remainder.add(amount);
+                }
+                units = 0;
+            }
+            if (units != 0) {
+                minorUnits.add(units);
+            }
+            if (accountDelta != 0) {
+                accounts.add(accountDelta);
+            }
+        }
+
+        BigDecimal sum() {
+            BigDecimal sum = BigDecimal.valueOf(minorUnits.sum(), fractionDigits);
+            synchronized (this) {
+                return remainder.signum() == 0 ? sum : sum.add(remainder);
+            }
+        }
+
+        private static int fractionDigitsOf(String currency) {
+            try {
+                return CurrencyUnit.of(currency).getFractionDigits();
+            } catch (IllegalArgumentException e) {
+                return DEFAULT_FRACTION_DIGITS;
+            }
+        }
+    }
+}
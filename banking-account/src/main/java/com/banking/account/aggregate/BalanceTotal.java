@@ -0,0 +1,64 @@
+package com.banking.account.aggregate;
+
+import com.banking.core.domain.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sum of the balances of a group of active accounts in one currency, with the
+ * number of accounts it covers.
+ */
+public final class BalanceTotal {
+    private final Money balance;
+    private final long accountCount;
+
+    public BalanceTotal(Money balance, long accountCount) {
+        if (balance == null) {
+            throw new IllegalArgumentException("Balance cannot be null");
+        }
+        this.balance = balance;
+        this.accountCount = accountCount;
+    }
+
+    public String getCurrency() {
+        return balance.getCurrency();
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    /**
+     * Adds up totals of the same currency, for example one list per shard,
+     * returning one total per currency ordered by currency code.
+     */
+    public static List<BalanceTotal> merge(Collection<List<BalanceTotal>> totals) {
+        Map<String, BigDecimal> balances = new TreeMap<>();
+        Map<String, Long> counts = new TreeMap<>();
+        for (List<BalanceTotal> list : totals) {
+            for (BalanceTotal total : list) {
+                balances.merge(total.getCurrency(), total.balance.getAmount(), BigDecimal::add);
+                counts.merge(total.getCurrency(), total.accountCount, Long::sum);
+            }
+        }
+        List<BalanceTotal> merged = new ArrayList<>(balances.size());
+        for (Map.Entry<String, BigDecimal> entry : balances.entrySet()) {
+            merged.add(new BalanceTotal(new Money(entry.getValue(), entry.getKey()), counts.get(entry.getKey())));
+        }
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceTotal{balance=" + balance + ", accounts=" + accountCount + "}";
+    }
+}
@@ -1,24 +1,44 @@
 package com.banking.account.domain;
 
 import com.banking.core.domain.AccountType;
+import com.banking.core.domain.CompactMoney;
+import com.banking.core.domain.CurrencyUnit;
 import com.banking.core.domain.Money;
 import com.banking.core.exception.InsufficientFundsException;
 import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.IdGenerators;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a bank account with balance and account details.
+ * In {@link BalanceMode#MONEY} mode mutating operations are not synchronized
+ * themselves; callers that share an account across threads serialize them
+ * through the account's stripe lock. In {@link BalanceMode#ATOMIC_MINOR_UNITS}
+ * mode deposits and withdrawals are lock-free compare-and-set loops.
+ * An optional {@link BalanceListener} is told about every balance and status change.
  */
 public class Account {
     private final String accountId;
     private final String customerId;
     private final AccountType accountType;
-    private Money balance;
-    private boolean active;
+    private final BalanceMode balanceMode;
+    private volatile Money balance;
+    private final AtomicLong minorUnits;
+    private final CurrencyUnit currency;
+    private volatile boolean active;
+    private final LocalDateTime openedAt;
+    private volatile long journalPosition;
+    // Set before the account is published to other threads
+    private BalanceListener balanceListener;
 
     public Account(String customerId, AccountType accountType, Money initialBalance) {
+        this(customerId, accountType, initialBalance, BalanceMode.MONEY);
+    }
+
+    public Account(String customerId, AccountType accountType, Money initialBalance, BalanceMode balanceMode) {
         if (customerId == null || customerId.trim().isEmpty()) {
             throw new IllegalArgumentException("Customer ID cannot be null or empty");
         }
@@ -28,20 +48,43 @@ public class Account {
         if (initialBalance == null) {
             throw new IllegalArgumentException("Initial balance cannot be null");
         }
-        
-        this.accountId = UUID.randomUUID().toString();
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+
+        this.accountId = IdGenerators.nextId();
         this.customerId = customerId;
         this.accountType = accountType;
-        this.balance = initialBalance;
+        this.balanceMode = balanceMode;
+        this.currency = balanceMode == BalanceMode.ATOMIC_MINOR_UNITS ? CurrencyUnit.of(initialBalance.getCurrency()) : null;
+        this.balance = balanceMode == BalanceMode.MONEY ? initialBalance : null;
+        this.minorUnits = balanceMode == BalanceMode.ATOMIC_MINOR_UNITS
+                ? new AtomicLong(CompactMoney.toMinorUnits(initialBalance, currency)) : null;
         this.active = true;
+        this.openedAt = LocalDateTime.now();
     }
 
     public Account(String accountId, String customerId, AccountType accountType, Money balance, boolean active) {
+        this(accountId, customerId, accountType, balance, active, BalanceMode.MONEY);
+    }
+
+    public Account(String accountId, String customerId, AccountType accountType, Money balance, boolean active,
+                   BalanceMode balanceMode) {
+        this(accountId, customerId, accountType, balance, active, balanceMode, null);
+    }
+
+    public Account(String accountId, String customerId, AccountType accountType, Money balance, boolean active,
+                   BalanceMode balanceMode, LocalDateTime openedAt) {
         this.accountId = accountId;
         this.customerId = customerId;
         this.accountType = accountType;
-        this.balance = balance;
+        this.balanceMode = balanceMode;
+        this.currency = balanceMode == BalanceMode.ATOMIC_MINOR_UNITS ? CurrencyUnit.of(balance.getCurrency()) : null;
+        this.balance = balanceMode == BalanceMode.MONEY ? balance : null;
+        this.minorUnits = balanceMode == BalanceMode.ATOMIC_MINOR_UNITS
+                ? new AtomicLong(CompactMoney.toMinorUnits(balance, currency)) : null;
         this.active = active;
+        this.openedAt = openedAt;
     }
 
     public String getAccountId() {
@@ -56,7 +99,14 @@ public class Account {
         return accountType;
     }
 
+    public BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+
     public Money getBalance() {
+        if (balanceMode == BalanceMode.ATOMIC_MINOR_UNITS) {
+            return CompactMoney.toMoney(minorUnits.get(), currency);
+        }
         return balance;
     }
 
@@ -64,12 +114,29 @@ public class Account {
         return active;
     }
 
+    /**
+     * When the account was opened, or {@code null} if unknown: accounts restored
+     * from a snapshot and off-heap store views do not carry it.
+     */
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+
     public void deposit(Money amount) {
         validateAccount();
         if (amount == null || amount.getAmount().compareTo(java.math.BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
-        this.balance = this.balance.add(amount);
+        if (balanceMode == BalanceMode.ATOMIC_MINOR_UNITS) {
+            long units = CompactMoney.toMinorUnits(amount, currency);
+            long current;
+            do {
+                current = minorUnits.get();
+            } while (!minorUnits.compareAndSet(current, CompactMoney.add(current, units)));
+        } else {
+            this.balance = this.balance.add(amount);
+        }
+        balanceChanged(amount, true);
     }
 
     public void withdraw(Money amount) {
@@ -77,20 +144,74 @@ public class Account {
         if (amount == null || amount.getAmount().compareTo(java.math.BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
-        if (this.balance.isLessThan(amount)) {
-            throw new InsufficientFundsException(
-                String.format("Insufficient funds. Balance: %s, Requested: %s", balance, amount)
-            );
+        if (balanceMode == BalanceMode.ATOMIC_MINOR_UNITS) {
+            long units = CompactMoney.toMinorUnits(amount, currency);
+            long current;
+            do {
+                current = minorUnits.get();
+                if (current < units) {
+                    throw new InsufficientFundsException(
+                        String.format("Insufficient funds. Balance: %s, Requested: %s",
+                            CompactMoney.toMoney(current, currency), amount)
+                    );
+                }
+            } while (!minorUnits.compareAndSet(current, current - units));
+        } else {
+            if (this.balance.isLessThan(amount)) {
+                throw new InsufficientFundsException(
+                    String.format("Insufficient funds. Balance: %s, Requested: %s", balance, amount)
+                );
+            }
+            this.balance = this.balance.subtract(amount);
         }
-        this.balance = this.balance.subtract(amount);
+        balanceChanged(amount, false);
+    }
+
+    /**
+     * Journal position of the last record applied to this account (0 if none).
+     * Maintained by the services while holding the account's stripe lock; snapshot
+     * recovery uses it to skip journal records already reflected in the account.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    public void setJournalPosition(long journalPosition) {
+        this.journalPosition = journalPosition;
     }
 
     public void deactivate() {
-        this.active = false;
+        if (active) {
+            this.active = false;
+            statusChanged(false);
+        }
     }
 
     public void activate() {
-        this.active = true;
+        if (!active) {
+            this.active = true;
+            statusChanged(true);
+        }
+    }
+
+    /**
+     * Installs the listener told about later balance and status changes; set it
+     * before the account is shared with other threads.
+     */
+    public void setBalanceListener(BalanceListener balanceListener) {
+        this.balanceListener = balanceListener;
+    }
+
+    protected final void balanceChanged(Money amount, boolean credit) {
+        if (balanceListener != null) {
+            balanceListener.balanceChanged(this, amount, credit);
+        }
+    }
+
+    protected final void statusChanged(boolean active) {
+        if (balanceListener != null) {
+            balanceListener.statusChanged(this, active);
+        }
     }
 
     private void validateAccount() {
@@ -115,7 +236,6 @@ public class Account {
     @Override
     public String toString() {
         return String.format("Account{id='%s', customerId='%s', type=%s, balance=%s, active=%s}",
-                accountId, customerId, accountType, balance, active);
+                accountId, customerId, accountType, getBalance(), active);
     }
 }
-
@@ -0,0 +1,21 @@
+package com.banking.account.domain;
+
+import com.banking.core.domain.Money;
+
+/**
+ * Notified by an {@link Account} after each change to its balance or status.
+ * Called on the mutating thread, which holds the account's stripe lock when the
+ * change comes from a service, so implementations must be thread-safe and cheap.
+ */
+public interface BalanceListener {
+
+    /**
+     * The balance grew by {@code amount} ({@code credit}) or shrank by it.
+     */
+    void balanceChanged(Account account, Money amount, boolean credit);
+
+    /**
+     * The account was activated or deactivated.
+     */
+    void statusChanged(Account account, boolean active);
+}
@@ -0,0 +1,18 @@
+package com.banking.account.domain;
+
+/**
+ * Enumeration of the storage strategies for an account balance.
+ */
+public enum BalanceMode {
+    /**
+     * Balance held as an immutable {@link com.banking.core.domain.Money} reference,
+     * replaced on every change; writers serialize through the account lock.
+     */
+    MONEY,
+
+    /**
+     * Balance held as a {@code long} count of currency minor units updated with
+     * compare-and-set, so single-account operations are safe without a lock.
+     */
+    ATOMIC_MINOR_UNITS
+}
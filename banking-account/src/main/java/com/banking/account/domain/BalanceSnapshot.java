@@ -0,0 +1,59 @@
+package com.banking.account.domain;
+
+import com.banking.core.domain.Money;
+
+/**
+ * Consistent view of an account's balance and status, read without locking.
+ * It reflects only completed changes: never a posting leg that was later
+ * rolled back, nor a balance from before a status change read together with
+ * the status from after it.
+ */
+public class BalanceSnapshot {
+    private final String accountId;
+    private final Money balance;
+    private final boolean active;
+    private final long journalPosition;
+    private final long sequence;
+
+    public BalanceSnapshot(String accountId, Money balance, boolean active, long journalPosition, long sequence) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.active = active;
+        this.journalPosition = journalPosition;
+        this.sequence = sequence;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Journal position of the last change included (0 without a journal).
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    /**
+     * Sequence number of the account's lock stripe when the snapshot was read. It
+     * grows with every change to the account (and to the other accounts sharing
+     * the stripe), so an equal sequence means the account has not changed.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BalanceSnapshot{accountId='%s', balance=%s, active=%s, journalPosition=%d, sequence=%d}",
+                accountId, balance, active, journalPosition, sequence);
+    }
+}
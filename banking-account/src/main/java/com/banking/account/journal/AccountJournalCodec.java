@@ -0,0 +1,88 @@
+package com.banking.account.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.JournalRecordType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Binary encoding of account lifecycle records in the ledger journal.
+ */
+public final class AccountJournalCodec {
+
+    private AccountJournalCodec() {
+    }
+
+    public static byte[] encodeOpened(Account account) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(JournalRecordType.ACCOUNT_OPENED.code());
+            out.writeUTF(account.getAccountId());
+            out.writeUTF(account.getCustomerId());
+            out.writeUTF(account.getAccountType().name());
+            out.writeUTF(account.getBalance().getAmount().toPlainString());
+            out.writeUTF(account.getBalance().getCurrency());
+            out.writeBoolean(account.isActive());
+            if (account.getOpenedAt() != null) {
+                out.writeUTF(account.getOpenedAt().toString());
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot encode account " + account.getAccountId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] encodeStatus(String accountId, boolean active) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte((active ? JournalRecordType.ACCOUNT_ACTIVATED : JournalRecordType.ACCOUNT_DEACTIVATED).code());
+            out.writeUTF(accountId);
+        } catch (IOException e) {
+            throw new JournalException("Cannot encode status of account " + accountId, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Account decodeOpened(byte[] payload, BalanceMode balanceMode) {
+        try (DataInputStream in = open(payload, JournalRecordType.ACCOUNT_OPENED)) {
+            String accountId = in.readUTF();
+            String customerId = in.readUTF();
+            AccountType accountType = AccountType.valueOf(in.readUTF());
+            Money balance = new Money(new BigDecimal(in.readUTF()), in.readUTF());
+            boolean active = in.readBoolean();
+            // Records written before opening times were journaled end here
+            LocalDateTime openedAt = in.available() > 0 ? LocalDateTime.parse(in.readUTF()) : null;
+            return new Account(accountId, customerId, accountType, balance, active, balanceMode, openedAt);
+        } catch (IOException e) {
+            throw new JournalException("Corrupt account record", e);
+        }
+    }
+
+    /**
+     * Decodes the account ID of an activation or deactivation record.
+     */
+    public static String decodeStatusAccountId(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+            return in.readUTF();
+        } catch (IOException e) {
+            throw new JournalException("Corrupt account status record", e);
+        }
+    }
+
+    private static DataInputStream open(byte[] payload, JournalRecordType expected) {
+        if (JournalRecordType.of(payload) != expected) {
+            throw new JournalException("Expected " + expected + " record");
+        }
+        return new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1));
+    }
+}
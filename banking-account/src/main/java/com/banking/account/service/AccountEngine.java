@@ -0,0 +1,79 @@
+package com.banking.account.service;
+
+import com.banking.account.aggregate.BalanceTotal;
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.domain.BalanceSnapshot;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.ServiceMetrics;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Account storage and lifecycle operations, independent of how accounts are
+ * stored and locked. {@link AccountService} is the default in-memory engine;
+ * {@link ShardedAccountService} partitions accounts across shards.
+ */
+public interface AccountEngine {
+
+    Account createAccount(String customerId, AccountType accountType, Money initialBalance);
+
+    /**
+     * Re-registers an account recovered from the journal or a snapshot, without journaling it.
+     */
+    void restoreAccount(Account account);
+
+    /**
+     * @throws com.banking.core.exception.InvalidAccountException if the account does not exist
+     */
+    Account getAccount(String accountId);
+
+    boolean accountExists(String accountId);
+
+    List<Account> getAccountsByCustomer(String customerId);
+
+    List<Account> getAllAccounts();
+
+    /**
+     * Lazily iterates all accounts without copying the store.
+     */
+    Stream<Account> streamAllAccounts();
+
+    void deactivateAccount(String accountId);
+
+    void activateAccount(String accountId);
+
+    Money getBalance(String accountId);
+
+    /**
+     * Balance and status read as one consistent, lock-free snapshot that never
+     * includes a change still in progress.
+     */
+    BalanceSnapshot getBalanceSnapshot(String accountId);
+
+    /**
+     * Total balance of all active accounts, one entry per currency, maintained
+     * incrementally rather than computed by a scan.
+     */
+    List<BalanceTotal> getBalanceTotals();
+
+    List<BalanceTotal> getBalanceTotalsByCustomer(String customerId);
+
+    List<BalanceTotal> getBalanceTotalsByAccountType(AccountType accountType);
+
+    BalanceMode getBalanceMode();
+
+    /**
+     * Ledger journal the engine appends to, or {@code null} if disabled.
+     */
+    Journal getJournal();
+
+    /**
+     * Operation metrics shared with the transaction engine built on this one;
+     * {@link ServiceMetrics#disabled()} unless the engine was built with metrics.
+     */
+    ServiceMetrics getMetrics();
+}
@@ -1,60 +1,317 @@
 package com.banking.account.service;
 
+import com.banking.account.aggregate.BalanceAggregates;
+import com.banking.account.aggregate.BalanceTotal;
 import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.domain.BalanceSnapshot;
+import com.banking.account.journal.AccountJournalCodec;
+import com.banking.account.store.AccountStore;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
 import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.ServiceMetrics;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Service for managing bank accounts.
+ * Service for managing bank accounts; the default {@link AccountEngine}.
+ * Accounts live in an {@link AccountStore}, on the heap by default, which also
+ * indexes them by customer ID so customer lookups do not scan the whole store.
+ * When a {@link Journal} is configured, account lifecycle changes are journaled
+ * under the account lock and acknowledged only once the record is durable.
+ * <p>
+ * The service keeps {@link BalanceAggregates} of its active accounts, fed by
+ * every account's balance and status changes, so per-currency, per-customer and
+ * per-type totals are read without scanning the store.
+ * <p>
+ * Account creation is timed in the service's {@link ServiceMetrics}, which the
+ * transaction services built on it share.
  */
-public class AccountService {
-    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+public class AccountService implements AccountEngine {
+    // Optimistic attempts of a balance read before it takes the stripe lock instead
+    private static final int OPTIMISTIC_READ_SPINS = 100;
 
+    private final AccountStore store;
+    private final StripedLocks accountLocks;
+    private final BalanceMode balanceMode;
+    private final Journal journal;
+    private final BalanceAggregates aggregates = new BalanceAggregates();
+    private final ServiceMetrics metrics;
+    private final OperationMetrics creates;
+
+    public AccountService() {
+        this(new StripedLocks(), BalanceMode.MONEY, null);
+    }
+
+    public AccountService(BalanceMode balanceMode) {
+        this(new StripedLocks(), balanceMode, null);
+    }
+
+    public AccountService(StripedLocks accountLocks, BalanceMode balanceMode) {
+        this(accountLocks, balanceMode, null);
+    }
+
+    /**
+     * @param journal ledger journal shared with the transaction service, or {@code null}
+     *                to keep state in memory only
+     */
+    public AccountService(StripedLocks accountLocks, BalanceMode balanceMode, Journal journal) {
+        this(accountLocks, balanceMode, journal, new HeapAccountStore());
+    }
+
+    public AccountService(StripedLocks accountLocks, BalanceMode balanceMode, Journal journal, AccountStore store) {
+        this(accountLocks, balanceMode, journal, store, ServiceMetrics.disabled());
+    }
+
+    /**
+     * @param metrics where this service and the transaction services built on it
+     *                record their operations; build {@code accountLocks} with its
+     *                {@linkplain ServiceMetrics#getLockWaits() lock-wait histogram}
+     *                to time lock waits too
+     */
+    public AccountService(StripedLocks accountLocks, BalanceMode balanceMode, Journal journal, AccountStore store,
+                          ServiceMetrics metrics) {
+        if (accountLocks == null) {
+            throw new IllegalArgumentException("Account locks cannot be null");
+        }
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+        if (store == null) {
+            throw new IllegalArgumentException("Account store cannot be null");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Service metrics cannot be null");
+        }
+        this.store = store;
+        this.accountLocks = accountLocks;
+        this.balanceMode = balanceMode;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.creates = metrics.operation(ServiceMetrics.ACCOUNT_CREATE);
+        // A reopened store already holds accounts
+        store.stream().forEach(account -> {
+            IdGenerators.advancePast(account.getAccountId());
+            aggregates.add(account);
+        });
+        store.setBalanceListener(aggregates);
+    }
+
+    @Override
     public Account createAccount(String customerId, AccountType accountType, Money initialBalance) {
-        Account account = new Account(customerId, accountType, initialBalance);
-        accounts.put(account.getAccountId(), account);
-        return account;
+        long start = creates.start();
+        try {
+            Account account = open(new Account(customerId, accountType, initialBalance, balanceMode));
+            creates.success(start);
+            return account;
+        } catch (RuntimeException e) {
+            creates.failure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Journals and registers a newly created account, returning the stored instance.
+     */
+    Account open(Account account) {
+        long position;
+        Account stored;
+        try (StripedLocks.Held ignored = accountLocks.lock(account.getAccountId())) {
+            if (store.contains(account.getAccountId())) {
+                // The store would replace the existing account's state
+                throw new IllegalStateException("Account ID already in use: " + account.getAccountId());
+            }
+            byte[] record = AccountJournalCodec.encodeOpened(account);
+            if (journal != null) {
+                journal.checkWritable();
+            }
+            // Publish before journaling: a snapshot started after the record is appended
+            // must find the account. The stripe lock keeps every other writer off it
+            // until it is journaled, so no later record references an unjournaled account.
+            stored = store.add(account);
+            aggregates.add(stored);
+            try {
+                position = journal(record);
+            } catch (RuntimeException e) {
+                journal.fail(e);
+                throw e;
+            }
+            stored.setJournalPosition(position);
+        }
+        awaitDurable(position);
+        return stored;
+    }
+
+    /**
+     * Re-registers an account recovered from the journal or a snapshot, without journaling it.
+     */
+    @Override
+    public void restoreAccount(Account account) {
+        IdGenerators.advancePast(account.getAccountId());
+        Account previous = store.get(account.getAccountId());
+        if (previous != null) {
+            aggregates.remove(previous);
+        }
+        aggregates.add(store.add(account));
     }
 
+    @Override
     public Account getAccount(String accountId) {
-        Account account = accounts.get(accountId);
+        Account account = store.get(accountId);
         if (account == null) {
             throw new InvalidAccountException("Account not found: " + accountId);
         }
         return account;
     }
 
+    @Override
+    public boolean accountExists(String accountId) {
+        return store.contains(accountId);
+    }
+
+    @Override
     public List<Account> getAccountsByCustomer(String customerId) {
-        List<Account> customerAccounts = new ArrayList<>();
-        for (Account account : accounts.values()) {
-            if (account.getCustomerId().equals(customerId)) {
-                customerAccounts.add(account);
-            }
-        }
-        return customerAccounts;
+        return store.getByCustomer(customerId);
     }
 
+    @Override
     public List<Account> getAllAccounts() {
-        return new ArrayList<>(accounts.values());
+        return store.stream().collect(Collectors.toList());
     }
 
+    /**
+     * Lazily iterates all accounts without copying the store; the view is weakly
+     * consistent with accounts created while the stream is being consumed.
+     */
+    @Override
+    public Stream<Account> streamAllAccounts() {
+        return store.stream();
+    }
+
+    @Override
     public void deactivateAccount(String accountId) {
         Account account = getAccount(accountId);
-        account.deactivate();
+        long position;
+        try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+            account.deactivate();
+            position = journal(AccountJournalCodec.encodeStatus(accountId, false));
+            account.setJournalPosition(position);
+        }
+        awaitDurable(position);
     }
 
+    @Override
     public void activateAccount(String accountId) {
         Account account = getAccount(accountId);
-        account.activate();
+        long position;
+        try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+            account.activate();
+            position = journal(AccountJournalCodec.encodeStatus(accountId, true));
+            account.setJournalPosition(position);
+        }
+        awaitDurable(position);
     }
 
+    /**
+     * Current balance, read through {@link #getBalanceSnapshot(String)} so it never
+     * includes a change still in progress.
+     */
+    @Override
     public Money getBalance(String accountId) {
+        return getBalanceSnapshot(accountId).getBalance();
+    }
+
+    /**
+     * Reads the account's balance and status seqlock-style: the fields are read
+     * without locking and the read is retried if the account's stripe was held
+     * at any point during it. Writers never wait for readers that succeed this
+     * way. A reader that still fails after {@code OPTIMISTIC_READ_SPINS} attempts,
+     * because the stripe is held for long or by a steady stream of writers, takes
+     * the stripe lock and reads under it, queueing with the writers rather than
+     * spinning without bound. A thread that holds the stripe itself reads directly.
+     */
+    @Override
+    public BalanceSnapshot getBalanceSnapshot(String accountId) {
         Account account = getAccount(accountId);
-        return account.getBalance();
+        int stripe = accountLocks.stripeFor(accountId);
+        if (accountLocks.isHeldByCurrentThread(stripe)) {
+            return snapshotOf(account, accountLocks.sequence(stripe));
+        }
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_SPINS; attempt++) {
+            long sequence = accountLocks.sequence(stripe);
+            if ((sequence & 1) == 0) {
+                BalanceSnapshot snapshot = snapshotOf(account, sequence);
+                if (accountLocks.validate(stripe, sequence)) {
+                    return snapshot;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+            return snapshotOf(account, accountLocks.sequence(stripe));
+        }
+    }
+
+    private static BalanceSnapshot snapshotOf(Account account, long sequence) {
+        return new BalanceSnapshot(account.getAccountId(), account.getBalance(), account.isActive(),
+                account.getJournalPosition(), sequence);
+    }
+
+    @Override
+    public List<BalanceTotal> getBalanceTotals() {
+        return aggregates.getTotals();
+    }
+
+    @Override
+    public List<BalanceTotal> getBalanceTotalsByCustomer(String customerId) {
+        return aggregates.getTotalsByCustomer(customerId);
+    }
+
+    @Override
+    public List<BalanceTotal> getBalanceTotalsByAccountType(AccountType accountType) {
+        return aggregates.getTotalsByAccountType(accountType);
+    }
+
+    private long journal(byte[] record) {
+        return journal == null ? 0 : journal.append(record);
+    }
+
+    private void awaitDurable(long position) {
+        if (journal != null) {
+            journal.awaitDurable(position);
+        }
     }
-}
 
+    @Override
+    public BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+
+    /**
+     * Locks guarding account state; any code mutating an account must hold its stripe.
+     */
+    public StripedLocks getAccountLocks() {
+        return accountLocks;
+    }
+
+    /**
+     * Ledger journal shared by account and transaction changes, or {@code null} if disabled.
+     */
+    @Override
+    public Journal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+}
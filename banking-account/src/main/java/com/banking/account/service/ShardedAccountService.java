@@ -0,0 +1,286 @@
+package com.banking.account.service;
+
+import com.banking.account.aggregate.BalanceTotal;
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.domain.BalanceSnapshot;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.ServiceMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Account service that partitions accounts into a fixed number of shards by
+ * a hash of the account ID. Each shard is an independent {@link AccountService}
+ * with its own account store, customer index and stripe locks, so shards share
+ * no mutable state and single-account operations never leave their shard.
+ * <p>
+ * Operations spanning shards lock through {@link #lockAll(Collection)}, which
+ * acquires the shards' locks in ascending shard order (and stripe order within
+ * a shard), so they cannot deadlock with each other or with single-shard
+ * operations. All shards append to the same journal, if one is configured, so
+ * a cross-shard change is still a single journal record.
+ */
+public class ShardedAccountService implements AccountEngine {
+    private final AccountService[] shards;
+    private final BalanceMode balanceMode;
+    private final Journal journal;
+    private final ServiceMetrics metrics;
+    private final OperationMetrics creates;
+
+    public ShardedAccountService(int shardCount) {
+        this(shardCount, BalanceMode.MONEY, null);
+    }
+
+    /**
+     * @param journal ledger journal shared by all shards, or {@code null} to keep
+     *                state in memory only
+     */
+    public ShardedAccountService(int shardCount, BalanceMode balanceMode, Journal journal) {
+        this(shardCount, balanceMode, journal, ServiceMetrics.disabled());
+    }
+
+    /**
+     * @param metrics registry shared by all shards, whose lock tables also record
+     *                into its lock-wait histogram
+     */
+    public ShardedAccountService(int shardCount, BalanceMode balanceMode, Journal journal, ServiceMetrics metrics) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Service metrics cannot be null");
+        }
+        this.balanceMode = balanceMode;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.creates = metrics.operation(ServiceMetrics.ACCOUNT_CREATE);
+        this.shards = new AccountService[shardCount];
+        // Each shard gets a full lock table, so the stripe count per account does not shrink as shards grow
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new AccountService(new StripedLocks(StripedLocks.DEFAULT_STRIPES, metrics.getLockWaits()),
+                    balanceMode, journal, new HeapAccountStore(), metrics);
+        }
+    }
+
+    @Override
+    public Account createAccount(String customerId, AccountType accountType, Money initialBalance) {
+        long start = creates.start();
+        try {
+            Account account = new Account(customerId, accountType, initialBalance, balanceMode);
+            Account stored = shardFor(account.getAccountId()).open(account);
+            creates.success(start);
+            return stored;
+        } catch (RuntimeException e) {
+            creates.failure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Re-registers an account recovered from the journal or a snapshot in its shard.
+     */
+    @Override
+    public void restoreAccount(Account account) {
+        shardFor(account.getAccountId()).restoreAccount(account);
+    }
+
+    @Override
+    public Account getAccount(String accountId) {
+        return shardFor(accountId).getAccount(accountId);
+    }
+
+    @Override
+    public boolean accountExists(String accountId) {
+        return accountId != null && shardFor(accountId).accountExists(accountId);
+    }
+
+    /**
+     * A customer's accounts may live in any shard, so this consults every shard's index.
+     */
+    @Override
+    public List<Account> getAccountsByCustomer(String customerId) {
+        List<Account> accounts = new ArrayList<>();
+        for (AccountService shard : shards) {
+            accounts.addAll(shard.getAccountsByCustomer(customerId));
+        }
+        return accounts;
+    }
+
+    @Override
+    public List<Account> getAllAccounts() {
+        List<Account> accounts = new ArrayList<>();
+        for (AccountService shard : shards) {
+            accounts.addAll(shard.getAllAccounts());
+        }
+        return accounts;
+    }
+
+    /**
+     * Lazily iterates all accounts shard by shard; each shard's view is weakly consistent.
+     */
+    @Override
+    public Stream<Account> streamAllAccounts() {
+        return Arrays.stream(shards).flatMap(AccountService::streamAllAccounts);
+    }
+
+    @Override
+    public void deactivateAccount(String accountId) {
+        shardFor(accountId).deactivateAccount(accountId);
+    }
+
+    @Override
+    public void activateAccount(String accountId) {
+        shardFor(accountId).activateAccount(accountId);
+    }
+
+    @Override
+    public Money getBalance(String accountId) {
+        return shardFor(accountId).getBalance(accountId);
+    }
+
+    /**
+     * Read from the account's shard; cross-shard operations hold the stripes of
+     * every shard they touch, so the snapshot never sees half of one either.
+     */
+    @Override
+    public BalanceSnapshot getBalanceSnapshot(String accountId) {
+        return shardFor(accountId).getBalanceSnapshot(accountId);
+    }
+
+    /**
+     * Sums the shards' own running totals, so the cost grows with the shard
+     * count, not the number of accounts.
+     */
+    @Override
+    public List<BalanceTotal> getBalanceTotals() {
+        List<List<BalanceTotal>> totals = new ArrayList<>(shards.length);
+        for (AccountService shard : shards) {
+            totals.add(shard.getBalanceTotals());
+        }
+        return BalanceTotal.merge(totals);
+    }
+
+    @Override
+    public List<BalanceTotal> getBalanceTotalsByCustomer(String customerId) {
+        List<List<BalanceTotal>> totals = new ArrayList<>(shards.length);
+        for (AccountService shard : shards) {
+            totals.add(shard.getBalanceTotalsByCustomer(customerId));
+        }
+        return BalanceTotal.merge(totals);
+    }
+
+    @Override
+    public List<BalanceTotal> getBalanceTotalsByAccountType(AccountType accountType) {
+        List<List<BalanceTotal>> totals = new ArrayList<>(shards.length);
+        for (AccountService shard : shards) {
+            totals.add(shard.getBalanceTotalsByAccountType(accountType));
+        }
+        return BalanceTotal.merge(totals);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Index of the shard owning an account.
+     */
+    public int shardOf(String accountId) {
+        if (accountId == null) {
+            throw new IllegalArgumentException("Account ID cannot be null");
+        }
+        // Fibonacci hashing keeps the shard choice independent of the low bits the stripe locks use
+        long mixed = (accountId.hashCode() * 0x9E3779B9) & 0xFFFFFFFFL;
+        return (int) ((mixed * shards.length) >>> 32);
+    }
+
+    public AccountService getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Locks the given accounts across shards: shard by shard in ascending shard
+     * order, and in stripe order within each shard.
+     */
+    public ShardLocks lockAll(Collection<String> accountIds) {
+        List<List<String>> byShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            byShard.add(null);
+        }
+        for (String accountId : accountIds) {
+            int shard = shardOf(accountId);
+            if (byShard.get(shard) == null) {
+                byShard.set(shard, new ArrayList<>());
+            }
+            byShard.get(shard).add(accountId);
+        }
+        ShardLocks held = new ShardLocks();
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                if (byShard.get(i) != null) {
+                    held.add(shards[i].getAccountLocks().lockAll(byShard.get(i)));
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            held.close();
+            throw e;
+        }
+        return held;
+    }
+
+    @Override
+    public BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+
+    /**
+     * Ledger journal shared by all shards, or {@code null} if disabled.
+     */
+    @Override
+    public Journal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    private AccountService shardFor(String accountId) {
+        return shards[shardOf(accountId)];
+    }
+
+    /**
+     * Stripe locks held across several shards; closing releases them in reverse order.
+     */
+    public static final class ShardLocks implements AutoCloseable {
+        private final List<StripedLocks.Held> held = new ArrayList<>(2);
+
+        private ShardLocks() {
+        }
+
+        private void add(StripedLocks.Held locks) {
+            held.add(locks);
+        }
+
+        @Override
+        public void close() {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.banking.account.snapshot;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.CurrencyUnit;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.Journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes and restores compact binary snapshots of the {@link AccountService}
+ * account map so recovery only has to replay the journal tail.
+ * <p>
+ * Snapshots are fuzzy: writes continue while one is taken, and each account is
+ * locked only long enough to copy its state. Every account records the journal
+ * position of the last change applied to it, so replay from the position captured
+ * when the snapshot started re-applies exactly the changes it is missing. An
+ * account is stored before its opening is journaled, so every account opened
+ * before that position is in the snapshot. A snapshot file is published
+ * (atomically renamed) only once everything it contains is durable in the
+ * journal.
+ */
+public class AccountSnapshotter implements AutoCloseable {
+    private static final int MAGIC = 0x42534E50;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "accounts-";
+    private static final String SUFFIX = ".snapshot";
+    private static final int RETAINED_SNAPSHOTS = 2;
+
+    private final AccountService accountService;
+    private final Path directory;
+    private ScheduledExecutorService scheduler;
+    private volatile SnapshotStats lastSnapshot;
+    private volatile SnapshotStats lastRestore;
+    private volatile RuntimeException lastFailure;
+
+    public AccountSnapshotter(AccountService accountService, Path directory) {
+        if (accountService == null) {
+            throw new IllegalArgumentException("AccountService cannot be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("Snapshot directory cannot be null");
+        }
+        this.accountService = accountService;
+        this.directory = directory;
+    }
+
+    /**
+     * Takes a snapshot every {@code intervalSeconds} on a background thread.
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Snapshotter already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+                lastFailure = null;
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; the next run retries
+                lastFailure = e;
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized SnapshotStats snapshot() {
+        long start = System.nanoTime();
+        Journal journal = accountService.getJournal();
+        long journalPosition = journal == null ? 0 : journal.getAppendedPosition();
+        Path target = directory.resolve(PREFIX + journalPosition + SUFFIX);
+        Path temp = directory.resolve(PREFIX + journalPosition + SUFFIX + ".tmp");
+        StripedLocks locks = accountService.getAccountLocks();
+        long count = 0;
+        long maxAccountPosition = 0;
+        try {
+            Files.createDirectories(directory);
+            try (CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16), new CRC32());
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(journalPosition);
+                for (Iterator<Account> it = accountService.streamAllAccounts().iterator(); it.hasNext(); ) {
+                    Account account = it.next();
+                    Money balance;
+                    boolean active;
+                    long accountPosition;
+                    try (StripedLocks.Held ignored = locks.lock(account.getAccountId())) {
+                        balance = account.getBalance();
+                        active = account.isActive();
+                        accountPosition = account.getJournalPosition();
+                    }
+                    out.writeBoolean(true);
+                    writeAccount(out, account, balance, active, accountPosition);
+                    maxAccountPosition = Math.max(maxAccountPosition, accountPosition);
+                    count++;
+                }
+                out.writeBoolean(false);
+                out.writeLong(count);
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+            }
+            if (journal != null) {
+                // Never publish state that a crash could still roll back
+                journal.awaitDurable(maxAccountPosition);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOldSnapshots();
+            SnapshotStats stats = new SnapshotStats(target, count, Files.size(target), journalPosition,
+                    System.nanoTime() - start);
+            lastSnapshot = stats;
+            return stats;
+        } catch (IOException e) {
+            throw new JournalException("Cannot write account snapshot " + target, e);
+        }
+    }
+
+    /**
+     * Loads the newest readable snapshot into the (empty) account service. Returns
+     * its stats, whose journal position is where journal replay must resume.
+     */
+    public Optional<SnapshotStats> restoreLatest() {
+        long start = System.nanoTime();
+        for (Path file : listSnapshots()) {
+            List<Account> accounts = new ArrayList<>();
+            long journalPosition;
+            try {
+                journalPosition = readSnapshot(file, accounts);
+            } catch (IOException | RuntimeException e) {
+                // Corrupt or truncated snapshot; fall back to the previous one
+                continue;
+            }
+            for (Account account : accounts) {
+                accountService.restoreAccount(account);
+            }
+            try {
+                SnapshotStats stats = new SnapshotStats(file, accounts.size(), Files.size(file), journalPosition,
+                        System.nanoTime() - start);
+                lastRestore = stats;
+                return Optional.of(stats);
+            } catch (IOException e) {
+                throw new JournalException("Cannot stat account snapshot " + file, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public SnapshotStats getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    public SnapshotStats getLastRestore() {
+        return lastRestore;
+    }
+
+    /**
+     * Failure of the most recent scheduled snapshot, or {@code null} if it succeeded.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void writeAccount(DataOutputStream out, Account account, Money balance, boolean active,
+                              long accountPosition) throws IOException {
+        out.writeUTF(account.getAccountId());
+        out.writeUTF(account.getCustomerId());
+        out.writeByte(account.getAccountType().ordinal());
+        short numericCode = isoNumericCode(balance.getCurrency());
+        out.writeShort(numericCode);
+        if (numericCode == 0) {
+            out.writeUTF(balance.getCurrency());
+        }
+        BigDecimal amount = balance.getAmount();
+        byte[] unscaled = amount.unscaledValue().toByteArray();
+        out.writeShort(amount.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+        out.writeBoolean(active);
+        out.writeLong(accountPosition);
+    }
+
+    private long readSnapshot(Path file, List<Account> accounts) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an account snapshot: " + file);
+            }
+            long journalPosition = in.readLong();
+            AccountType[] types = AccountType.values();
+            while (in.readBoolean()) {
+                String accountId = in.readUTF();
+                String customerId = in.readUTF();
+                AccountType accountType = types[in.readUnsignedByte()];
+                short numericCode = in.readShort();
+                String currency = numericCode == 0 ? in.readUTF() : CurrencyUnit.ofNumericCode(numericCode).getCode();
+                int scale = in.readShort();
+                byte[] unscaled = new byte[in.readUnsignedShort()];
+                in.readFully(unscaled);
+                boolean active = in.readBoolean();
+                long accountPosition = in.readLong();
+                Account account = new Account(accountId, customerId, accountType,
+                        new Money(new BigDecimal(new BigInteger(unscaled), scale), currency), active,
+                        accountService.getBalanceMode());
+                account.setJournalPosition(accountPosition);
+                accounts.add(account);
+            }
+            long count = in.readLong();
+            long expectedChecksum = checked.getChecksum().getValue();
+            if (in.readLong() != expectedChecksum || count != accounts.size()) {
+                throw new IOException("Checksum mismatch in snapshot " + file);
+            }
+            return journalPosition;
+        }
+    }
+
+    private static short isoNumericCode(String currency) {
+        try {
+            return CurrencyUnit.of(currency).getNumericCode();
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private List<Path> listSnapshots() {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                snapshots.add(file);
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot list snapshots in " + directory, e);
+        }
+        snapshots.sort(Comparator.comparingLong(AccountSnapshotter::positionOf).reversed());
+        return snapshots;
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = RETAINED_SNAPSHOTS; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private static long positionOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
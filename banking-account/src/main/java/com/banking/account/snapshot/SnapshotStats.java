@@ -0,0 +1,52 @@
+package com.banking.account.snapshot;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and timing of one snapshot write or restore.
+ */
+public class SnapshotStats {
+    private final Path file;
+    private final long accountCount;
+    private final long sizeBytes;
+    private final long journalPosition;
+    private final long durationNanos;
+
+    public SnapshotStats(Path file, long accountCount, long sizeBytes, long journalPosition, long durationNanos) {
+        this.file = file;
+        this.accountCount = accountCount;
+        this.sizeBytes = sizeBytes;
+        this.journalPosition = journalPosition;
+        this.durationNanos = durationNanos;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Journal position from which replay must resume after restoring this snapshot.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SnapshotStats{file=%s, accounts=%d, bytes=%d, journalPosition=%d, millis=%d}",
+                file, accountCount, sizeBytes, journalPosition, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+}
@@ -0,0 +1,44 @@
+package com.banking.account.store;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceListener;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Where an {@link com.banking.account.service.AccountService} keeps its
+ * accounts, indexed by account ID and by customer ID. Implementations must
+ * allow lookups concurrently with additions; mutations of the returned
+ * accounts are serialized by the service's stripe locks as usual.
+ */
+public interface AccountStore {
+
+    /**
+     * Stores a new or recovered account, replacing any stored state for the same
+     * ID, and returns the instance to use from now on. A store that does not keep
+     * the given object may return a different instance backed by its own storage.
+     */
+    Account add(Account account);
+
+    /**
+     * Returns the account, or {@code null} if it is not stored.
+     */
+    Account get(String accountId);
+
+    boolean contains(String accountId);
+
+    List<Account> getByCustomer(String customerId);
+
+    /**
+     * Lazily iterates all accounts; the view is weakly consistent with
+     * accounts added while the stream is being consumed.
+     */
+    Stream<Account> stream();
+
+    /**
+     * Installs the listener on every account this store holds or returns from
+     * now on. Call before the store is shared with other threads.
+     */
+    void setBalanceListener(BalanceListener listener);
+}
@@ -0,0 +1,56 @@
+package com.banking.account.store;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Default {@link AccountStore}: account objects on the heap in a concurrent
+ * map, plus a customer ID index so customer lookups do not scan the store.
+ */
+public class HeapAccountStore implements AccountStore {
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<String, Set<Account>> accountsByCustomer = new ConcurrentHashMap<>();
+    private BalanceListener balanceListener;
+
+    @Override
+    public Account add(Account account) {
+        account.setBalanceListener(balanceListener);
+        accounts.put(account.getAccountId(), account);
+        accountsByCustomer.computeIfAbsent(account.getCustomerId(), id -> ConcurrentHashMap.newKeySet()).add(account);
+        return account;
+    }
+
+    @Override
+    public Account get(String accountId) {
+        return accounts.get(accountId);
+    }
+
+    @Override
+    public boolean contains(String accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    @Override
+    public List<Account> getByCustomer(String customerId) {
+        Set<Account> customerAccounts = accountsByCustomer.get(customerId);
+        return customerAccounts == null ? new ArrayList<>() : new ArrayList<>(customerAccounts);
+    }
+
+    @Override
+    public Stream<Account> stream() {
+        return accounts.values().stream();
+    }
+
+    @Override
+    public void setBalanceListener(BalanceListener listener) {
+        this.balanceListener = listener;
+        accounts.values().forEach(account -> account.setBalanceListener(listener));
+    }
+}
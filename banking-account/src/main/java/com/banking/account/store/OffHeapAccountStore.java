@@ -0,0 +1,620 @@
+package com.banking.account.store;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceListener;
+import com.banking.account.domain.BalanceMode;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.CompactMoney;
+import com.banking.core.domain.CurrencyUnit;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.exception.JournalException;
+import com.banking.core.id.TimeOrderedIdGenerator;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link AccountStore} that keeps every account in a fixed-width 64-byte row
+ * outside the Java heap, so tens of millions of accounts cost the garbage
+ * collector almost nothing. Rows live in direct buffers, or in a memory-mapped
+ * file when a path is given, allocated in segments as the table grows.
+ * <p>
+ * Rows are addressed by a dense index in creation order. The account ID and
+ * customer ID indexes are open-addressing tables of {@code int} row numbers that
+ * compare keys against the rows themselves, so they hold no per-account
+ * objects. Accounts of one customer are chained through their rows. Account
+ * IDs must be {@link TimeOrderedIdGenerator} IDs, which are stored as their
+ * 63-bit numeric value; customer IDs are limited to
+ * {@value #MAX_CUSTOMER_ID_BYTES} UTF-8 bytes and currencies to ISO codes.
+ * <p>
+ * The store returns short-lived {@link Account} views that read and write their
+ * row directly. Balances are updated lock-free with compare-and-set, as in
+ * {@link BalanceMode#ATOMIC_MINOR_UNITS}.
+ * <p>
+ * A mapped table is marked clean when closed. Reopening a clean table restores
+ * every account without replaying the journal from the start; replay resumes at
+ * {@link #getRestoredJournalPosition()}. A table that was not closed cleanly may
+ * hold changes the journal never made durable, so it is discarded on open and
+ * rebuilt by journal replay.
+ */
+public class OffHeapAccountStore implements AccountStore, AutoCloseable {
+    public static final int ROW_SIZE = 64;
+    public static final int MAX_CUSTOMER_ID_BYTES = 28;
+    public static final int DEFAULT_ROWS_PER_SEGMENT = 1 << 20;
+
+    private static final int MAGIC = 0x42414354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_ROWS_PER_SEGMENT = 8;
+    private static final int HEADER_CLEAN = 12;
+    private static final int HEADER_ROW_COUNT = 16;
+
+    // Row layout
+    private static final int ID = 0;
+    private static final int BALANCE = 8;
+    private static final int JOURNAL_POSITION = 16;
+    private static final int NEXT_FOR_CUSTOMER = 24;
+    private static final int FLAGS = 28;
+    private static final int CURRENCY = 32;
+    private static final int ACCOUNT_TYPE = 34;
+    private static final int CUSTOMER_ID_LENGTH = 35;
+    private static final int CUSTOMER_ID = 36;
+
+    private static final int ACTIVE = 1;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer header;
+    private final int rowsPerSegment;
+    private final int segmentShift;
+    private final boolean restored;
+    private final long restoredJournalPosition;
+
+    // Published by volatile writes after the rows they cover are written
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    private volatile int rowCount;
+    // Row number + 1 per slot, 0 = empty; written under this store's monitor
+    private volatile int[] idSlots = new int[INITIAL_SLOTS];
+    private volatile int[] customerSlots = new int[INITIAL_SLOTS];
+    private int customerCount;
+    private boolean closed;
+    private BalanceListener balanceListener;
+
+    /**
+     * Creates an empty table in direct memory.
+     */
+    public OffHeapAccountStore() {
+        this(null, DEFAULT_ROWS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens (or creates) a table mapped from {@code path}.
+     */
+    public OffHeapAccountStore(Path path) {
+        this(path, DEFAULT_ROWS_PER_SEGMENT);
+    }
+
+    /**
+     * @param path           table file, or {@code null} to keep the table in direct memory
+     * @param rowsPerSegment rows allocated at a time (power of two); an existing
+     *                       table keeps the segment size it was created with
+     */
+    public OffHeapAccountStore(Path path, int rowsPerSegment) {
+        if (rowsPerSegment <= 0 || Integer.bitCount(rowsPerSegment) != 1) {
+            throw new IllegalArgumentException("Rows per segment must be a power of two");
+        }
+        this.path = path;
+        if (path == null) {
+            this.channel = null;
+            this.header = ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            initHeader(header, rowsPerSegment);
+            this.rowsPerSegment = rowsPerSegment;
+            this.segmentShift = Integer.numberOfTrailingZeros(rowsPerSegment);
+            this.restored = false;
+            this.restoredJournalPosition = 0;
+            return;
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            MappedByteBuffer existing = channel.size() >= HEADER_SIZE ? map(0, HEADER_SIZE) : null;
+            if (existing != null && isCleanTable(existing, channel.size())) {
+                this.header = existing;
+                this.rowsPerSegment = existing.getInt(HEADER_ROWS_PER_SEGMENT);
+                this.restored = true;
+            } else {
+                // Absent, foreign or not closed cleanly: start over and let the journal rebuild it
+                channel.truncate(0);
+                this.header = map(0, HEADER_SIZE);
+                initHeader(header, rowsPerSegment);
+                this.rowsPerSegment = rowsPerSegment;
+                this.restored = false;
+            }
+            this.segmentShift = Integer.numberOfTrailingZeros(this.rowsPerSegment);
+            this.restoredJournalPosition = restored ? reload() : 0;
+            header.putInt(HEADER_CLEAN, 0);
+            ((MappedByteBuffer) header).force();
+        } catch (IOException e) {
+            throw new JournalException("Cannot open account table " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized Account add(Account account) {
+        if (closed) {
+            throw new IllegalStateException("Account table is closed");
+        }
+        long id = keyOf(account.getAccountId());
+        if (id < 0) {
+            throw new IllegalArgumentException("Off-heap account store requires time-ordered account IDs: "
+                    + account.getAccountId());
+        }
+        int row = findRow(id);
+        if (row < 0) {
+            row = append(id, account);
+        } else {
+            writeState(row, account);
+        }
+        return new RowAccount(row, account.getAccountId());
+    }
+
+    @Override
+    public Account get(String accountId) {
+        long id = keyOf(accountId);
+        int row = id < 0 ? -1 : findRow(id);
+        return row < 0 ? null : new RowAccount(row, accountId);
+    }
+
+    @Override
+    public boolean contains(String accountId) {
+        long id = keyOf(accountId);
+        return id >= 0 && findRow(id) >= 0;
+    }
+
+    /**
+     * Returns the customer's accounts, newest first.
+     */
+    @Override
+    public List<Account> getByCustomer(String customerId) {
+        List<Account> accounts = new ArrayList<>();
+        byte[] customer = customerId.getBytes(StandardCharsets.UTF_8);
+        int[] slots = customerSlots;
+        int entry = (int) SLOTS.getAcquire(slots, customerSlot(slots, customer));
+        for (int row = entry - 1; row >= 0; row = nextForCustomer(row)) {
+            accounts.add(new RowAccount(row, null));
+        }
+        return accounts;
+    }
+
+    @Override
+    public Stream<Account> stream() {
+        return IntStream.range(0, rowCount).mapToObj(row -> new RowAccount(row, null));
+    }
+
+    @Override
+    public void setBalanceListener(BalanceListener listener) {
+        this.balanceListener = listener;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Whether the table was reopened from a cleanly closed file.
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Journal position every restored row already reflects, where replay must
+     * resume; 0 if nothing was restored.
+     */
+    public long getRestoredJournalPosition() {
+        return restoredJournalPosition;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Flushes a mapped table and marks it clean, so the next open restores it.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed || channel == null) {
+            closed = true;
+            return;
+        }
+        closed = true;
+        try {
+            for (ByteBuffer segment : segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+            header.putInt(HEADER_CLEAN, 1);
+            ((MappedByteBuffer) header).force();
+            channel.close();
+        } catch (IOException e) {
+            throw new JournalException("Cannot close account table " + path, e);
+        }
+    }
+
+    private int append(long id, Account account) {
+        byte[] customer = account.getCustomerId().getBytes(StandardCharsets.UTF_8);
+        if (customer.length > MAX_CUSTOMER_ID_BYTES) {
+            throw new IllegalArgumentException("Customer ID longer than " + MAX_CUSTOMER_ID_BYTES
+                    + " bytes is not supported by the off-heap account store");
+        }
+        short currency = CurrencyUnit.of(account.getBalance().getCurrency()).getNumericCode();
+        int row = rowCount;
+        if (row == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Account table is full");
+        }
+        ensureSegment(row >>> segmentShift);
+        ByteBuffer buffer = segmentOf(row);
+        int offset = offsetOf(row);
+        buffer.putLong(offset + ID, id);
+        buffer.putShort(offset + CURRENCY, currency);
+        buffer.put(offset + ACCOUNT_TYPE, (byte) account.getAccountType().ordinal());
+        buffer.put(offset + CUSTOMER_ID_LENGTH, (byte) customer.length);
+        for (int i = 0; i < customer.length; i++) {
+            buffer.put(offset + CUSTOMER_ID + i, customer[i]);
+        }
+        int[] customers = customerSlots;
+        int customerSlot = customerSlot(customers, customer);
+        buffer.putInt(offset + NEXT_FOR_CUSTOMER, customers[customerSlot]);
+        writeState(row, account);
+
+        rowCount = row + 1;
+        header.putLong(HEADER_ROW_COUNT, rowCount);
+        // Rows are complete before their slots are released to lock-free readers
+        int[] ids = idSlots;
+        SLOTS.setRelease(ids, idSlot(ids, id), row + 1);
+        if (customers[customerSlot] == 0) {
+            customerCount++;
+        }
+        SLOTS.setRelease(customers, customerSlot, row + 1);
+        if (rowCount * 2 > ids.length) {
+            idSlots = rehashIds(ids.length * 2);
+        }
+        if (customerCount * 2 > customers.length) {
+            customerSlots = rehashCustomers(customers.length * 2);
+        }
+        return row;
+    }
+
+    private void writeState(int row, Account account) {
+        ByteBuffer buffer = segmentOf(row);
+        int offset = offsetOf(row);
+        CurrencyUnit currency = CurrencyUnit.ofNumericCode(buffer.getShort(offset + CURRENCY));
+        LONGS.setVolatile(buffer, offset + BALANCE, CompactMoney.toMinorUnits(account.getBalance(), currency));
+        INTS.setVolatile(buffer, offset + FLAGS, account.isActive() ? ACTIVE : 0);
+        LONGS.setVolatile(buffer, offset + JOURNAL_POSITION, account.getJournalPosition());
+    }
+
+    /**
+     * Rebuilds both indexes from a restored table and returns the highest
+     * journal position recorded in any row.
+     */
+    private long reload() {
+        long rows = header.getLong(HEADER_ROW_COUNT);
+        int segmentCount = (int) ((rows + rowsPerSegment - 1) / rowsPerSegment);
+        for (int i = 0; i < segmentCount; i++) {
+            ensureSegment(i);
+        }
+        int capacity = INITIAL_SLOTS;
+        while (capacity < rows * 2) {
+            capacity <<= 1;
+        }
+        rowCount = (int) rows;
+        idSlots = rehashIds(capacity);
+        customerSlots = rehashCustomers(capacity);
+        long position = 0;
+        for (int row = 0; row < rowCount; row++) {
+            position = Math.max(position, (long) LONGS.getVolatile(segmentOf(row), offsetOf(row) + JOURNAL_POSITION));
+        }
+        return position;
+    }
+
+    private int[] rehashIds(int capacity) {
+        int[] slots = new int[capacity];
+        for (int row = 0; row < rowCount; row++) {
+            slots[idSlot(slots, segmentOf(row).getLong(offsetOf(row) + ID))] = row + 1;
+        }
+        return slots;
+    }
+
+    /**
+     * Points each customer's slot at its newest row; older rows stay reachable
+     * through the chain stored in the rows.
+     */
+    private int[] rehashCustomers(int capacity) {
+        int[] slots = new int[capacity];
+        int customers = 0;
+        for (int row = 0; row < rowCount; row++) {
+            int slot = customerSlot(slots, customerOf(row));
+            if (slots[slot] == 0) {
+                customers++;
+            }
+            slots[slot] = row + 1;
+        }
+        customerCount = customers;
+        return slots;
+    }
+
+    private int findRow(long id) {
+        int[] slots = idSlots;
+        int entry = (int) SLOTS.getAcquire(slots, idSlot(slots, id));
+        return entry - 1;
+    }
+
+    /**
+     * Slot holding {@code id}, or the empty slot where it belongs.
+     */
+    private int idSlot(int[] slots, long id) {
+        int mask = slots.length - 1;
+        long h = id * 0x9E3779B97F4A7C15L;
+        for (int i = (int) (h ^ (h >>> 32)) & mask; ; i = (i + 1) & mask) {
+            int entry = (int) SLOTS.getAcquire(slots, i);
+            if (entry == 0 || (long) LONGS.get(segmentOf(entry - 1), offsetOf(entry - 1) + ID) == id) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Slot holding the customer's newest row, or the empty slot where it belongs.
+     */
+    private int customerSlot(int[] slots, byte[] customer) {
+        int mask = slots.length - 1;
+        int h = Arrays.hashCode(customer) * 0x9E3779B9;
+        for (int i = (h ^ (h >>> 16)) & mask; ; i = (i + 1) & mask) {
+            int entry = (int) SLOTS.getAcquire(slots, i);
+            if (entry == 0 || customerEquals(entry - 1, customer)) {
+                return i;
+            }
+        }
+    }
+
+    private boolean customerEquals(int row, byte[] customer) {
+        ByteBuffer buffer = segmentOf(row);
+        int offset = offsetOf(row);
+        if (buffer.get(offset + CUSTOMER_ID_LENGTH) != customer.length) {
+            return false;
+        }
+        for (int i = 0; i < customer.length; i++) {
+            if (buffer.get(offset + CUSTOMER_ID + i) != customer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] customerOf(int row) {
+        ByteBuffer buffer = segmentOf(row);
+        int offset = offsetOf(row);
+        byte[] customer = new byte[buffer.get(offset + CUSTOMER_ID_LENGTH)];
+        for (int i = 0; i < customer.length; i++) {
+            customer[i] = buffer.get(offset + CUSTOMER_ID + i);
+        }
+        return customer;
+    }
+
+    private int nextForCustomer(int row) {
+        return segmentOf(row).getInt(offsetOf(row) + NEXT_FOR_CUSTOMER) - 1;
+    }
+
+    private void ensureSegment(int index) {
+        ByteBuffer[] current = segments;
+        if (index < current.length) {
+            return;
+        }
+        long segmentBytes = (long) rowsPerSegment * ROW_SIZE;
+        if (segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Segment of " + rowsPerSegment + " rows exceeds 2 GB");
+        }
+        ByteBuffer segment;
+        try {
+            segment = channel == null
+                    ? ByteBuffer.allocateDirect((int) segmentBytes)
+                    : map(HEADER_SIZE + index * segmentBytes, segmentBytes);
+        } catch (IOException e) {
+            throw new JournalException("Cannot grow account table " + path, e);
+        }
+        ByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        grown[index] = segment.order(ByteOrder.LITTLE_ENDIAN);
+        segments = grown;
+    }
+
+    private MappedByteBuffer map(long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private ByteBuffer segmentOf(int row) {
+        return segments[row >>> segmentShift];
+    }
+
+    private int offsetOf(int row) {
+        return (row & (rowsPerSegment - 1)) * ROW_SIZE;
+    }
+
+    private static void initHeader(ByteBuffer header, int rowsPerSegment) {
+        header.putInt(HEADER_MAGIC, MAGIC);
+        header.putInt(HEADER_VERSION, VERSION);
+        header.putInt(HEADER_ROWS_PER_SEGMENT, rowsPerSegment);
+        header.putInt(HEADER_CLEAN, 0);
+        header.putLong(HEADER_ROW_COUNT, 0);
+    }
+
+    private static boolean isCleanTable(ByteBuffer header, long fileSize) {
+        int rowsPerSegment = header.getInt(HEADER_ROWS_PER_SEGMENT);
+        long rows = header.getLong(HEADER_ROW_COUNT);
+        return header.getInt(HEADER_MAGIC) == MAGIC
+                && header.getInt(HEADER_VERSION) == VERSION
+                && header.getInt(HEADER_CLEAN) == 1
+                && rowsPerSegment > 0 && Integer.bitCount(rowsPerSegment) == 1
+                && rows >= 0 && rows < Integer.MAX_VALUE
+                && fileSize >= HEADER_SIZE + rows * ROW_SIZE;
+    }
+
+    /**
+     * Numeric value of a time-ordered account ID, or -1 if it is not one.
+     */
+    private static long keyOf(String accountId) {
+        // 13 base32 characters carry 65 bits; the first must leave the top two clear
+        if (accountId == null || accountId.isEmpty() || accountId.charAt(0) > '7') {
+            return -1;
+        }
+        try {
+            return TimeOrderedIdGenerator.decode(accountId);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * View of one row. It holds only the row number; balance, status and
+     * journal position are read from and written to the row on every call.
+     */
+    private final class RowAccount extends Account {
+        private final int row;
+
+        RowAccount(int row, String accountId) {
+            this(row, accountId, segmentOf(row), offsetOf(row));
+        }
+
+        private RowAccount(int row, String accountId, ByteBuffer buffer, int offset) {
+            super(accountId != null ? accountId : TimeOrderedIdGenerator.encode(buffer.getLong(offset + ID)),
+                    new String(customerOf(row), StandardCharsets.UTF_8),
+                    ACCOUNT_TYPES[buffer.get(offset + ACCOUNT_TYPE)],
+                    new Money(BigDecimal.ZERO, CurrencyUnit.ofNumericCode(buffer.getShort(offset + CURRENCY)).getCode()),
+                    true, BalanceMode.ATOMIC_MINOR_UNITS);
+            this.row = row;
+            setBalanceListener(balanceListener);
+        }
+
+        @Override
+        public Money getBalance() {
+            return CompactMoney.toMoney((long) LONGS.getVolatile(segmentOf(row), offsetOf(row) + BALANCE), currency());
+        }
+
+        @Override
+        public boolean isActive() {
+            return ((int) INTS.getVolatile(segmentOf(row), offsetOf(row) + FLAGS) & ACTIVE) != 0;
+        }
+
+        @Override
+        public void deposit(Money amount) {
+            checkActive();
+            if (amount == null || amount.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Deposit amount must be positive");
+            }
+            long units = CompactMoney.toMinorUnits(amount, currency());
+            ByteBuffer buffer = segmentOf(row);
+            int offset = offsetOf(row) + BALANCE;
+            long current;
+            do {
+                current = (long) LONGS.getVolatile(buffer, offset);
+            } while (!LONGS.compareAndSet(buffer, offset, current, CompactMoney.add(current, units)));
+            balanceChanged(amount, true);
+        }
+
+        @Override
+        public void withdraw(Money amount) {
+            checkActive();
+            if (amount == null || amount.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Withdrawal amount must be positive");
+            }
+            CurrencyUnit currency = currency();
+            long units = CompactMoney.toMinorUnits(amount, currency);
+            ByteBuffer buffer = segmentOf(row);
+            int offset = offsetOf(row) + BALANCE;
+            long current;
+            do {
+                current = (long) LONGS.getVolatile(buffer, offset);
+                if (current < units) {
+                    throw new InsufficientFundsException(
+                        String.format("Insufficient funds. Balance: %s, Requested: %s",
+                            CompactMoney.toMoney(current, currency), amount)
+                    );
+                }
+            } while (!LONGS.compareAndSet(buffer, offset, current, current - units));
+            balanceChanged(amount, false);
+        }
+
+        @Override
+        public long getJournalPosition() {
+            return (long) LONGS.getVolatile(segmentOf(row), offsetOf(row) + JOURNAL_POSITION);
+        }
+
+        @Override
+        public void setJournalPosition(long journalPosition) {
+            LONGS.setVolatile(segmentOf(row), offsetOf(row) + JOURNAL_POSITION, journalPosition);
+        }
+
+        @Override
+        public void deactivate() {
+            if (isActive()) {
+                INTS.setVolatile(segmentOf(row), offsetOf(row) + FLAGS, 0);
+                statusChanged(false);
+            }
+        }
+
+        @Override
+        public void activate() {
+            if (!isActive()) {
+                INTS.setVolatile(segmentOf(row), offsetOf(row) + FLAGS, ACTIVE);
+                statusChanged(true);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Account{id='%s', customerId='%s', type=%s, balance=%s, active=%s}",
+                    getAccountId(), getCustomerId(), getAccountType(), getBalance(), isActive());
+        }
+
+        private CurrencyUnit currency() {
+            return CurrencyUnit.ofNumericCode(segmentOf(row).getShort(offsetOf(row) + CURRENCY));
+        }
+
+        private void checkActive() {
+            if (!isActive()) {
+                throw new InvalidAccountException("Account " + getAccountId() + " is not active");
+            }
+        }
+    }
+}
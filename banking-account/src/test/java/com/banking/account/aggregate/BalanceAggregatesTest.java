@@ -0,0 +1,144 @@
+package com.banking.account.aggregate;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.account.store.OffHeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceAggregatesTest {
+
+    @Test
+    void testTotalsFollowBalanceChanges() {
+        AccountService accountService = new AccountService();
+        Account savings = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.00, "USD"));
+        Account checking = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(50.00, "USD"));
+        accountService.createAccount("CUST002", AccountType.SAVINGS, new Money(20.00, "EUR"));
+
+        savings.deposit(new Money(25.50, "USD"));
+        checking.withdraw(new Money(10.00, "USD"));
+
+        List<BalanceTotal> totals = accountService.getBalanceTotals();
+        assertEquals(2, totals.size());
+        assertTotal(totals.get(0), "EUR", "20.00", 1);
+        assertTotal(totals.get(1), "USD", "165.50", 2);
+        assertTotal(accountService.getBalanceTotalsByCustomer("CUST001").get(0), "USD", "165.50", 2);
+        assertTotal(accountService.getBalanceTotalsByAccountType(AccountType.CHECKING).get(0), "USD", "40.00", 1);
+        assertEquals(2, accountService.getBalanceTotalsByAccountType(AccountType.SAVINGS).size());
+        assertTrue(accountService.getBalanceTotalsByCustomer("UNKNOWN").isEmpty());
+        assertTrue(accountService.getBalanceTotalsByAccountType(AccountType.FIXED_DEPOSIT).isEmpty());
+    }
+
+    @Test
+    void testDeactivatedAccountsAreExcluded() {
+        AccountService accountService = new AccountService();
+        Account savings = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.00, "USD"));
+        accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(5.00, "USD"));
+
+        accountService.deactivateAccount(savings.getAccountId());
+        assertTotal(accountService.getBalanceTotals().get(0), "USD", "5.00", 1);
+        // Deactivating twice must not subtract twice
+        accountService.deactivateAccount(savings.getAccountId());
+        assertTotal(accountService.getBalanceTotals().get(0), "USD", "5.00", 1);
+
+        accountService.activateAccount(savings.getAccountId());
+        assertTotal(accountService.getBalanceTotals().get(0), "USD", "105.00", 2);
+    }
+
+    @Test
+    void testRestoredAccountReplacesPreviousContribution() {
+        AccountService accountService = new AccountService();
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.00, "USD"));
+        accountService.restoreAccount(new Account(account.getAccountId(), "CUST001", AccountType.SAVINGS,
+                new Money(70.00, "USD"), true));
+        assertTotal(accountService.getBalanceTotals().get(0), "USD", "70.00", 1);
+
+        // Changes through the restored instance keep updating the totals
+        accountService.getAccount(account.getAccountId()).deposit(new Money(1.00, "USD"));
+        assertTotal(accountService.getBalanceTotals().get(0), "USD", "71.00", 1);
+    }
+
+    @Test
+    void testAmountsFinerThanMinorUnitStayExact() {
+        AccountService accountService = new AccountService();
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(1.00, "USD"));
+        account.deposit(new Money(new BigDecimal("0.001"), "USD"));
+        account.deposit(new Money(new BigDecimal("0.009"), "USD"));
+        assertEquals(0, new BigDecimal("1.01").compareTo(accountService.getBalanceTotals().get(0).getBalance().getAmount()));
+    }
+
+    @Test
+    void testOffHeapAccountViewsUpdateTotals() {
+        try (OffHeapAccountStore store = new OffHeapAccountStore()) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS,
+                    null, store);
+            Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(10.00, "USD"));
+            accountService.getAccount(account.getAccountId()).deposit(new Money(2.50, "USD"));
+            accountService.getAccount(account.getAccountId()).withdraw(new Money(1.00, "USD"));
+            assertTotal(accountService.getBalanceTotals().get(0), "USD", "11.50", 1);
+
+            accountService.deactivateAccount(account.getAccountId());
+            assertTrue(accountService.getBalanceTotals().get(0).getBalance().getAmount().signum() == 0);
+        }
+    }
+
+    @Test
+    void testConcurrentDepositsAndShardedTotals() throws InterruptedException {
+        ShardedAccountService accountService = new ShardedAccountService(4);
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accountIds.add(accountService.createAccount("CUST" + (i % 4), AccountType.SAVINGS,
+                    new Money(0.00, "USD")).getAccountId());
+        }
+        int threads = 8;
+        int depositsPerThread = 1000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < depositsPerThread; i++) {
+                    String accountId = accountIds.get((offset + i) % accountIds.size());
+                    int shard = accountService.shardOf(accountId);
+                    try (StripedLocks.Held ignored = accountService.getShard(shard).getAccountLocks().lock(accountId)) {
+                        accountService.getAccount(accountId).deposit(new Money(0.01, "USD"));
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTotal(accountService.getBalanceTotals().get(0), "USD", "80.00", 16);
+        assertTotal(accountService.getBalanceTotalsByCustomer("CUST0").get(0), "USD", "20.00", 4);
+        assertTotal(accountService.getBalanceTotalsByAccountType(AccountType.SAVINGS).get(0), "USD", "80.00", 16);
+    }
+
+    private static void assertTotal(BalanceTotal total, String currency, String balance, long accounts) {
+        assertEquals(currency, total.getCurrency());
+        assertEquals(0, new BigDecimal(balance).compareTo(total.getBalance().getAmount()),
+                "Balance " + total.getBalance());
+        assertEquals(accounts, total.getAccountCount());
+    }
+}
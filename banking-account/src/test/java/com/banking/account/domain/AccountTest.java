@@ -5,6 +5,15 @@ import com.banking.core.domain.Money;
 import com.banking.core.exception.InsufficientFundsException;
 import com.banking.core.exception.InvalidAccountException;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountTest {
@@ -45,5 +54,48 @@ class AccountTest {
         assertFalse(account.isActive());
         assertThrows(InvalidAccountException.class, () -> account.deposit(new Money(50.0, "USD")));
     }
-}
 
+    @Test
+    void testAtomicModeDepositAndWithdraw() {
+        Account account = new Account("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"), BalanceMode.ATOMIC_MINOR_UNITS);
+        account.deposit(new Money(50.25, "USD"));
+        account.withdraw(new Money(30.0, "USD"));
+        assertEquals(120.25, account.getBalance().getAmount().doubleValue());
+        assertEquals(2, account.getBalance().getAmount().scale());
+        assertThrows(InsufficientFundsException.class, () -> account.withdraw(new Money(120.26, "USD")));
+    }
+
+    @Test
+    void testAtomicModeRejectsSubMinorUnitsAndOtherCurrencies() {
+        Account account = new Account("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"), BalanceMode.ATOMIC_MINOR_UNITS);
+        assertThrows(IllegalArgumentException.class, () -> account.deposit(new Money(0.001, "USD")));
+        assertThrows(IllegalArgumentException.class, () -> account.deposit(new Money(10.0, "EUR")));
+        assertEquals(100.0, account.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testAtomicModeConcurrentWithdrawalsNeverOverdraw() throws Exception {
+        Account account = new Account("CUST001", AccountType.CHECKING, new Money(1000.0, "USD"), BalanceMode.ATOMIC_MINOR_UNITS);
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    try {
+                        account.withdraw(new Money(1.0, "USD"));
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientFundsException expected) {
+                        // Balance exhausted
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(1000, succeeded.get());
+        assertEquals(0.0, account.getBalance().getAmount().doubleValue());
+    }
+}
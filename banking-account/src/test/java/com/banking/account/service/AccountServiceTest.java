@@ -1,11 +1,25 @@
 package com.banking.account.service;
 
 import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.domain.BalanceSnapshot;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
 import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.id.IdGenerator;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.metrics.ServiceMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountServiceTest {
@@ -46,5 +60,115 @@ class AccountServiceTest {
         var customerAccounts = accountService.getAccountsByCustomer("CUST001");
         assertEquals(2, customerAccounts.size());
     }
-}
 
+    @Test
+    void testGetAccountsByCustomerUsesIndex() {
+        Account savings = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        for (int i = 0; i < 1000; i++) {
+            accountService.createAccount("OTHER" + i, AccountType.CHECKING, new Money(1.0, "USD"));
+        }
+
+        var customerAccounts = accountService.getAccountsByCustomer("CUST001");
+        assertEquals(1, customerAccounts.size());
+        assertEquals(savings.getAccountId(), customerAccounts.get(0).getAccountId());
+        assertTrue(accountService.getAccountsByCustomer("UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void testCreateRejectsReissuedId() {
+        Account existing = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        IdGenerator previous = IdGenerators.getDefault();
+        IdGenerators.setDefault(existing::getAccountId);
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> accountService.createAccount("CUST002", AccountType.CHECKING, new Money(5.0, "USD")));
+        } finally {
+            IdGenerators.setDefault(previous);
+        }
+        assertEquals("CUST001", accountService.getAccount(existing.getAccountId()).getCustomerId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(accountService.getBalance(existing.getAccountId()).getAmount()));
+    }
+
+    @Test
+    void testBalanceSnapshot() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        BalanceSnapshot before = accountService.getBalanceSnapshot(account.getAccountId());
+        assertEquals(account.getAccountId(), before.getAccountId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(before.getBalance().getAmount()));
+        assertTrue(before.isActive());
+
+        accountService.deactivateAccount(account.getAccountId());
+        BalanceSnapshot after = accountService.getBalanceSnapshot(account.getAccountId());
+        assertFalse(after.isActive());
+        assertTrue(after.getSequence() > before.getSequence());
+        assertThrows(InvalidAccountException.class, () -> accountService.getBalanceSnapshot("NON_EXISTENT"));
+    }
+
+    @Test
+    void testSnapshotWaitsForLongHeldStripe() throws InterruptedException {
+        ServiceMetrics metrics = new ServiceMetrics();
+        AccountService service = new AccountService(new StripedLocks(1, metrics.getLockWaits()), BalanceMode.MONEY,
+                null, new HeapAccountStore(), metrics);
+        Account account = service.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        StripedLocks locks = service.getAccountLocks();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try (StripedLocks.Held ignored = locks.lock(account.getAccountId())) {
+                account.deposit(new Money(50.0, "USD"));
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.start();
+        assertTrue(held.await(10, TimeUnit.SECONDS));
+
+        AtomicReference<BalanceSnapshot> read = new AtomicReference<>();
+        Thread reader = new Thread(() -> read.set(service.getBalanceSnapshot(account.getAccountId())));
+        reader.start();
+        // Past its optimistic attempts the reader waits for the stripe instead of spinning
+        reader.join(200);
+        assertTrue(reader.isAlive());
+        assertNull(read.get());
+
+        release.countDown();
+        reader.join(10_000);
+        writer.join(10_000);
+        assertFalse(reader.isAlive());
+        // The reader queued for the lock the writer held
+        assertEquals(1, metrics.getLockWaits().getCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(read.get().getBalance().getAmount()));
+    }
+
+    @Test
+    void testSnapshotNeverSeesChangeInProgress() throws InterruptedException {
+        for (BalanceMode mode : BalanceMode.values()) {
+            AccountService service = new AccountService(new StripedLocks(1), mode);
+            Account account = service.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+            StripedLocks locks = service.getAccountLocks();
+            AtomicBoolean stop = new AtomicBoolean();
+            // Each locked step withdraws and then puts the money back, like a rolled-back posting leg
+            Thread writer = new Thread(() -> {
+                while (!stop.get()) {
+                    try (StripedLocks.Held ignored = locks.lock(account.getAccountId())) {
+                        account.withdraw(new Money(40.0, "USD"));
+                        account.deposit(new Money(40.0, "USD"));
+                    }
+                }
+            });
+            writer.start();
+            try {
+                for (int i = 0; i < 20_000; i++) {
+                    Money balance = service.getBalanceSnapshot(account.getAccountId()).getBalance();
+                    assertEquals(0, new BigDecimal("100.00").compareTo(balance.getAmount()),
+                            mode + " read " + balance);
+                }
+            } finally {
+                stop.set(true);
+                writer.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.banking.account.service;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InvalidAccountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAccountServiceTest {
+
+    private static final int SHARDS = 4;
+
+    private ShardedAccountService accountService;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new ShardedAccountService(SHARDS);
+    }
+
+    @Test
+    void testAccountsLiveOnlyInTheirShard() {
+        for (int i = 0; i < 200; i++) {
+            Account account = accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(10.0, "USD"));
+            int shard = accountService.shardOf(account.getAccountId());
+            for (int s = 0; s < SHARDS; s++) {
+                assertEquals(s == shard, accountService.getShard(s).accountExists(account.getAccountId()));
+            }
+            assertSame(account, accountService.getAccount(account.getAccountId()));
+        }
+        assertEquals(200, accountService.getAllAccounts().size());
+        assertEquals(200, accountService.streamAllAccounts().count());
+    }
+
+    @Test
+    void testAccountsSpreadAcrossShards() {
+        int[] perShard = new int[SHARDS];
+        for (int i = 0; i < 4000; i++) {
+            Account account = accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(10.0, "USD"));
+            perShard[accountService.shardOf(account.getAccountId())]++;
+        }
+        for (int count : perShard) {
+            assertTrue(count > 700, "Uneven shards: " + Arrays.toString(perShard));
+        }
+    }
+
+    @Test
+    void testCustomerLookupGathersAllShards() {
+        for (int i = 0; i < 20; i++) {
+            accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(10.0, "USD"));
+        }
+        accountService.createAccount("CUST002", AccountType.SAVINGS, new Money(10.0, "USD"));
+        assertEquals(20, accountService.getAccountsByCustomer("CUST001").size());
+        assertTrue(accountService.getAccountsByCustomer("UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void testLifecycleIsRoutedToOwningShard() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        accountService.deactivateAccount(account.getAccountId());
+        assertFalse(accountService.getAccount(account.getAccountId()).isActive());
+        accountService.activateAccount(account.getAccountId());
+        assertTrue(account.isActive());
+        assertEquals(100.0, accountService.getBalance(account.getAccountId()).getAmount().doubleValue());
+        assertThrows(InvalidAccountException.class, () -> accountService.getAccount("NON_EXISTENT"));
+        assertFalse(accountService.accountExists(null));
+    }
+
+    @Test
+    void testLockAllSpansShards() throws Exception {
+        Account first = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account second;
+        do {
+            second = accountService.createAccount("CUST002", AccountType.SAVINGS, new Money(100.0, "USD"));
+        } while (accountService.shardOf(second.getAccountId()) == accountService.shardOf(first.getAccountId()));
+        String secondId = second.getAccountId();
+
+        Thread other = new Thread(() -> accountService.deactivateAccount(secondId));
+        try (ShardedAccountService.ShardLocks ignored =
+                     accountService.lockAll(Arrays.asList(first.getAccountId(), secondId))) {
+            other.start();
+            other.join(200);
+            // The other shard's stripe is held, so the deactivation is still waiting
+            assertTrue(other.isAlive());
+            assertTrue(accountService.getAccount(secondId).isActive());
+        }
+        other.join();
+        assertFalse(accountService.getAccount(secondId).isActive());
+    }
+
+    @Test
+    void testRejectsInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedAccountService(0));
+    }
+}
@@ -0,0 +1,149 @@
+package com.banking.account.store;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapAccountStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAccountsReadAndWriteTheirRows() {
+        AccountService accountService = service(new OffHeapAccountStore(null, 16));
+        Account created = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.25, "USD"));
+
+        Account view = accountService.getAccount(created.getAccountId());
+        assertEquals(created.getAccountId(), view.getAccountId());
+        assertEquals("CUST001", view.getCustomerId());
+        assertEquals(AccountType.SAVINGS, view.getAccountType());
+        assertEquals(0, view.getBalance().getAmount().compareTo(new java.math.BigDecimal("100.25")));
+
+        created.deposit(new Money(10.0, "USD"));
+        view.withdraw(new Money(0.25, "USD"));
+        assertEquals(110.0, accountService.getBalance(created.getAccountId()).getAmount().doubleValue());
+        assertThrows(InsufficientFundsException.class, () -> view.withdraw(new Money(500.0, "USD")));
+        assertThrows(IllegalArgumentException.class, () -> view.deposit(new Money(1.0, "EUR")));
+
+        accountService.deactivateAccount(created.getAccountId());
+        assertFalse(view.isActive());
+        assertThrows(InvalidAccountException.class, () -> view.deposit(new Money(1.0, "USD")));
+        assertThrows(InvalidAccountException.class, () -> accountService.getAccount("NON_EXISTENT"));
+    }
+
+    @Test
+    void testIndexesGrowAcrossSegments() {
+        OffHeapAccountStore store = new OffHeapAccountStore(null, 64);
+        AccountService accountService = service(store);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add(accountService.createAccount("CUST" + (i % 100), AccountType.CHECKING,
+                    new Money(i, "USD")).getAccountId());
+        }
+        assertEquals(5000, store.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, accountService.getBalance(ids.get(i)).getAmount().intValue());
+        }
+        assertEquals(50, accountService.getAccountsByCustomer("CUST7").size());
+        assertTrue(accountService.getAccountsByCustomer("UNKNOWN").isEmpty());
+        assertEquals(5000, accountService.streamAllAccounts().count());
+    }
+
+    @Test
+    void testConcurrentUpdatesAreAtomic() throws Exception {
+        AccountService accountService = service(new OffHeapAccountStore(null, 16));
+        String accountId = accountService.createAccount("CUST001", AccountType.CHECKING,
+                new Money(0.0, "USD")).getAccountId();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    // A fresh view per call, as services obtain them
+                    accountService.getAccount(accountId).deposit(new Money(0.01, "USD"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(800.0, accountService.getBalance(accountId).getAmount().doubleValue());
+    }
+
+    @Test
+    void testCleanlyClosedTableIsRestored() {
+        Path file = tempDir.resolve("accounts.table");
+        String accountId;
+        try (OffHeapAccountStore store = new OffHeapAccountStore(file, 16)) {
+            AccountService accountService = service(store);
+            for (int i = 0; i < 40; i++) {
+                accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(1.0, "USD"));
+            }
+            Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(5.0, "USD"));
+            account.deposit(new Money(2.5, "USD"));
+            account.setJournalPosition(1234);
+            accountId = account.getAccountId();
+        }
+
+        try (OffHeapAccountStore store = new OffHeapAccountStore(file, 1024)) {
+            assertTrue(store.isRestored());
+            assertEquals(1234, store.getRestoredJournalPosition());
+            assertEquals(41, store.size());
+            AccountService accountService = service(store);
+            assertEquals(7.5, accountService.getBalance(accountId).getAmount().doubleValue());
+            assertEquals(1, accountService.getAccountsByCustomer("CUST001").size());
+            // New accounts continue after the restored rows and join the restored customer chain
+            accountService.createAccount("CUST001", AccountType.CHECKING, new Money(1.0, "USD"));
+            assertEquals(2, accountService.getAccountsByCustomer("CUST001").size());
+            assertEquals(42, store.size());
+        }
+    }
+
+    @Test
+    void testTableNotClosedCleanlyIsDiscarded() throws Exception {
+        Path file = tempDir.resolve("accounts.table");
+        OffHeapAccountStore crashed = new OffHeapAccountStore(file, 16);
+        service(crashed).createAccount("CUST001", AccountType.CHECKING, new Money(1.0, "USD"));
+
+        try (OffHeapAccountStore store = new OffHeapAccountStore(file, 16)) {
+            assertFalse(store.isRestored());
+            assertEquals(0, store.size());
+        }
+        assertTrue(Files.size(file) > 0);
+    }
+
+    @Test
+    void testRejectsUnsupportedAccounts() {
+        OffHeapAccountStore store = new OffHeapAccountStore(null, 16);
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Account("not-a-time-ordered-id", "CUST001",
+                AccountType.CHECKING, new Money(1.0, "USD"), true)));
+        AccountService accountService = service(store);
+        assertThrows(IllegalArgumentException.class, () -> accountService.createAccount(
+                "CUSTOMER-ID-THAT-IS-FAR-TOO-LONG", AccountType.CHECKING, new Money(1.0, "USD")));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapAccountStore(null, 100));
+    }
+
+    private static AccountService service(OffHeapAccountStore store) {
+        return new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS, null, store);
+    }
+}
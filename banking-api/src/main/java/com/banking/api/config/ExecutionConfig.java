@@ -0,0 +1,46 @@
+package com.banking.api.config;
+
+import com.banking.core.concurrent.RequestExecutors;
+import com.banking.core.concurrent.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * Executor for service calls that may block on journal fsync, selected by
+     * {@code banking.execution.mode}. Controllers return a {@code CompletableFuture}
+     * completed on it, so in ASYNC and VIRTUAL modes the servlet thread is released
+     * while the call waits.
+     */
+    @Bean
+    public Executor requestExecutor(@Value("${banking.execution.mode:sync}") String mode,
+                                    @Value("${banking.execution.pool-size:64}") int poolSize,
+                                    @Value("${banking.execution.queue-capacity:10000}") int queueCapacity) {
+        switch (ExecutionMode.valueOf(mode.trim().toUpperCase())) {
+            case ASYNC:
+                return RequestExecutors.newBoundedPool(poolSize, queueCapacity);
+            case VIRTUAL:
+                return VirtualThreads.newVirtualThreadPerTaskExecutor();
+            case SYNC:
+            default:
+                return Runnable::run;
+        }
+    }
+
+    /**
+     * Spring Boot's default task executor, which backs off once any other
+     * {@link Executor} bean exists; declared explicitly so streaming responses
+     * keep running on it.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.banking.api.config;
+
+/**
+ * How controllers execute the service calls behind money-moving requests.
+ */
+public enum ExecutionMode {
+    /** On the servlet request thread, as a plain blocking call. */
+    SYNC,
+    /** On a bounded pool of platform threads, releasing the servlet thread. */
+    ASYNC,
+    /** On a new virtual thread per request (Java 21+), releasing the servlet thread. */
+    VIRTUAL
+}
@@ -0,0 +1,133 @@
+package com.banking.api.config;
+
+import com.banking.account.snapshot.AccountSnapshotter;
+import com.banking.account.snapshot.SnapshotStats;
+import com.banking.core.metrics.LatencyHistogram;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.Outcome;
+import com.banking.core.metrics.ServiceMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the services' {@link ServiceMetrics} through Micrometer, so they
+ * appear under {@code /actuator/metrics} next to Spring's own HTTP request
+ * timings. Meters only read the services' counters and histograms when
+ * scraped; nothing is recorded through Micrometer on the request path.
+ * <p>
+ * The binder may run before the engines are created; it relies on
+ * {@link ServiceMetrics} registering the services' operations up front.
+ */
+@Configuration
+public class MetricsConfig {
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    @Bean
+    public MeterBinder serviceMetricsBinder(ServiceMetrics metrics) {
+        return registry -> {
+            if (!metrics.isEnabled()) {
+                return;
+            }
+            for (OperationMetrics operation : metrics.getOperations()) {
+                Tags tags = Tags.of("operation", operation.getName());
+                for (Outcome outcome : Outcome.values()) {
+                    FunctionCounter.builder("banking.operations", operation, op -> op.getCount(outcome))
+                        .tags(tags.and("outcome", outcome.name().toLowerCase(Locale.ROOT)))
+                        .description("Completed service operations by outcome")
+                        .register(registry);
+                }
+                Gauge.builder("banking.operations.throughput", operation, OperationMetrics::getThroughput)
+                    .tags(tags)
+                    .description("Operations per second, averaged since startup")
+                    .register(registry);
+                bindLatency(registry, "banking.operation.duration", operation.getLatency(), tags,
+                    "Service operation latency, including waits for locks and durability");
+            }
+            bindLatency(registry, "banking.lock.wait", metrics.getLockWaits(), Tags.empty(),
+                "Time spent waiting for account locks held by another thread");
+        };
+    }
+
+    /**
+     * Publishes the newest snapshot written and the one restored at startup,
+     * tagged {@code kind=snapshot} and {@code kind=restore}, when snapshots are
+     * enabled. Their gauges read NaN until there is one.
+     */
+    @Bean
+    public MeterBinder snapshotMetricsBinder(ObjectProvider<AccountSnapshotter> snapshotter) {
+        return registry -> {
+            AccountSnapshotter accountSnapshotter = snapshotter.getIfAvailable();
+            if (accountSnapshotter == null) {
+                return;
+            }
+            bindSnapshot(registry, accountSnapshotter, "snapshot", AccountSnapshotter::getLastSnapshot);
+            bindSnapshot(registry, accountSnapshotter, "restore", AccountSnapshotter::getLastRestore);
+            Gauge.builder("banking.snapshot.failed", accountSnapshotter, s -> s.getLastFailure() == null ? 0 : 1)
+                .description("1 if the most recent scheduled snapshot failed, 0 otherwise")
+                .register(registry);
+        };
+    }
+
+    private static void bindSnapshot(MeterRegistry registry, AccountSnapshotter snapshotter, String kind,
+                                     Function<AccountSnapshotter, SnapshotStats> stats) {
+        Tags tags = Tags.of("kind", kind);
+        Gauge.builder("banking.snapshot.accounts", snapshotter,
+                s -> snapshotValue(stats.apply(s), SnapshotStats::getAccountCount))
+            .tags(tags)
+            .description("Accounts in the snapshot")
+            .register(registry);
+        Gauge.builder("banking.snapshot.size", snapshotter,
+                s -> snapshotValue(stats.apply(s), SnapshotStats::getSizeBytes))
+            .tags(tags)
+            .baseUnit("bytes")
+            .description("Size of the snapshot file")
+            .register(registry);
+        Gauge.builder("banking.snapshot.journal.position", snapshotter,
+                s -> snapshotValue(stats.apply(s), SnapshotStats::getJournalPosition))
+            .tags(tags)
+            .description("Journal position replay resumes from after restoring the snapshot")
+            .register(registry);
+        TimeGauge.builder("banking.snapshot.duration", snapshotter, TimeUnit.NANOSECONDS,
+                s -> snapshotValue(stats.apply(s), SnapshotStats::getDurationNanos))
+            .tags(tags)
+            .description("Time taken to write or restore the snapshot")
+            .register(registry);
+    }
+
+    private static double snapshotValue(SnapshotStats stats, ToLongFunction<SnapshotStats> value) {
+        return stats == null ? Double.NaN : value.applyAsLong(stats);
+    }
+
+    private static void bindLatency(MeterRegistry registry, String name, LatencyHistogram histogram, Tags tags,
+                                    String description) {
+        FunctionTimer.builder(name, histogram, LatencyHistogram::getCount, LatencyHistogram::getTotalNanos,
+                TimeUnit.NANOSECONDS)
+            .tags(tags)
+            .description(description)
+            .register(registry);
+        TimeGauge.builder(name + ".max", histogram, TimeUnit.NANOSECONDS, LatencyHistogram::getMaxNanos)
+            .tags(tags)
+            .description(description)
+            .register(registry);
+        for (double percentile : PERCENTILES) {
+            TimeGauge.builder(name + ".percentile", histogram, TimeUnit.NANOSECONDS,
+                    h -> h.valueAtPercentile(percentile))
+                .tags(tags.and("percentile", String.valueOf(percentile / 100)))
+                .description(description)
+                .register(registry);
+        }
+    }
+}
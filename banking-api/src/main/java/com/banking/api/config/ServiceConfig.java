@@ -1,21 +1,218 @@
 package com.banking.api.config;
 
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountEngine;
 import com.banking.account.service.AccountService;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.account.snapshot.AccountSnapshotter;
+import com.banking.account.snapshot.SnapshotStats;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.account.store.OffHeapAccountStore;
+import com.banking.core.concurrent.IdempotencyCache;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.id.IdGenerator;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.interest.InterestAccrualEngine;
+import com.banking.transaction.journal.JournalRecovery;
+import com.banking.transaction.log.ColumnarTransactionLog;
+import com.banking.transaction.service.SequencedTransactionService;
+import com.banking.transaction.service.ShardedTransactionService;
+import com.banking.transaction.service.TransactionEngine;
 import com.banking.transaction.service.TransactionService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wires the account and transaction engines. {@code banking.engine} selects
+ * the implementation behind {@link AccountEngine} and {@link TransactionEngine}:
+ * {@code default} (in-memory maps under stripe locks) or {@code sharded}
+ * (accounts partitioned across {@code banking.sharding.shards} shards).
+ */
 @Configuration
 public class ServiceConfig {
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.journal.enabled", havingValue = "true")
+    public Journal journal(@Value("${banking.journal.path}") String path,
+                           @Value("${banking.journal.fsync:true}") boolean fsync,
+                           @Value("${banking.journal.max-batch-delay-micros:0}") long maxBatchDelayMicros) {
+        return new Journal(Paths.get(path), fsync, maxBatchDelayMicros);
+    }
+
+    /**
+     * Installed as the process-wide generator before any account or transaction
+     * is created; every node of a deployment needs its own node ID.
+     */
     @Bean
-    public AccountService accountService() {
-        return new AccountService();
+    public IdGenerator idGenerator(@Value("${banking.id.node-id:0}") int nodeId) {
+        IdGenerator generator = new TimeOrderedIdGenerator(nodeId);
+        IdGenerators.setDefault(generator);
+        return generator;
     }
 
+    /**
+     * Latency and outcome of every account and transaction operation, plus
+     * account lock waits; {@code banking.metrics.enabled=false} turns recording off.
+     */
     @Bean
-    public TransactionService transactionService(AccountService accountService) {
-        return new TransactionService(accountService);
+    public ServiceMetrics serviceMetrics(@Value("${banking.metrics.enabled:true}") boolean enabled) {
+        return enabled ? new ServiceMetrics() : ServiceMetrics.disabled();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.engine", havingValue = "default", matchIfMissing = true)
+    public AccountService accountService(ObjectProvider<Journal> journal, IdGenerator idGenerator,
+                                         ObjectProvider<OffHeapAccountStore> offHeapStore, ServiceMetrics metrics) {
+        StripedLocks locks = new StripedLocks(StripedLocks.DEFAULT_STRIPES, metrics.getLockWaits());
+        OffHeapAccountStore store = offHeapStore.getIfAvailable();
+        if (store != null) {
+            return new AccountService(locks, BalanceMode.ATOMIC_MINOR_UNITS, journal.getIfAvailable(), store, metrics);
+        }
+        return new AccountService(locks, BalanceMode.MONEY, journal.getIfAvailable(), new HeapAccountStore(), metrics);
+    }
+
+    /**
+     * Keeps the default engine's accounts outside the heap, selected with
+     * {@code banking.account.store=off-heap}. With a path the table is memory-mapped
+     * and a cleanly closed table is reopened instead of rebuilt from the journal.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.account.store", havingValue = "off-heap")
+    public OffHeapAccountStore offHeapAccountStore(@Value("${banking.account.store-path:}") String path) {
+        return new OffHeapAccountStore(path.isEmpty() ? null : Paths.get(path));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.engine", havingValue = "sharded")
+    public ShardedAccountService shardedAccountService(ObjectProvider<Journal> journal, IdGenerator idGenerator,
+                                                       @Value("${banking.sharding.shards:0}") int shards,
+                                                       ServiceMetrics metrics) {
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        return new ShardedAccountService(shardCount, BalanceMode.MONEY, journal.getIfAvailable(), metrics);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.snapshot.enabled", havingValue = "true")
+    public AccountSnapshotter accountSnapshotter(AccountEngine accountEngine,
+                                                 @Value("${banking.snapshot.directory}") String directory) {
+        if (!(accountEngine instanceof AccountService)) {
+            throw new IllegalStateException("Account snapshots require banking.engine=default");
+        }
+        return new AccountSnapshotter((AccountService) accountEngine, Paths.get(directory));
     }
-}
 
+    /**
+     * Memory-mapped columnar copy of every transaction, read by statement scans.
+     * Journal replay on startup appends whatever the log is missing.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.transaction-log.enabled", havingValue = "true")
+    public ColumnarTransactionLog columnarTransactionLog(@Value("${banking.transaction-log.path}") String path,
+                                                        @Value("${banking.engine:default}") String engine) {
+        if (!"default".equals(engine)) {
+            throw new IllegalStateException("The columnar transaction log requires banking.engine=default");
+        }
+        return new ColumnarTransactionLog(Paths.get(path));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banking.engine", havingValue = "default", matchIfMissing = true)
+    public TransactionService transactionService(AccountService accountService,
+                                                 ObjectProvider<AccountSnapshotter> snapshotter,
+                                                 ObjectProvider<OffHeapAccountStore> offHeapStore,
+                                                 ObjectProvider<ColumnarTransactionLog> transactionLog,
+                                                 @Value("${banking.snapshot.interval-seconds:300}") long snapshotIntervalSeconds) {
+        TransactionService transactionService = new TransactionService(accountService, transactionLog.getIfAvailable());
+        AccountSnapshotter accountSnapshotter = snapshotter.getIfAvailable();
+        OffHeapAccountStore store = offHeapStore.getIfAvailable();
+        long replayFrom = 0;
+        if (store != null && store.isRestored()) {
+            // The reopened table is newer than any snapshot
+            replayFrom = store.getRestoredJournalPosition();
+        } else if (accountSnapshotter != null) {
+            Optional<SnapshotStats> restored = accountSnapshotter.restoreLatest();
+            if (restored.isPresent()) {
+                replayFrom = restored.get().getJournalPosition();
+            }
+        }
+        if (accountService.getJournal() != null) {
+            JournalRecovery.recover(accountService.getJournal(), accountService, transactionService, replayFrom);
+        }
+        if (accountSnapshotter != null) {
+            accountSnapshotter.start(snapshotIntervalSeconds);
+        }
+        return transactionService;
+    }
+
+    /**
+     * Sharded engine; recovers by replaying the whole shared journal, since
+     * snapshots are not taken per shard.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.engine", havingValue = "sharded")
+    public ShardedTransactionService shardedTransactionService(ShardedAccountService accountService) {
+        ShardedTransactionService transactionService = new ShardedTransactionService(accountService);
+        if (accountService.getJournal() != null) {
+            JournalRecovery.recover(accountService.getJournal(), accountService, transactionService);
+        }
+        return transactionService;
+    }
+
+    /**
+     * Single-writer engine for deposits, withdrawals and transfers, selected with
+     * {@code banking.transaction.mode=sequenced}; the default {@code direct} mode
+     * calls the {@link TransactionEngine} on the request thread. Runs on top of
+     * the default engine only.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.transaction.mode", havingValue = "sequenced")
+    public SequencedTransactionService sequencedTransactionService(
+            TransactionEngine transactionEngine,
+            @Value("${banking.sequencer.shards:0}") int shards,
+            @Value("${banking.sequencer.ring-capacity:65536}") int ringCapacity) {
+        if (!(transactionEngine instanceof TransactionService)) {
+            throw new IllegalStateException("banking.transaction.mode=sequenced requires banking.engine=default");
+        }
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        return new SequencedTransactionService((TransactionService) transactionEngine, shardCount, ringCapacity);
+    }
+
+    /**
+     * Month-end interest batch, enabled with {@code banking.interest.enabled=true}.
+     * With the journal, run progress is kept in {@code banking.interest.state-directory}
+     * so an interrupted run resumes where it stopped. Without it the ledger does
+     * not outlive the process, so neither does the progress: the engine relies on
+     * the credits in the transaction store instead of leaving state behind that a
+     * fresh ledger would mistake for its own.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.interest.enabled", havingValue = "true")
+    public InterestAccrualEngine interestAccrualEngine(
+            AccountEngine accountEngine,
+            TransactionEngine transactionEngine,
+            ObjectProvider<Journal> journal,
+            @Value("${banking.interest.state-directory}") String stateDirectory,
+            @Value("${banking.interest.parallelism:0}") int parallelism,
+            @Value("${banking.interest.batch-size:1024}") int batchSize) {
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        Path state = journal.getIfAvailable() != null ? Paths.get(stateDirectory) : null;
+        return new InterestAccrualEngine(accountEngine, transactionEngine, state, threads, batchSize);
+    }
+
+    @Bean
+    public IdempotencyCache idempotencyCache(@Value("${banking.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                             @Value("${banking.idempotency.max-entries:100000}") int maxEntries) {
+        return new IdempotencyCache(ttlSeconds, TimeUnit.SECONDS, maxEntries);
+    }
+}
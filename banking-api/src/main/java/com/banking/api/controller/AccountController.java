@@ -1,29 +1,44 @@
 package com.banking.api.controller;
 
+import com.banking.account.aggregate.BalanceTotal;
 import com.banking.account.domain.Account;
-import com.banking.account.service.AccountService;
+import com.banking.account.service.AccountEngine;
 import com.banking.api.dto.AccountCreateRequest;
 import com.banking.api.dto.AccountResponse;
+import com.banking.api.dto.BalanceSummaryResponse;
+import com.banking.api.dto.BalanceTotalResponse;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/accounts")
 @CrossOrigin(origins = "https://trusted-origin.com") // Replace with your actual trusted origin
 public class AccountController {
 
-    private final AccountService accountService;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    private final AccountEngine accountService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountEngine accountService, ObjectMapper objectMapper) {
         this.accountService = accountService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -42,6 +57,27 @@ public class AccountController {
         return ResponseEntity.ok(toResponse(account));
     }
 
+    /**
+     * Balance totals of all active accounts per currency and per account type,
+     * read from running aggregates rather than by scanning every account.
+     */
+    @GetMapping("/balances")
+    public ResponseEntity<BalanceSummaryResponse> getBalanceSummary() {
+        Map<String, List<BalanceTotalResponse>> byAccountType = new LinkedHashMap<>();
+        for (AccountType accountType : AccountType.values()) {
+            byAccountType.put(accountType.name(), toResponses(accountService.getBalanceTotalsByAccountType(accountType)));
+        }
+        BalanceSummaryResponse response = new BalanceSummaryResponse();
+        response.setTotals(toResponses(accountService.getBalanceTotals()));
+        response.setByAccountType(byAccountType);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/customer/{customerId}/balances")
+    public ResponseEntity<List<BalanceTotalResponse>> getCustomerBalances(@PathVariable String customerId) {
+        return ResponseEntity.ok(toResponses(accountService.getBalanceTotalsByCustomer(customerId)));
+    }
+
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<List<AccountResponse>> getAccountsByCustomer(@PathVariable String customerId) {
         List<Account> accounts = accountService.getAccountsByCustomer(customerId);
@@ -60,12 +96,41 @@ public class AccountController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAccounts() {
+        StreamingResponseBody body = out -> {
+            try (Stream<Account> accounts = accountService.streamAllAccounts();
+                 SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                int written = 0;
+                for (Iterator<Account> it = accounts.iterator(); it.hasNext(); ) {
+                    writer.write(toResponse(it.next()));
+                    if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/{accountId}/balance")
     public ResponseEntity<Money> getBalance(@PathVariable String accountId) {
         Money balance = accountService.getBalance(accountId);
         return ResponseEntity.ok(balance);
     }
 
+    private List<BalanceTotalResponse> toResponses(List<BalanceTotal> totals) {
+        return totals.stream()
+            .map(total -> {
+                BalanceTotalResponse response = new BalanceTotalResponse();
+                response.setCurrency(total.getCurrency());
+                response.setBalance(total.getBalance().getAmount().doubleValue());
+                response.setAccountCount(total.getAccountCount());
+                return response;
+            })
+            .collect(Collectors.toList());
+    }
+
     private AccountResponse toResponse(Account account) {
         AccountResponse response = new AccountResponse();
         response.setAccountId(account.getAccountId());
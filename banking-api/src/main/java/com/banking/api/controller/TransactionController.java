@@ -1,66 +1,175 @@
 package com.banking.api.controller;
 
+import com.banking.api.dto.BatchResultResponse;
+import com.banking.api.dto.BatchTransactionRequest;
+import com.banking.api.dto.InterestRunResponse;
+import com.banking.api.dto.PostingLegRequest;
+import com.banking.api.dto.PostingRequest;
+import com.banking.api.dto.TransactionPageResponse;
 import com.banking.api.dto.TransactionRequest;
 import com.banking.api.dto.TransactionResponse;
+import com.banking.core.concurrent.IdempotencyCache;
+import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
 import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
+import com.banking.transaction.interest.InterestAccrualEngine;
+import com.banking.transaction.interest.InterestPolicy;
+import com.banking.transaction.interest.InterestRunStats;
+import com.banking.transaction.log.ColumnarTransactionLog;
+import com.banking.transaction.log.LogRecord;
+import com.banking.transaction.service.SequencedTransactionService;
 import com.banking.transaction.service.TransactionService;
+import com.banking.transaction.service.TransactionEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/transactions")
 @CrossOrigin(origins = "${allowed.origins}", allowCredentials = "true", methods = {RequestMethod.GET, RequestMethod.POST})
 public class TransactionController {
 
-    private final TransactionService transactionService;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final TransactionEngine transactionService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache idempotencyCache;
+    private final Executor requestExecutor;
+    private final SequencedTransactionService sequencer;
+    private final ColumnarTransactionLog transactionLog;
+    private final InterestAccrualEngine interestEngine;
 
     @Value("${allowed.origins}")
     private String[] allowedOrigins;
 
+    @Value("${banking.interest.savings-rate:0}")
+    private BigDecimal savingsRate;
+
+    @Value("${banking.interest.fixed-deposit-rate:0}")
+    private BigDecimal fixedDepositRate;
+
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionEngine transactionService, ObjectMapper objectMapper,
+                                 IdempotencyCache idempotencyCache,
+                                 @Qualifier("requestExecutor") Executor requestExecutor,
+                                 ObjectProvider<SequencedTransactionService> sequencer,
+                                 ObjectProvider<ColumnarTransactionLog> transactionLog,
+                                 ObjectProvider<InterestAccrualEngine> interestEngine) {
         this.transactionService = transactionService;
+        this.objectMapper = objectMapper;
+        this.idempotencyCache = idempotencyCache;
+        this.requestExecutor = requestExecutor;
+        this.sequencer = sequencer.getIfAvailable();
+        this.transactionLog = transactionLog.getIfAvailable();
+        this.interestEngine = interestEngine.getIfAvailable();
     }
 
     @PostMapping("/deposit")
     @ValidateOrigin
-    public ResponseEntity<TransactionResponse> deposit(@RequestBody TransactionRequest request) {
-        Transaction transaction = transactionService.deposit(
-            request.getAccountId(),
-            new Money(request.getAmount(), request.getCurrency()),
-            request.getDescription()
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction));
+    public CompletableFuture<ResponseEntity<TransactionResponse>> deposit(@RequestBody TransactionRequest request,
+                                                                          @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        Money amount = new Money(request.getAmount(), request.getCurrency());
+        return sequence("deposit", idempotencyKey,
+            () -> sequencer.deposit(request.getAccountId(), amount, request.getDescription()),
+            () -> transactionService.deposit(request.getAccountId(), amount, request.getDescription())
+        ).thenApply(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction)));
     }
 
     @PostMapping("/withdraw")
     @ValidateOrigin
-    public ResponseEntity<TransactionResponse> withdraw(@RequestBody TransactionRequest request) {
-        Transaction transaction = transactionService.withdraw(
-            request.getAccountId(),
-            new Money(request.getAmount(), request.getCurrency()),
-            request.getDescription()
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction));
+    public CompletableFuture<ResponseEntity<TransactionResponse>> withdraw(@RequestBody TransactionRequest request,
+                                                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        Money amount = new Money(request.getAmount(), request.getCurrency());
+        return sequence("withdraw", idempotencyKey,
+            () -> sequencer.withdraw(request.getAccountId(), amount, request.getDescription()),
+            () -> transactionService.withdraw(request.getAccountId(), amount, request.getDescription())
+        ).thenApply(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction)));
     }
 
     @PostMapping("/transfer")
     @ValidateOrigin
-    public ResponseEntity<TransactionResponse> transfer(@RequestBody TransactionRequest request) {
-        Transaction transaction = transactionService.transfer(
-            request.getFromAccountId(),
-            request.getToAccountId(),
-            new Money(request.getAmount(), request.getCurrency()),
-            request.getDescription()
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction));
+    public CompletableFuture<ResponseEntity<TransactionResponse>> transfer(@RequestBody TransactionRequest request,
+                                                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        Money amount = new Money(request.getAmount(), request.getCurrency());
+        return sequence("transfer", idempotencyKey,
+            () -> sequencer.transfer(request.getFromAccountId(), request.getToAccountId(), amount, request.getDescription()),
+            () -> transactionService.transfer(request.getFromAccountId(), request.getToAccountId(), amount,
+                request.getDescription())
+        ).thenApply(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(toResponse(transaction)));
+    }
+
+    @PostMapping("/posting")
+    @ValidateOrigin
+    public CompletableFuture<ResponseEntity<List<TransactionResponse>>> post(@RequestBody PostingRequest request,
+                                                                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (request.getLegs() == null) {
+            throw new IllegalArgumentException("A posting needs at least two legs");
+        }
+        List<PostingLeg> legs = request.getLegs().stream()
+            .map(this::toPostingLeg)
+            .collect(Collectors.toList());
+        return execute("posting", idempotencyKey, () -> transactionService.post(legs, request.getDescription()))
+            .thenApply(transactions -> ResponseEntity.status(HttpStatus.CREATED).body(transactions.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList())));
+    }
+
+    @PostMapping("/batch")
+    @ValidateOrigin
+    public CompletableFuture<ResponseEntity<List<BatchResultResponse>>> batch(@RequestBody List<BatchTransactionRequest> requests,
+                                                                              @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (requests.size() > TransactionService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot exceed " + TransactionService.MAX_BATCH_SIZE + " entries");
+        }
+        // A malformed item is rejected in its slot rather than failing the whole batch
+        BatchResult[] rejected = new BatchResult[requests.size()];
+        List<BatchEntry> entries = new ArrayList<>(requests.size());
+        List<Integer> indexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                entries.add(toBatchEntry(requests.get(i)));
+                indexes.add(i);
+            } catch (IllegalArgumentException e) {
+                rejected[i] = BatchResult.rejected(i, e.getMessage());
+            }
+        }
+        return execute("batch", idempotencyKey, () -> processBatch(entries, indexes, rejected))
+            .thenApply(results -> ResponseEntity.ok(results.stream()
+                .map(this::toBatchResultResponse)
+                .collect(Collectors.toList())));
     }
 
     @GetMapping("/account/{accountId}")
@@ -73,6 +182,115 @@ public class TransactionController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/account/{accountId}/page")
+    @ValidateOrigin
+    public ResponseEntity<TransactionPageResponse> getTransactionPage(@PathVariable String accountId,
+                                                                      @RequestParam(defaultValue = "50") int limit,
+                                                                      @RequestParam(required = false) String cursor) {
+        TransactionPage page = transactionService.getTransactionsByAccount(accountId, cursor, limit);
+        return ResponseEntity.ok(toPageResponse(page));
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    @ValidateOrigin
+    public ResponseEntity<StreamingResponseBody> exportTransactions() {
+        StreamingResponseBody body = out -> {
+            try (Stream<Transaction> transactions = transactionService.streamAllTransactions();
+                 SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                int written = 0;
+                for (Iterator<Transaction> it = transactions.iterator(); it.hasNext(); ) {
+                    writer.write(toResponse(it.next()));
+                    if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Streams an account's statement for {@code [from, to)}, oldest first. With
+     * {@code banking.transaction-log.enabled=true} it is read sequentially from the
+     * blocks of the columnar transaction log that hold the account's records,
+     * reusing one response object for every line;
+     * otherwise it is filtered from the in-memory history.
+     */
+    @GetMapping(value = "/account/{accountId}/statement", produces = NDJSON)
+    @ValidateOrigin
+    public ResponseEntity<StreamingResponseBody> getStatement(
+            @PathVariable String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                if (transactionLog != null) {
+                    TransactionResponse line = new TransactionResponse();
+                    long[] written = new long[1];
+                    try {
+                        transactionLog.scanAccount(accountId, from, to, record -> {
+                            write(writer, fill(line, record));
+                            if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                                flush(writer);
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    return;
+                }
+                List<Transaction> history = transactionService.getTransactionsByAccount(accountId);
+                for (int i = history.size() - 1; i >= 0; i--) {
+                    Transaction transaction = history.get(i);
+                    if ((from == null || !transaction.getTimestamp().isBefore(from))
+                            && (to == null || transaction.getTimestamp().isBefore(to))) {
+                        writer.write(toResponse(transaction));
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Balance the account had at {@code at}, from its end-of-day checkpoints and
+     * at most one day of transactions.
+     */
+    @GetMapping("/account/{accountId}/balance")
+    @ValidateOrigin
+    public ResponseEntity<Money> getBalanceAt(
+            @PathVariable String accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(transactionService.getBalanceAt(accountId, at));
+    }
+
+    /**
+     * Credits month-end interest for {@code month} (e.g. {@code 2025-03}) to every
+     * savings and fixed-deposit account and responds when the run ends. Posting
+     * the same month again resumes an interrupted run; a completed one is not
+     * repeated. Requires {@code banking.interest.enabled=true}.
+     */
+    @PostMapping("/interest/{month}")
+    @ValidateOrigin
+    public ResponseEntity<InterestRunResponse> runInterest(@PathVariable String month) {
+        if (interestEngine == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<AccountType, BigDecimal> rates = new EnumMap<>(AccountType.class);
+        rates.put(AccountType.SAVINGS, savingsRate);
+        rates.put(AccountType.FIXED_DEPOSIT, fixedDepositRate);
+        YearMonth period = YearMonth.parse(month);
+        InterestRunStats stats = interestEngine.run(period.toString(), InterestPolicy.forMonth(period, rates));
+        InterestRunResponse response = new InterestRunResponse();
+        response.setRunId(stats.getRunId());
+        response.setAccountCount(stats.getAccountCount());
+        response.setCreditedCount(stats.getCreditedCount());
+        response.setResumed(stats.isResumed());
+        response.setComplete(stats.isComplete());
+        response.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(stats.getDurationNanos()));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{transactionId}")
     @ValidateOrigin
     public ResponseEntity<TransactionResponse> getTransaction(@PathVariable String transactionId) {
@@ -80,6 +298,47 @@ public class TransactionController {
         return ResponseEntity.ok(toResponse(transaction));
     }
 
+    /**
+     * Runs a money-moving operation on the request executor, at most once per
+     * client idempotency key; a retry with the same key gets the original result.
+     * Keys are scoped by operation. Requests without a key are executed as-is.
+     */
+    private <T> CompletableFuture<T> execute(String operation, String idempotencyKey, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return CompletableFuture.supplyAsync(action, requestExecutor);
+        }
+        return CompletableFuture.supplyAsync(
+            () -> idempotencyCache.execute(operation + ":" + idempotencyKey, action), requestExecutor);
+    }
+
+    /**
+     * Submits a command to the sequencer when {@code banking.transaction.mode=sequenced},
+     * otherwise runs it directly via {@link #execute}. Without an idempotency key the
+     * sequencer's future is returned as-is, so no thread waits for the command.
+     */
+    private CompletableFuture<Transaction> sequence(String operation, String idempotencyKey,
+                                                    Supplier<CompletableFuture<Transaction>> sequenced,
+                                                    Supplier<Transaction> direct) {
+        if (sequencer == null) {
+            return execute(operation, idempotencyKey, direct);
+        }
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return sequenced.get();
+        }
+        return execute(operation, idempotencyKey, () -> join(sequenced.get()));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     private TransactionResponse toResponse(Transaction transaction) {
         TransactionResponse response = new TransactionResponse();
         response.setTransactionId(transaction.getTransactionId());
@@ -92,6 +351,104 @@ public class TransactionController {
         response.setRelatedAccountId(transaction.getRelatedAccountId());
         return response;
     }
+
+    private static TransactionResponse fill(TransactionResponse response, LogRecord record) {
+        response.setTransactionId(record.getTransactionId());
+        response.setAccountId(record.getAccountId());
+        response.setType(record.getType().name());
+        response.setAmount(BigDecimal.valueOf(record.getAmountUnscaled(), record.getAmountScale()).doubleValue());
+        response.setCurrency(record.getCurrency());
+        response.setTimestamp(record.getTimestamp().toString());
+        response.setDescription(record.getDescription());
+        response.setRelatedAccountId(record.getRelatedAccountId());
+        return response;
+    }
+
+    private static void write(SequenceWriter writer, Object value) {
+        try {
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(SequenceWriter writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Processes the well-formed entries of a batch and merges their results,
+     * renumbered to the request positions in {@code indexes}, into the
+     * rejections already made for the malformed ones.
+     */
+    private List<BatchResult> processBatch(List<BatchEntry> entries, List<Integer> indexes, BatchResult[] results) {
+        if (entries.isEmpty() && results.length > 0) {
+            return Arrays.asList(results);
+        }
+        List<BatchResult> processed = transactionService.processBatch(entries);
+        for (int j = 0; j < processed.size(); j++) {
+            int index = indexes.get(j);
+            BatchResult result = processed.get(j);
+            results[index] = result.isApplied()
+                ? BatchResult.applied(index, result.getTransaction())
+                : BatchResult.rejected(index, result.getError());
+        }
+        return Arrays.asList(results);
+    }
+
+    private BatchEntry toBatchEntry(BatchTransactionRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Batch entry cannot be null");
+        }
+        Money amount = new Money(request.getAmount(), request.getCurrency());
+        String type = request.getType() == null ? "" : request.getType().toUpperCase();
+        switch (type) {
+            case "DEPOSIT":
+                return BatchEntry.deposit(request.getAccountId(), amount, request.getDescription());
+            case "WITHDRAWAL":
+                return BatchEntry.withdrawal(request.getAccountId(), amount, request.getDescription());
+            case "TRANSFER":
+                return BatchEntry.transfer(request.getFromAccountId(), request.getToAccountId(), amount,
+                    request.getDescription());
+            default:
+                throw new IllegalArgumentException("Unsupported batch transaction type: " + request.getType());
+        }
+    }
+
+    private PostingLeg toPostingLeg(PostingLegRequest request) {
+        Money amount = new Money(request.getAmount(), request.getCurrency());
+        if ("DEBIT".equalsIgnoreCase(request.getDirection())) {
+            return PostingLeg.debit(request.getAccountId(), amount);
+        }
+        if ("CREDIT".equalsIgnoreCase(request.getDirection())) {
+            return PostingLeg.credit(request.getAccountId(), amount);
+        }
+        throw new IllegalArgumentException("Posting leg direction must be DEBIT or CREDIT");
+    }
+
+    private BatchResultResponse toBatchResultResponse(BatchResult result) {
+        BatchResultResponse response = new BatchResultResponse();
+        response.setIndex(result.getIndex());
+        response.setStatus(result.isApplied() ? "APPLIED" : "REJECTED");
+        response.setError(result.getError());
+        if (result.isApplied()) {
+            response.setTransaction(toResponse(result.getTransaction()));
+        }
+        return response;
+    }
+
+    private TransactionPageResponse toPageResponse(TransactionPage page) {
+        TransactionPageResponse response = new TransactionPageResponse();
+        response.setTransactions(page.getTransactions().stream()
+            .map(this::toResponse)
+            .collect(Collectors.toList()));
+        response.setNextCursor(page.getNextCursor());
+        return response;
+    }
 }
 
 
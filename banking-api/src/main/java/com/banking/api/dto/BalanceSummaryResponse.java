@@ -0,0 +1,25 @@
+package com.banking.api.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BalanceSummaryResponse {
+    private List<BalanceTotalResponse> totals;
+    private Map<String, List<BalanceTotalResponse>> byAccountType;
+
+    public List<BalanceTotalResponse> getTotals() {
+        return totals;
+    }
+
+    public void setTotals(List<BalanceTotalResponse> totals) {
+        this.totals = totals;
+    }
+
+    public Map<String, List<BalanceTotalResponse>> getByAccountType() {
+        return byAccountType;
+    }
+
+    public void setByAccountType(Map<String, List<BalanceTotalResponse>> byAccountType) {
+        this.byAccountType = byAccountType;
+    }
+}
@@ -0,0 +1,31 @@
+package com.banking.api.dto;
+
+public class BalanceTotalResponse {
+    private String currency;
+    private double balance;
+    private long accountCount;
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+
+    public void setBalance(double balance) {
+        this.balance = balance;
+    }
+
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    public void setAccountCount(long accountCount) {
+        this.accountCount = accountCount;
+    }
+}
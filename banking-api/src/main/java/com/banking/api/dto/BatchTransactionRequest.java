@@ -0,0 +1,17 @@
+package com.banking.api.dto;
+
+/**
+ * One entry of a batch post. {@code type} is DEPOSIT or WITHDRAWAL (using
+ * {@code accountId}) or TRANSFER (using {@code fromAccountId} and {@code toAccountId}).
+ */
+public class BatchTransactionRequest extends TransactionRequest {
+    private String type;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
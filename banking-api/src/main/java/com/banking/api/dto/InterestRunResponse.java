@@ -0,0 +1,58 @@
+package com.banking.api.dto;
+
+public class InterestRunResponse {
+    private String runId;
+    private long accountCount;
+    private long creditedCount;
+    private boolean resumed;
+    private boolean complete;
+    private long durationMillis;
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    public void setAccountCount(long accountCount) {
+        this.accountCount = accountCount;
+    }
+
+    public long getCreditedCount() {
+        return creditedCount;
+    }
+
+    public void setCreditedCount(long creditedCount) {
+        this.creditedCount = creditedCount;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
@@ -0,0 +1,24 @@
+package com.banking.api.dto;
+
+import java.util.List;
+
+public class PostingRequest {
+    private List<PostingLegRequest> legs;
+    private String description;
+
+    public List<PostingLegRequest> getLegs() {
+        return legs;
+    }
+
+    public void setLegs(List<PostingLegRequest> legs) {
+        this.legs = legs;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,24 @@
+package com.banking.api.dto;
+
+import java.util.List;
+
+public class TransactionPageResponse {
+    private List<TransactionResponse> transactions;
+    private String nextCursor;
+
+    public List<TransactionResponse> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<TransactionResponse> transactions) {
+        this.transactions = transactions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.api.config;
+
+import com.banking.account.service.AccountEngine;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.interest.InterestAccrualEngine;
+import com.banking.transaction.interest.InterestPolicy;
+import com.banking.transaction.interest.InterestRunStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class InterestConfigTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private AccountEngine accountEngine;
+
+    @Autowired
+    private InterestAccrualEngine interestEngine;
+
+    @DynamicPropertySource
+    static void interestWithoutJournal(DynamicPropertyRegistry registry) {
+        registry.add("banking.journal.enabled", () -> "false");
+        registry.add("banking.interest.enabled", () -> "true");
+        registry.add("banking.interest.state-directory", () -> tempDir.resolve("interest").toString());
+    }
+
+    @Test
+    void testNoRunStateIsKeptWithoutJournal() {
+        accountEngine.createAccount("CUST001", AccountType.SAVINGS, new Money(1000.00, "USD"));
+
+        InterestRunStats stats = interestEngine.run("2025-03",
+                new InterestPolicy(Collections.singletonMap(AccountType.SAVINGS, new BigDecimal("0.0365")), 10));
+        assertTrue(stats.isComplete());
+        assertEquals(1, stats.getCreditedCount());
+        // A restart starts from an empty ledger, so there must be no progress left for it to resume
+        assertFalse(Files.exists(tempDir.resolve("interest")));
+    }
+}
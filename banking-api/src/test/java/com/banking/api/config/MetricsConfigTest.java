@@ -0,0 +1,34 @@
+package com.banking.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testServiceMetricsArePublished() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/banking.operations"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("account.create")))
+            .andExpect(content().string(containsString("transaction.transfer")));
+        mockMvc.perform(get("/actuator/metrics/banking.operation.duration").param("tag", "operation:transaction.deposit"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/banking.lock.wait"))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.api.config;
+
+import com.banking.account.snapshot.AccountSnapshotter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class SnapshotMetricsTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountSnapshotter snapshotter;
+
+    @DynamicPropertySource
+    static void snapshotsEnabled(DynamicPropertyRegistry registry) {
+        registry.add("banking.snapshot.enabled", () -> "true");
+        registry.add("banking.snapshot.directory", () -> tempDir.resolve("snapshots").toString());
+    }
+
+    @Test
+    void testSnapshotStatsArePublished() throws Exception {
+        snapshotter.snapshot();
+
+        mockMvc.perform(get("/actuator/metrics/banking.snapshot.size").param("tag", "kind:snapshot"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("\"baseUnit\":\"bytes\"")));
+        mockMvc.perform(get("/actuator/metrics/banking.snapshot.duration").param("tag", "kind:restore"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/banking.snapshot.failed"))
+            .andExpect(status().isOk());
+    }
+}
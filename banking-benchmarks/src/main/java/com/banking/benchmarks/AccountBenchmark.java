@@ -0,0 +1,61 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded {@link Account#deposit(Money)} and {@link Account#withdraw(Money)}
+ * in each {@link BalanceMode}, without the service layer's locking and journaling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AccountBenchmark {
+
+    @Param({"MONEY", "ATOMIC_MINOR_UNITS"})
+    public BalanceMode balanceMode;
+
+    private Account account;
+    private Money amount;
+
+    @Setup
+    public void setUp() {
+        // Large enough that the withdraw benchmark never runs out of funds
+        account = new Account("CUST-BENCH", AccountType.CHECKING, new Money(1_000_000_000_000.00, "USD"), balanceMode);
+        amount = new Money(1.00, "USD");
+    }
+
+    @Benchmark
+    public void deposit() {
+        account.deposit(amount);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        account.withdraw(amount);
+    }
+
+    @Benchmark
+    public void depositThenWithdraw() {
+        account.deposit(amount);
+        account.withdraw(amount);
+    }
+}
@@ -0,0 +1,102 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.account.store.OffHeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap versus off-heap account storage with a few million accounts at 4
+ * threads: balance reads and deposits on random accounts. Run with
+ * {@code -prof gc} to compare allocation, and watch GC pause times in the
+ * logs as {@code accounts} grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx8g"})
+@Threads(4)
+public class AccountStoreBenchmark {
+
+    public enum Store {
+        HEAP,
+        OFF_HEAP
+    }
+
+    @Param({"HEAP", "OFF_HEAP"})
+    public Store store;
+
+    @Param({"5000000"})
+    public int accounts;
+
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private OffHeapAccountStore offHeapStore;
+    private String[] accountIds;
+    private final Money amount = new Money(1.00, "USD");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (store == Store.OFF_HEAP) {
+            offHeapStore = new OffHeapAccountStore();
+            accountService = new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS, null, offHeapStore);
+        } else {
+            accountService = new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS, null,
+                    new HeapAccountStore());
+        }
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(1_000_000.00, "USD")).getAccountId();
+        }
+    }
+
+    // Per iteration so the transaction store does not grow without bound
+    @Setup(Level.Iteration)
+    public void newTransactionService() {
+        transactionService = new TransactionService(accountService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (offHeapStore != null) {
+            offHeapStore.close();
+        }
+    }
+
+    @Benchmark
+    public BigDecimal balance() {
+        return accountService.getBalance(accountIds[ThreadLocalRandom.current().nextInt(accounts)]).getAmount();
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return transactionService.deposit(accountIds[ThreadLocalRandom.current().nextInt(accounts)], amount,
+                "Benchmark");
+    }
+}
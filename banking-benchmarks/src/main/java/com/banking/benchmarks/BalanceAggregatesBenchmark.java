@@ -0,0 +1,71 @@
+package com.banking.benchmarks;
+
+import com.banking.account.aggregate.BalanceTotal;
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account-type balance totals computed by scanning every account, as
+ * dashboards used to, versus reading the running aggregates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BalanceAggregatesBenchmark {
+    private static final AccountType[] TYPES = AccountType.values();
+
+    @Param({"10000", "1000000"})
+    public int accounts;
+
+    private AccountService accountService;
+
+    @Setup
+    public void setUp() {
+        accountService = new AccountService();
+        for (int i = 0; i < accounts; i++) {
+            accountService.createAccount("CUST" + (i / 3), TYPES[i % TYPES.length], new Money(i % 1000, "USD"));
+        }
+    }
+
+    @Benchmark
+    public Map<AccountType, BigDecimal> scanTotalsByType() {
+        Map<AccountType, BigDecimal> totals = new HashMap<>();
+        for (Account account : accountService.getAllAccounts()) {
+            if (account.isActive()) {
+                totals.merge(account.getAccountType(), account.getBalance().getAmount(), BigDecimal::add);
+            }
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public Map<AccountType, List<BalanceTotal>> aggregatedTotalsByType() {
+        Map<AccountType, List<BalanceTotal>> totals = new HashMap<>();
+        for (AccountType type : TYPES) {
+            totals.put(type, accountService.getBalanceTotalsByAccountType(type));
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.benchmarks;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.history.AccountHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time balance of one account from its daily checkpoints versus
+ * replaying its history from the opening balance. The query time lies in the
+ * middle of the history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BalanceHistoryBenchmark {
+    private static final String ACCOUNT = "ACC-A";
+    private static final int TRANSACTIONS_PER_DAY = 20;
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    @Param({"30", "365", "3650"})
+    public int days;
+
+    private AccountHistory history;
+    private List<Transaction> oldestFirst;
+    private BigDecimal opening;
+    private LocalDateTime at;
+
+    @Setup
+    public void setUp() {
+        history = new AccountHistory(START);
+        oldestFirst = new ArrayList<>();
+        opening = new BigDecimal("1000.00");
+        BigDecimal balance = opening;
+        for (int day = 0; day < days; day++) {
+            for (int i = 0; i < TRANSACTIONS_PER_DAY; i++) {
+                boolean deposit = i % 2 == 0;
+                Transaction transaction = new Transaction("T" + day + "-" + i, ACCOUNT,
+                        deposit ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL,
+                        new Money(new BigDecimal(deposit ? "12.50" : "7.25"), "USD"),
+                        START.plusDays(day).plusMinutes(30L * i), "", null);
+                balance = balance.add(AccountHistory.change(ACCOUNT, transaction));
+                history.append(ACCOUNT, transaction, new Money(balance, "USD"));
+                oldestFirst.add(transaction);
+            }
+        }
+        at = START.plusDays(days / 2).plusHours(5);
+    }
+
+    @Benchmark
+    public Money fromCheckpoint() {
+        return history.balanceAt(ACCOUNT, at);
+    }
+
+    @Benchmark
+    public Money replayFromOpening() {
+        BigDecimal balance = opening;
+        for (Transaction transaction : oldestFirst) {
+            if (transaction.getTimestamp().isAfter(at)) {
+                break;
+            }
+            balance = balance.add(AccountHistory.change(ACCOUNT, transaction));
+        }
+        return new Money(balance, "USD");
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceSnapshot;
+import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance reads of one account by three threads while a fourth keeps
+ * depositing to it: optimistic seqlock snapshots, which never block the writer,
+ * versus reading under the account's stripe lock, as every read would have to
+ * in order to be consistent without the stripe sequences.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BalanceReadBenchmark {
+    private static final Money AMOUNT = new Money(0.01, "USD");
+
+    private AccountService accountService;
+    private StripedLocks locks;
+    private String accountId;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        accountService = new AccountService();
+        locks = accountService.getAccountLocks();
+        account = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(1000.00, "USD"));
+        accountId = account.getAccountId();
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public BalanceSnapshot snapshotRead() {
+        return accountService.getBalanceSnapshot(accountId);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void snapshotWriter() {
+        deposit();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public Money lockedRead() {
+        try (StripedLocks.Held ignored = locks.lock(accountId)) {
+            return accountService.getAccount(accountId).getBalance();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWriter() {
+        deposit();
+    }
+
+    private void deposit() {
+        try (StripedLocks.Held ignored = locks.lock(accountId)) {
+            account.deposit(AMOUNT);
+        }
+    }
+}
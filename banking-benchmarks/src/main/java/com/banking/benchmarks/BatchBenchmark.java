@@ -0,0 +1,78 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A payroll run of {@code batchSize} transfers out of one employer account,
+ * posted once per entry through {@link TransactionService#transfer} versus in
+ * a single {@link TransactionService#processBatch} call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BatchBenchmark {
+    private static final int EMPLOYEES = 1000;
+
+    @Param({"100", "10000"})
+    public int batchSize;
+
+    private TransactionService transactionService;
+    private List<BatchEntry> entries;
+
+    // Per iteration so the transaction store does not grow without bound
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        String employer = accountService.createAccount("EMPLOYER", AccountType.CURRENT,
+                new Money(1_000_000_000_000.00, "USD")).getAccountId();
+        String[] employees = new String[EMPLOYEES];
+        for (int i = 0; i < employees.length; i++) {
+            employees[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(0.00, "USD")).getAccountId();
+        }
+        Money salary = new Money(2500.00, "USD");
+        entries = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            entries.add(BatchEntry.transfer(employer, employees[i % employees.length], salary, "Salary"));
+        }
+    }
+
+    @Benchmark
+    public void perCall(Blackhole blackhole) {
+        for (BatchEntry entry : entries) {
+            blackhole.consume(transactionService.transfer(entry.getAccountId(), entry.getRelatedAccountId(),
+                    entry.getAmount(), entry.getDescription()));
+        }
+    }
+
+    @Benchmark
+    public List<BatchResult> batch() {
+        return transactionService.processBatch(entries);
+    }
+}
@@ -0,0 +1,62 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AccountService#getAccountsByCustomer(String)} for a random customer as
+ * the total number of accounts grows; the cost should track accounts per
+ * customer, not the size of the book.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CustomerLookupBenchmark {
+
+    @Param({"1000", "100000"})
+    public int customers;
+
+    @Param({"3"})
+    public int accountsPerCustomer;
+
+    private AccountService accountService;
+    private String[] customerIds;
+
+    @Setup
+    public void setUp() {
+        accountService = new AccountService();
+        customerIds = new String[customers];
+        AccountType[] types = AccountType.values();
+        for (int c = 0; c < customers; c++) {
+            customerIds[c] = "CUST" + c;
+            for (int a = 0; a < accountsPerCustomer; a++) {
+                accountService.createAccount(customerIds[c], types[a % types.length], new Money(100.00, "USD"));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Account> getAccountsByCustomer() {
+        return accountService.getAccountsByCustomer(customerIds[ThreadLocalRandom.current().nextInt(customers)]);
+    }
+}
@@ -0,0 +1,102 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountEngine;
+import com.banking.account.service.AccountService;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.ShardedTransactionService;
+import com.banking.transaction.service.TransactionEngine;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same workload against each {@link TransactionEngine} through the
+ * engine interfaces, at 8 threads: random deposits, and transfers between
+ * random accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+public class EngineBenchmark {
+
+    public enum Engine {
+        DEFAULT,
+        SHARDED
+    }
+
+    @Param({"DEFAULT", "SHARDED"})
+    public Engine engine;
+
+    @Param({"100000"})
+    public int accounts;
+
+    private TransactionEngine transactionEngine;
+    private String[] accountIds;
+    private final Money amount = new Money(1.00, "USD");
+
+    // Per iteration so the transaction store does not grow without bound
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AccountEngine accountEngine;
+        if (engine == Engine.SHARDED) {
+            ShardedAccountService sharded = new ShardedAccountService(Runtime.getRuntime().availableProcessors());
+            accountEngine = sharded;
+            transactionEngine = new ShardedTransactionService(sharded);
+        } else {
+            AccountService accountService = new AccountService();
+            accountEngine = accountService;
+            transactionEngine = new TransactionService(accountService);
+        }
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = accountEngine.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(1_000_000.00, "USD")).getAccountId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (transactionEngine instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) transactionEngine).close();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return transactionEngine.deposit(accountIds[ThreadLocalRandom.current().nextInt(accounts)], amount,
+                "Benchmark");
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return transactionEngine.transfer(accountIds[random.nextInt(accounts)], accountIds[random.nextInt(accounts)],
+                amount, "Benchmark");
+    }
+}
@@ -0,0 +1,141 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.RequestExecutors;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.concurrent.VirtualThreads;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.journal.Journal;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained durable deposits/second with {@code IN_FLIGHT} requests
+ * outstanding at all times, through the path a deposit request takes in
+ * {@code TransactionController} for each {@code banking.execution.mode}:
+ * <ul>
+ *   <li>{@code SYNC}: the service call runs on the servlet thread;</li>
+ *   <li>{@code ASYNC}: the servlet thread hands it to the bounded platform pool
+ *       ({@link RequestExecutors#newBoundedPool}, default size) and is released;</li>
+ *   <li>{@code VIRTUAL}: it is handed to a new virtual thread per request.</li>
+ * </ul>
+ * Requests are dispatched onto a pool the size of Tomcat's default (200)
+ * standing in for the servlet threads, and each blocks on a durable (fsynced)
+ * journal commit. A new request is issued as soon as one completes, so the
+ * score is the rate the mode sustains rather than how fast it drains a burst.
+ * <p>
+ * The {@code VIRTUAL} variant requires running the benchmarks on Java 21+ and
+ * fails its setup on older JVMs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    private static final int IN_FLIGHT = 2000;
+    private static final int ACCOUNTS = 4096;
+    private static final int SERVLET_THREADS = 200;
+    private static final int POOL_SIZE = 64;
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    public enum ExecutionMode {
+        SYNC,
+        ASYNC,
+        VIRTUAL
+    }
+
+    @Param({"SYNC", "ASYNC", "VIRTUAL"})
+    public ExecutionMode mode;
+
+    @Param({"true"})
+    public boolean fsync;
+
+    private Path directory;
+    private Journal journal;
+    private TransactionService transactionService;
+    private String[] accountIds;
+    private ExecutorService servletThreads;
+    private ExecutorService requestPool;
+    private Executor requestExecutor;
+    private final Semaphore inFlight = new Semaphore(IN_FLIGHT);
+    private final Money amount = new Money(1.00, "USD");
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("execution-benchmark");
+        journal = new Journal(directory.resolve("ledger.journal"), fsync, 0);
+        AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+        transactionService = new TransactionService(accountService);
+        accountIds = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(0.00, "USD")).getAccountId();
+        }
+        servletThreads = Executors.newFixedThreadPool(SERVLET_THREADS);
+        // As ExecutionConfig builds the requestExecutor bean for each mode
+        switch (mode) {
+            case ASYNC:
+                requestPool = RequestExecutors.newBoundedPool(POOL_SIZE, QUEUE_CAPACITY);
+                requestExecutor = requestPool;
+                break;
+            case VIRTUAL:
+                requestPool = VirtualThreads.newVirtualThreadPerTaskExecutor();
+                requestExecutor = requestPool;
+                break;
+            case SYNC:
+            default:
+                requestExecutor = Runnable::run;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        // Let the outstanding requests finish before the journal closes under them
+        inFlight.acquire(IN_FLIGHT);
+        servletThreads.shutdownNow();
+        if (requestPool != null) {
+            requestPool.shutdownNow();
+        }
+        journal.close();
+        Files.deleteIfExists(journal.getPath());
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Issues one deposit request once fewer than {@code IN_FLIGHT} are outstanding.
+     */
+    @Benchmark
+    public void durableDeposit() throws InterruptedException {
+        inFlight.acquire();
+        String accountId = accountIds[next++ % ACCOUNTS];
+        servletThreads.execute(() -> CompletableFuture
+                .supplyAsync(() -> transactionService.deposit(accountId, amount, "Load test"), requestExecutor)
+                .whenComplete((transaction, failure) -> inFlight.release()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.banking.benchmarks;
+
+import com.banking.core.id.RandomUuidGenerator;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of assigning a new account or transaction ID: random UUIDs versus the
+ * time-ordered generator, single-threaded and with 4 threads sharing one
+ * generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IdGeneratorBenchmark {
+    private final RandomUuidGenerator uuid = new RandomUuidGenerator();
+    private final TimeOrderedIdGenerator timeOrdered = new TimeOrderedIdGenerator(1);
+
+    @Benchmark
+    public String randomUuid() {
+        return uuid.nextId();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomUuid4Threads() {
+        return uuid.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrdered4Threads() {
+        return timeOrdered.nextId();
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.interest.InterestAccrualEngine;
+import com.banking.transaction.interest.InterestPolicy;
+import com.banking.transaction.interest.InterestRunStats;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One month-end interest run over every account, single-threaded versus on a
+ * fork-join pool. Each invocation uses a new run ID, so every interest-bearing
+ * account is credited again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InterestAccrualBenchmark {
+    private static final AccountType[] TYPES = AccountType.values();
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"1", "8"})
+    public int parallelism;
+
+    private InterestAccrualEngine engine;
+    private InterestPolicy policy;
+    private int run;
+
+    @Setup
+    public void setUp() {
+        AccountService accountService = new AccountService();
+        for (int i = 0; i < accounts; i++) {
+            accountService.createAccount("CUST" + i, TYPES[i % TYPES.length], new Money(1000.00, "USD"));
+        }
+        TransactionService transactionService = new TransactionService(accountService);
+        engine = new InterestAccrualEngine(accountService, transactionService, null, parallelism,
+                InterestAccrualEngine.DEFAULT_BATCH_SIZE);
+        Map<AccountType, BigDecimal> rates = new EnumMap<>(AccountType.class);
+        rates.put(AccountType.SAVINGS, new BigDecimal("0.02"));
+        rates.put(AccountType.FIXED_DEPOSIT, new BigDecimal("0.045"));
+        policy = InterestPolicy.forMonth(YearMonth.of(2025, 3), rates);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public InterestRunStats monthEndRun() {
+        return engine.run("bench-" + run++, policy);
+    }
+}
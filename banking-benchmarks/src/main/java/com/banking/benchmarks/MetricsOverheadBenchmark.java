@@ -0,0 +1,115 @@
+package com.banking.benchmarks;
+
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of operation metrics on the hot path: uncontended deposits and
+ * transfers at 1 and 8 threads with {@link ServiceMetrics} disabled versus
+ * recording every call's latency and outcome. The difference should stay
+ * within a few percent; every thread records into the same histograms, so the
+ * 8-thread case also shows whether recording itself contends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MetricsOverheadBenchmark {
+    private static final int MAX_THREADS = 64;
+
+    @State(Scope.Benchmark)
+    public static class Ledger {
+        @Param({"false", "true"})
+        public boolean metered;
+
+        TransactionService transactionService;
+        String[] accountIds;
+        final AtomicInteger nextPair = new AtomicInteger();
+
+        // Per iteration so the transaction store does not grow without bound
+        @Setup(Level.Iteration)
+        public void setUp() {
+            ServiceMetrics metrics = metered ? new ServiceMetrics() : ServiceMetrics.disabled();
+            AccountService accountService = new AccountService(
+                    new StripedLocks(StripedLocks.DEFAULT_STRIPES, metrics.getLockWaits()), BalanceMode.MONEY, null,
+                    new HeapAccountStore(), metrics);
+            transactionService = new TransactionService(accountService);
+            accountIds = new String[MAX_THREADS * 2];
+            for (int i = 0; i < accountIds.length; i++) {
+                accountIds[i] = accountService.createAccount("CUST-" + (i / 2), AccountType.CHECKING,
+                        new Money(1_000_000.00, "USD")).getAccountId();
+            }
+            nextPair.set(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final Money amount = new Money(1.00, "USD");
+        String from;
+        String to;
+
+        @Setup(Level.Iteration)
+        public void setUp(Ledger ledger) {
+            int pair = ledger.nextPair.getAndIncrement() % MAX_THREADS;
+            from = ledger.accountIds[pair * 2];
+            to = ledger.accountIds[pair * 2 + 1];
+        }
+
+        Transaction transfer(TransactionService transactionService) {
+            Transaction transaction = transactionService.transfer(from, to, amount, "Benchmark");
+            String swap = from;
+            from = to;
+            to = swap;
+            return transaction;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction deposit1Thread(Ledger ledger, Caller caller) {
+        return ledger.transactionService.deposit(caller.from, caller.amount, "Benchmark");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Transaction deposit8Threads(Ledger ledger, Caller caller) {
+        return ledger.transactionService.deposit(caller.from, caller.amount, "Benchmark");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction transfer1Thread(Ledger ledger, Caller caller) {
+        return caller.transfer(ledger.transactionService);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Transaction transfer8Threads(Ledger ledger, Caller caller) {
+        return caller.transfer(ledger.transactionService);
+    }
+}
@@ -0,0 +1,72 @@
+package com.banking.benchmarks;
+
+import com.banking.core.domain.CompactMoney;
+import com.banking.core.domain.CurrencyUnit;
+import com.banking.core.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link Money} addition and subtraction, with the
+ * {@link CompactMoney} minor-unit arithmetic alongside for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoneyBenchmark {
+    private Money balance;
+    private Money amount;
+    private CompactMoney compactBalance;
+    private CompactMoney compactAmount;
+    private long balanceUnits;
+    private long amountUnits;
+
+    @Setup
+    public void setUp() {
+        balance = new Money(1_000_000.00, "USD");
+        amount = new Money(12.34, "USD");
+        compactBalance = CompactMoney.of(balance);
+        compactAmount = CompactMoney.of(amount);
+        CurrencyUnit usd = CurrencyUnit.of("USD");
+        balanceUnits = CompactMoney.toMinorUnits(balance, usd);
+        amountUnits = CompactMoney.toMinorUnits(amount, usd);
+    }
+
+    @Benchmark
+    public Money add() {
+        return balance.add(amount);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return balance.subtract(amount);
+    }
+
+    @Benchmark
+    public CompactMoney compactAdd() {
+        return compactBalance.add(compactAmount);
+    }
+
+    @Benchmark
+    public CompactMoney compactSubtract() {
+        return compactBalance.subtract(compactAmount);
+    }
+
+    @Benchmark
+    public long minorUnitsAdd() {
+        return CompactMoney.add(balanceUnits, amountUnits);
+    }
+}
@@ -0,0 +1,100 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.SequencedTransactionService;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput of the direct (locking) engine versus the sequenced
+ * single-writer engine at 4 publishing threads. {@code pipelined} publishes
+ * {@code PIPELINE_DEPTH} commands before waiting for them, as an async
+ * controller would; {@code sequencedRoundTrip} waits for each one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+public class SequencerBenchmark {
+    private static final int PIPELINE_DEPTH = 256;
+
+    @Param({"1024"})
+    public int accounts;
+
+    @Param({"4"})
+    public int shards;
+
+    private TransactionService transactionService;
+    private SequencedTransactionService sequencer;
+    private String[] accountIds;
+    private final Money amount = new Money(1.00, "USD");
+
+    // Per iteration so the transaction store does not grow without bound
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        sequencer = new SequencedTransactionService(transactionService, shards,
+                SequencedTransactionService.DEFAULT_RING_CAPACITY);
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(1_000_000_000.00, "USD")).getAccountId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        sequencer.close();
+    }
+
+    @Benchmark
+    public Transaction direct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return transactionService.transfer(accountIds[random.nextInt(accounts)], accountIds[random.nextInt(accounts)],
+                amount, "Benchmark");
+    }
+
+    @Benchmark
+    public Transaction sequencedRoundTrip() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return sequencer.transfer(accountIds[random.nextInt(accounts)], accountIds[random.nextInt(accounts)],
+                amount, "Benchmark").join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public void pipelined() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            pending[i] = sequencer.transfer(accountIds[random.nextInt(accounts)], accountIds[random.nextInt(accounts)],
+                    amount, "Benchmark");
+        }
+        CompletableFuture.allOf(pending).join();
+    }
+}
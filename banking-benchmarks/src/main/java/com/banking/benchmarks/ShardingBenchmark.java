@@ -0,0 +1,74 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.ShardedAccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.ShardedTransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput of {@link ShardedTransactionService} at 16 threads as
+ * the shard count grows; {@code shards=1} is the unsharded baseline. Accounts
+ * are picked at random, so with {@code n} shards about {@code (n-1)/n} of the
+ * transfers take the cross-shard path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ShardingBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int shards;
+
+    @Param({"100000"})
+    public int accounts;
+
+    private ShardedTransactionService transactionService;
+    private String[] accountIds;
+    private final Money amount = new Money(1.00, "USD");
+
+    // Per iteration so the transaction store does not grow without bound
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ShardedAccountService accountService = new ShardedAccountService(shards);
+        transactionService = new ShardedTransactionService(accountService);
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(1_000_000.00, "USD")).getAccountId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        transactionService.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Transaction transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return transactionService.transfer(accountIds[random.nextInt(accounts)], accountIds[random.nextInt(accounts)],
+                amount, "Benchmark");
+    }
+}
@@ -0,0 +1,84 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading one account's history out of ledgers of increasing size. The
+ * measured account always holds {@code accountTransactions} entries; the rest
+ * of the ledger is spread over other accounts and should not affect the cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionHistoryBenchmark {
+    private static final int OTHER_ACCOUNTS = 100;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10000", "1000000"})
+    public int ledgerSize;
+
+    @Param({"100", "10000"})
+    public int accountTransactions;
+
+    private TransactionService transactionService;
+    private String accountId;
+    private String secondPageCursor;
+
+    @Setup
+    public void setUp() {
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        Money amount = new Money(1.00, "USD");
+        accountId = accountService.createAccount("CUST-BENCH", AccountType.CHECKING,
+                new Money(0.00, "USD")).getAccountId();
+        String[] others = new String[OTHER_ACCOUNTS];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = accountService.createAccount("CUST" + i, AccountType.SAVINGS,
+                    new Money(0.00, "USD")).getAccountId();
+        }
+        for (int i = 0; i < accountTransactions; i++) {
+            transactionService.deposit(accountId, amount, "Benchmark");
+        }
+        for (int i = accountTransactions; i < ledgerSize; i++) {
+            transactionService.deposit(others[i % others.length], amount, "Benchmark");
+        }
+        secondPageCursor = transactionService.getTransactionsByAccount(accountId, null, PAGE_SIZE).getNextCursor();
+    }
+
+    @Benchmark
+    public List<Transaction> fullHistory() {
+        return transactionService.getTransactionsByAccount(accountId);
+    }
+
+    @Benchmark
+    public TransactionPage firstPage() {
+        return transactionService.getTransactionsByAccount(accountId, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPage secondPage() {
+        return transactionService.getTransactionsByAccount(accountId, secondPageCursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,120 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.log.ColumnarTransactionLog;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Statements and time-range scans read from the in-memory history versus the
+ * columnar transaction log. The range covers the newest tenth of the ledger.
+ * With 100 accounts every block of the log holds the statement's account; with
+ * 100,000 its statement reads only the few blocks the log's account index lists.
+ * Run with {@code -prof gc}: the log scans should allocate next to nothing
+ * per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionLogBenchmark {
+    @Param({"1000000"})
+    public int ledgerSize;
+
+    @Param({"100", "100000"})
+    public int accounts;
+
+    private Path directory;
+    private ColumnarTransactionLog log;
+    private TransactionService transactionService;
+    private String accountId;
+    private LocalDateTime from;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transaction-log-bench");
+        log = new ColumnarTransactionLog(directory);
+        AccountService accountService = new AccountService();
+        transactionService = new TransactionService(accountService, log);
+        String[] accountIds = new String[accounts];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = accountService.createAccount("CUST" + i, AccountType.CHECKING,
+                    new Money(0.00, "USD")).getAccountId();
+        }
+        accountId = accountIds[0];
+        Money amount = new Money(1.00, "USD");
+        for (int i = 0; i < ledgerSize; i++) {
+            Transaction transaction = transactionService.deposit(accountIds[i % accounts], amount, "Benchmark");
+            if (i == ledgerSize - ledgerSize / 10) {
+                from = transaction.getTimestamp();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public BigDecimal statementFromHistory() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Transaction transaction : transactionService.getTransactionsByAccount(accountId)) {
+            if (!transaction.getTimestamp().isBefore(from)) {
+                total = total.add(transaction.getAmount().getAmount());
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long statementFromLog() {
+        long[] total = new long[1];
+        log.scanAccount(accountId, from, null, record -> total[0] += record.getAmountUnscaled());
+        return total[0];
+    }
+
+    @Benchmark
+    public BigDecimal rangeFromHistory() {
+        try (Stream<Transaction> transactions = transactionService.streamAllTransactions()) {
+            return transactions.filter(transaction -> !transaction.getTimestamp().isBefore(from))
+                    .map(transaction -> transaction.getAmount().getAmount())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+
+    @Benchmark
+    public long rangeFromLog() {
+        long[] total = new long[1];
+        log.scan(from, null, record -> total[0] += record.getAmountUnscaled());
+        return total[0];
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.benchmarks;
+
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of {@link TransactionService#transfer} at 1, 4 and 16 threads.
+ * <p>
+ * {@code CONTENDED} sends every thread's transfers between the same two
+ * accounts, so they serialize on one pair of stripe locks.
+ * {@code UNCONTENDED} gives each thread a private pair of accounts, so only
+ * shared infrastructure (transaction map, stripe collisions) is contended.
+ * Each thread alternates direction so balances never drain.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransferBenchmark {
+
+    public enum Distribution {
+        CONTENDED,
+        UNCONTENDED
+    }
+
+    private static final int MAX_THREADS = 64;
+
+    @State(Scope.Benchmark)
+    public static class Ledger {
+        @Param({"CONTENDED", "UNCONTENDED"})
+        public Distribution distribution;
+
+        TransactionService transactionService;
+        String[] accountIds;
+        final AtomicInteger nextPair = new AtomicInteger();
+
+        // Per iteration so the transaction store does not grow without bound
+        @Setup(Level.Iteration)
+        public void setUp() {
+            AccountService accountService = new AccountService();
+            transactionService = new TransactionService(accountService);
+            accountIds = new String[MAX_THREADS * 2];
+            for (int i = 0; i < accountIds.length; i++) {
+                accountIds[i] = accountService.createAccount("CUST-" + (i / 2), AccountType.CHECKING,
+                        new Money(1_000_000.00, "USD")).getAccountId();
+            }
+            nextPair.set(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final Money amount = new Money(1.00, "USD");
+        String from;
+        String to;
+
+        @Setup(Level.Iteration)
+        public void setUp(Ledger ledger) {
+            int pair = ledger.distribution == Distribution.CONTENDED
+                    ? 0 : ledger.nextPair.getAndIncrement() % MAX_THREADS;
+            from = ledger.accountIds[pair * 2];
+            to = ledger.accountIds[pair * 2 + 1];
+        }
+
+        Transaction transfer(TransactionService transactionService) {
+            Transaction transaction = transactionService.transfer(from, to, amount, "Benchmark");
+            String swap = from;
+            from = to;
+            to = swap;
+            return transaction;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction transfer1Thread(Ledger ledger, Caller caller) {
+        return caller.transfer(ledger.transactionService);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Transaction transfer4Threads(Ledger ledger, Caller caller) {
+        return caller.transfer(ledger.transactionService);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Transaction transfer16Threads(Ledger ledger, Caller caller) {
+        return caller.transfer(ledger.transactionService);
+    }
+}
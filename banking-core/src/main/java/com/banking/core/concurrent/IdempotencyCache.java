@@ -0,0 +1,139 @@
+package com.banking.core.concurrent;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-expiring cache of operation results keyed by client-supplied
+ * idempotency keys, so a retried request returns the original result instead
+ * of executing again.
+ * <p>
+ * A repeat of a key whose operation is still running waits for it rather than
+ * running a second copy. Only successful results are cached; a failed
+ * operation may be retried with the same key. Completed entries are kept in
+ * insertion order, which is also expiry order since the TTL is fixed, so
+ * expired and over-capacity entries are evicted from the head of a queue in
+ * amortized constant time. Lookups are a single hash map read.
+ */
+public class IdempotencyCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> completionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    public IdempotencyCache(long ttl, TimeUnit unit, int maxEntries) {
+        this(ttl, unit, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyCache(long ttl, TimeUnit unit, int maxEntries, LongSupplier clock) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum entries must be positive");
+        }
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached result for {@code key}, or runs {@code operation} and
+     * caches its result. Callers scope keys (for example by endpoint) so that a
+     * key always maps to results of the same type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> operation) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Idempotency key cannot be null or empty");
+        }
+        long now = clock.getAsLong();
+        evict(now);
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.isExpired(now)) {
+                    return (T) await(existing.result);
+                }
+                entries.remove(key, existing);
+                continue;
+            }
+            Entry entry = new Entry(key);
+            if (entries.putIfAbsent(key, entry) != null) {
+                continue;
+            }
+            T value;
+            try {
+                value = operation.get();
+            } catch (RuntimeException | Error e) {
+                entries.remove(key, entry);
+                entry.result.completeExceptionally(e);
+                throw e;
+            }
+            entry.expiresAtNanos = clock.getAsLong() + ttlNanos;
+            entry.result.complete(value);
+            completionOrder.add(entry);
+            completed.incrementAndGet();
+            return value;
+        }
+    }
+
+    /**
+     * Number of completed results currently retained.
+     */
+    public int size() {
+        return completed.get();
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = completionOrder.peek()) != null
+                && (head.isExpired(now) || completed.get() > maxEntries)) {
+            if (completionOrder.remove(head)) {
+                completed.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Long.MAX_VALUE while the operation is in flight
+        volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        boolean isExpired(long now) {
+            long expiresAt = expiresAtNanos;
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
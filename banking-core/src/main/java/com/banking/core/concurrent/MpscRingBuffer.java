@@ -0,0 +1,106 @@
+package com.banking.core.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer ring buffer.
+ * <p>
+ * Producers claim a slot by advancing a shared tail counter with a CAS and
+ * publish it by bumping the slot's sequence number; the single consumer reads
+ * slots in order and recycles them for the next lap. Neither side blocks:
+ * {@link #offer(Object)} returns {@code false} when the ring is full and
+ * {@link #poll()} returns {@code null} when it is empty, leaving back-off
+ * policy to the caller. Only one thread may consume.
+ */
+public final class MpscRingBuffer<E> {
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Consumer-owned
+    private long head;
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2");
+        }
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Publishes an element, or returns {@code false} if the ring is full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Element cannot be null");
+        }
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                // Slot still holds an element from the previous lap
+                return false;
+            }
+        }
+        slots[index] = element;
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the next element in publication order, or returns {@code null} if
+     * none is published yet. Consumer thread only.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, head + slots.length);
+        head++;
+        return element;
+    }
+
+    /**
+     * Hands up to {@code limit} published elements to {@code consumer} and returns
+     * how many were drained. Consumer thread only.
+     */
+    public int drain(Consumer<E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Whether no element is waiting; exact only when called by the consumer with
+     * producers quiescent.
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.banking.core.concurrent;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools for service calls that may block on journal fsync, shared by
+ * the API's {@code banking.execution.mode} setting and the benchmarks that
+ * measure it, so both run requests on the same kind of pool.
+ */
+public final class RequestExecutors {
+
+    private RequestExecutors() {
+    }
+
+    /**
+     * Returns a pool of {@code poolSize} daemon platform threads, named
+     * {@code banking-request-N}, that lets idle threads time out after a minute
+     * and rejects tasks once {@code queueCapacity} are waiting.
+     */
+    public static ThreadPoolExecutor newBoundedPool(int poolSize, int queueCapacity) {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "banking-request-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
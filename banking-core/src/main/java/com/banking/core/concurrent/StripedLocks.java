@@ -0,0 +1,194 @@
+package com.banking.core.concurrent;
+
+import com.banking.core.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks shared by keys (account IDs) that hash to the same stripe.
+ * Locking several keys always acquires their stripes in ascending stripe order,
+ * so overlapping multi-key operations such as transfers cannot deadlock.
+ * <p>
+ * Each stripe also carries a sequence number for seqlock-style optimistic
+ * reads: it turns odd when a thread acquires the stripe and even again just
+ * before the thread releases it. A reader that sees the same even sequence
+ * before and after reading the guarded state read it while no thread held the
+ * stripe, so it saw only completed changes, without blocking any writer.
+ * <p>
+ * Given a {@link LatencyHistogram}, the locks record how long each contended
+ * acquisition waited. An acquisition that finds its stripe free is not timed.
+ */
+public class StripedLocks {
+    public static final int DEFAULT_STRIPES = 1024;
+
+    // Sequences are spaced a cache line apart so stripes do not share one
+    private static final int SEQUENCE_SPACING = 8;
+
+    private final ReentrantLock[] locks;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final LatencyHistogram waitTimes;
+
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedLocks(int stripes) {
+        this(stripes, null);
+    }
+
+    /**
+     * @param waitTimes histogram of the time spent waiting for contended stripes,
+     *                  or {@code null} to time nothing
+     */
+    public StripedLocks(int stripes, LatencyHistogram waitTimes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        if (size <= 0) {
+            size = 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.sequences = new AtomicLongArray(size * SEQUENCE_SPACING);
+        this.mask = size - 1;
+        this.waitTimes = waitTimes;
+    }
+
+    public int stripeCount() {
+        return locks.length;
+    }
+
+    public int stripeFor(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Lock key cannot be null");
+        }
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Locks the stripe guarding a single key.
+     */
+    public Held lock(String key) {
+        return acquire(new int[] {stripeFor(key)});
+    }
+
+    /**
+     * Locks the stripes guarding both keys in deterministic order.
+     */
+    public Held lock(String first, String second) {
+        int a = stripeFor(first);
+        int b = stripeFor(second);
+        if (a == b) {
+            return acquire(new int[] {a});
+        }
+        return acquire(a < b ? new int[] {a, b} : new int[] {b, a});
+    }
+
+    /**
+     * Locks the stripes guarding all keys in deterministic order.
+     */
+    public Held lockAll(Collection<String> keys) {
+        int[] stripes = new int[keys.size()];
+        int i = 0;
+        for (String key : keys) {
+            stripes[i++] = stripeFor(key);
+        }
+        return acquire(sortedDistinct(stripes));
+    }
+
+    /**
+     * Sequence number of a stripe: odd while a thread holds it, and advanced on
+     * every acquisition and release. See {@link #validate(int, long)}.
+     */
+    public long sequence(int stripe) {
+        return sequences.get(stripe * SEQUENCE_SPACING);
+    }
+
+    /**
+     * Whether state guarded by the stripe and read after {@link #sequence(int)}
+     * returned {@code sequence} was read while no thread held the stripe.
+     */
+    public boolean validate(int stripe, long sequence) {
+        return (sequence & 1) == 0 && sequences.get(stripe * SEQUENCE_SPACING) == sequence;
+    }
+
+    public boolean isHeldByCurrentThread(int stripe) {
+        return locks[stripe].isHeldByCurrentThread();
+    }
+
+    private Held acquire(int[] stripes) {
+        int acquired = 0;
+        try {
+            for (int stripe : stripes) {
+                lock(locks[stripe]);
+                if (locks[stripe].getHoldCount() == 1) {
+                    sequences.incrementAndGet(stripe * SEQUENCE_SPACING);
+                }
+                acquired++;
+            }
+        } catch (RuntimeException | Error e) {
+            for (int i = acquired - 1; i >= 0; i--) {
+                release(stripes[i]);
+            }
+            throw e;
+        }
+        return new Held(stripes);
+    }
+
+    private void lock(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        if (waitTimes == null) {
+            lock.lock();
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        waitTimes.record(System.nanoTime() - start);
+    }
+
+    private void release(int stripe) {
+        if (locks[stripe].getHoldCount() == 1) {
+            sequences.incrementAndGet(stripe * SEQUENCE_SPACING);
+        }
+        locks[stripe].unlock();
+    }
+
+    private static int[] sortedDistinct(int[] stripes) {
+        Arrays.sort(stripes);
+        int n = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[n++] = stripes[i];
+            }
+        }
+        return n == stripes.length ? stripes : Arrays.copyOf(stripes, n);
+    }
+
+    /**
+     * Set of stripes held by the current thread; closing releases them in reverse order.
+     */
+    public final class Held implements AutoCloseable {
+        private final int[] stripes;
+
+        private Held(int[] stripes) {
+            this.stripes = stripes;
+        }
+
+        @Override
+        public void close() {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                release(stripes[i]);
+            }
+        }
+    }
+}
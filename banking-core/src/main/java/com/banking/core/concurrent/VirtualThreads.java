@@ -0,0 +1,45 @@
+package com.banking.core.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to Java 21 virtual threads from code compiled for Java 11. The
+ * factory is looked up reflectively so the same build runs on both; callers
+ * check {@link #isSupported()} or handle the exception on older JVMs.
+ */
+public final class VirtualThreads {
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread for each task.
+     *
+     * @throws UnsupportedOperationException on JVMs without virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later; running on Java "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    private static Method lookup() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.banking.core.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Value object representing monetary amounts as a {@code long} count of minor
+ * units of an interned {@link CurrencyUnit}. Arithmetic compares currencies by
+ * identity and is overflow-checked, throwing {@link ArithmeticException} rather
+ * than silently wrapping. The static helpers operate on raw minor units for hot
+ * paths that must not allocate.
+ */
+public final class CompactMoney implements Comparable<CompactMoney> {
+    private final long minorUnits;
+    private final CurrencyUnit currency;
+
+    public CompactMoney(long minorUnits, CurrencyUnit currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency cannot be null");
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static CompactMoney of(Money money) {
+        CurrencyUnit currency = CurrencyUnit.of(money.getCurrency());
+        return new CompactMoney(toMinorUnits(money.getAmount(), currency), currency);
+    }
+
+    /**
+     * Converts an amount to minor units, rejecting precision finer than one minor unit.
+     */
+    public static long toMinorUnits(BigDecimal amount, CurrencyUnit currency) {
+        try {
+            return amount.movePointRight(currency.getFractionDigits()).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                "Amount " + amount + " is not representable in minor units of " + currency);
+        }
+    }
+
+    /**
+     * Converts a {@link Money} in the given currency to minor units.
+     */
+    public static long toMinorUnits(Money money, CurrencyUnit currency) {
+        if (!currency.getCode().equals(money.getCurrency())) {
+            throw new IllegalArgumentException("Cannot combine different currencies");
+        }
+        return toMinorUnits(money.getAmount(), currency);
+    }
+
+    public static Money toMoney(long minorUnits, CurrencyUnit currency) {
+        return new Money(BigDecimal.valueOf(minorUnits, currency.getFractionDigits()), currency.getCode());
+    }
+
+    public static long add(long a, long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Monetary overflow adding " + a + " and " + b + " minor units");
+        }
+    }
+
+    public static long subtract(long a, long b) {
+        try {
+            return Math.subtractExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Monetary overflow subtracting " + b + " from " + a + " minor units");
+        }
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public CurrencyUnit getCurrency() {
+        return currency;
+    }
+
+    public Money toMoney() {
+        return toMoney(minorUnits, currency);
+    }
+
+    public CompactMoney add(CompactMoney other) {
+        checkCurrency(other, "add");
+        return new CompactMoney(add(minorUnits, other.minorUnits), currency);
+    }
+
+    public CompactMoney subtract(CompactMoney other) {
+        checkCurrency(other, "subtract");
+        return new CompactMoney(subtract(minorUnits, other.minorUnits), currency);
+    }
+
+    public boolean isGreaterThan(CompactMoney other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isLessThan(CompactMoney other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(CompactMoney other) {
+        checkCurrency(other, "compare");
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void checkCurrency(CompactMoney other, String operation) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Cannot " + operation + " different currencies");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactMoney that = (CompactMoney) o;
+        return minorUnits == that.minorUnits && currency == that.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.getNumericCode();
+    }
+
+    @Override
+    public String toString() {
+        return toMoney().toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.banking.core.domain;
+
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned ISO-4217 currency. Instances are canonical per code, so currencies can be
+ * compared by identity, and each carries its numeric code and minor-unit scale.
+ */
+public final class CurrencyUnit {
+    private static final int MAX_NUMERIC_CODE = 999;
+    private static final Map<String, CurrencyUnit> BY_CODE = new ConcurrentHashMap<>();
+    private static final CurrencyUnit[] BY_NUMERIC_CODE = new CurrencyUnit[MAX_NUMERIC_CODE + 1];
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            int numericCode = currency.getNumericCode();
+            if (numericCode <= 0 || numericCode > MAX_NUMERIC_CODE || BY_NUMERIC_CODE[numericCode] != null) {
+                continue;
+            }
+            CurrencyUnit unit = new CurrencyUnit(currency.getCurrencyCode(), (short) numericCode,
+                    Math.max(currency.getDefaultFractionDigits(), 0));
+            BY_CODE.put(unit.code, unit);
+            BY_NUMERIC_CODE[numericCode] = unit;
+        }
+    }
+
+    private final String code;
+    private final short numericCode;
+    private final int fractionDigits;
+
+    private CurrencyUnit(String code, short numericCode, int fractionDigits) {
+        this.code = code;
+        this.numericCode = numericCode;
+        this.fractionDigits = fractionDigits;
+    }
+
+    public static CurrencyUnit of(String code) {
+        CurrencyUnit unit = code == null ? null : BY_CODE.get(code);
+        if (unit == null) {
+            throw new IllegalArgumentException("Unknown ISO-4217 currency: " + code);
+        }
+        return unit;
+    }
+
+    public static CurrencyUnit ofNumericCode(int numericCode) {
+        CurrencyUnit unit = numericCode > 0 && numericCode <= MAX_NUMERIC_CODE ? BY_NUMERIC_CODE[numericCode] : null;
+        if (unit == null) {
+            throw new IllegalArgumentException("Unknown ISO-4217 numeric currency code: " + numericCode);
+        }
+        return unit;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * ISO-4217 numeric code, stable across JVMs and suitable for compact storage.
+     */
+    public short getNumericCode() {
+        return numericCode;
+    }
+
+    /**
+     * Number of decimal places in one minor unit (2 for USD, 0 for JPY, 3 for KWD).
+     */
+    public int getFractionDigits() {
+        return fractionDigits;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
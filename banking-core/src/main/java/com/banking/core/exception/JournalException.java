@@ -0,0 +1,14 @@
+package com.banking.core.exception;
+
+/**
+ * Exception thrown when the transaction journal cannot be written or replayed.
+ */
+public class JournalException extends RuntimeException {
+    public JournalException(String message) {
+        super(message);
+    }
+
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.banking.core.id;
+
+/**
+ * Source of unique identifiers for accounts and transactions.
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns a new identifier, unique across every call on every node sharing
+     * the same configuration.
+     */
+    String nextId();
+
+    /**
+     * Makes every later identifier sort after {@code id}, one issued before a
+     * restart, so that recovered IDs are never issued again even if the clock
+     * is now behind them. Generators whose IDs have no order ignore it.
+     */
+    default void advancePast(String id) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.core.id;
+
+/**
+ * Process-wide {@link IdGenerator} used by the domain constructors that assign
+ * new account and transaction IDs. Defaults to a {@link TimeOrderedIdGenerator}
+ * for node 0; deployments running several nodes install one with a distinct
+ * node ID at startup, before any IDs are issued.
+ */
+public final class IdGenerators {
+    private static volatile IdGenerator defaultGenerator = new TimeOrderedIdGenerator(0);
+
+    private IdGenerators() {
+    }
+
+    public static String nextId() {
+        return defaultGenerator.nextId();
+    }
+
+    /**
+     * Tells the default generator about an ID recovered from the journal or a
+     * snapshot; see {@link IdGenerator#advancePast(String)}.
+     */
+    public static void advancePast(String id) {
+        defaultGenerator.advancePast(id);
+    }
+
+    public static IdGenerator getDefault() {
+        return defaultGenerator;
+    }
+
+    public static void setDefault(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("ID generator cannot be null");
+        }
+        defaultGenerator = generator;
+    }
+}
@@ -0,0 +1,15 @@
+package com.banking.core.id;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs; the original identifier scheme. IDs have no
+ * ordering, and generation goes through {@link java.security.SecureRandom}.
+ */
+public class RandomUuidGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
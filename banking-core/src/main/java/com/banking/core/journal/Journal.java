@@ -0,0 +1,335 @@
+package com.banking.core.journal;
+
+import com.banking.core.exception.JournalException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, file-based write-ahead journal with group commit.
+ * <p>
+ * {@link #append(byte[])} only buffers a record and returns its end position;
+ * a single flusher thread writes everything buffered so far in one batch and
+ * (optionally) fsyncs it, after which every caller waiting in
+ * {@link #awaitDurable(long)} for a position inside the batch is released.
+ * Concurrent writers therefore share one fsync instead of paying one each.
+ * <p>
+ * Records are framed as {@code [length][crc32][payload]}. On open, a torn or
+ * corrupt tail left by a crash is truncated so the file always ends on a
+ * record boundary.
+ */
+public class Journal implements AutoCloseable {
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final long maxBatchDelayNanos;
+    private final long recoveredPosition;
+    private final Thread flusher;
+
+    // Guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long appendedPosition;
+    private boolean flusherWaiting;
+    private boolean closed;
+
+    // A lock rather than a monitor: waiting on a monitor pins a virtual thread to its carrier
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private volatile long durablePosition;
+    private volatile Throwable failure;
+
+    public Journal(Path path) {
+        this(path, true, 0);
+    }
+
+    /**
+     * @param path                journal file, created if missing
+     * @param fsync               force each batch to stable storage before acknowledging it
+     * @param maxBatchDelayMicros extra time the flusher waits to collect a larger batch;
+     *                            0 flushes as soon as the previous batch completes
+     */
+    public Journal(Path path, boolean fsync, long maxBatchDelayMicros) {
+        if (path == null) {
+            throw new IllegalArgumentException("Journal path cannot be null");
+        }
+        if (maxBatchDelayMicros < 0) {
+            throw new IllegalArgumentException("Batch delay cannot be negative");
+        }
+        this.path = path;
+        this.fsync = fsync;
+        this.maxBatchDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxBatchDelayMicros);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.recoveredPosition = scan(0, channel.size(), null);
+            channel.truncate(recoveredPosition);
+            channel.position(recoveredPosition);
+        } catch (IOException e) {
+            throw new JournalException("Cannot open journal " + path, e);
+        }
+        this.appendedPosition = recoveredPosition;
+        this.durablePosition = recoveredPosition;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher-" + path.getFileName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Buffers a record and returns its end position. The record is not durable
+     * until {@link #awaitDurable(long)} returns for that position.
+     */
+    public long append(byte[] payload) {
+        if (payload.length > MAX_RECORD_SIZE) {
+            throw new JournalException("Journal record too large: " + payload.length + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int size = HEADER_SIZE + payload.length;
+        synchronized (this) {
+            if (closed) {
+                throw new JournalException("Journal " + path + " is closed");
+            }
+            checkFailure();
+            if (pending.remaining() < size) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + size));
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            pending.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            appendedPosition += size;
+            if (flusherWaiting) {
+                notifyAll();
+            }
+            return appendedPosition;
+        }
+    }
+
+    /**
+     * Throws if {@link #append(byte[])} would be refused, so callers can check
+     * before they change any state the record describes.
+     */
+    public synchronized void checkWritable() {
+        if (closed) {
+            throw new JournalException("Journal " + path + " is closed");
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops the journal after a caller changed state it could not record: every
+     * later append and durability wait fails, so nothing past the gap is
+     * acknowledged.
+     */
+    public void fail(Throwable cause) {
+        durableLock.lock();
+        try {
+            if (failure == null) {
+                failure = cause;
+            }
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code position} has been written (and
+     * fsynced, if enabled).
+     */
+    public void awaitDurable(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durablePosition < position) {
+                checkFailure();
+                durableAdvanced.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JournalException("Interrupted while waiting for journal flush", e);
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Replays the records that were in the file when it was opened, starting at
+     * a record boundary previously returned by {@link #append(byte[])} (or 0).
+     */
+    public void replay(long fromPosition, RecordHandler handler) {
+        if (fromPosition < 0 || fromPosition > recoveredPosition) {
+            throw new IllegalArgumentException("Replay position out of range: " + fromPosition);
+        }
+        try {
+            scan(fromPosition, recoveredPosition, handler);
+        } catch (IOException e) {
+            throw new JournalException("Cannot replay journal " + path, e);
+        }
+    }
+
+    /**
+     * End of the records that were in the file when it was opened; {@link #replay}
+     * reads up to here.
+     */
+    public long getRecoveredPosition() {
+        return recoveredPosition;
+    }
+
+    public synchronized long getAppendedPosition() {
+        return appendedPosition;
+    }
+
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new JournalException("Cannot close journal " + path, e);
+        }
+    }
+
+    private long scan(long fromPosition, long fileSize, RecordHandler handler) throws IOException {
+        long position = fromPosition;
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, INITIAL_BUFFER_SIZE))) {
+            skipFully(in, fromPosition);
+            CRC32 crc = new CRC32();
+            while (position + HEADER_SIZE <= fileSize) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                position += HEADER_SIZE + length;
+                if (handler != null) {
+                    handler.onRecord(position, payload);
+                }
+            }
+        } catch (EOFException e) {
+            // Torn tail; everything before position is intact
+        }
+        return position;
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new EOFException("Replay position beyond end of journal");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (pending.position() == 0 && !closed) {
+                        flusherWaiting = true;
+                        wait();
+                        flusherWaiting = false;
+                    }
+                    if (pending.position() == 0) {
+                        return;
+                    }
+                }
+                if (maxBatchDelayNanos > 0) {
+                    LockSupport.parkNanos(maxBatchDelayNanos);
+                }
+                ByteBuffer batch;
+                long target;
+                synchronized (this) {
+                    batch = pending;
+                    pending = spare;
+                    spare = null;
+                    target = appendedPosition;
+                }
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                batch.clear();
+                synchronized (this) {
+                    spare = batch;
+                }
+                durableLock.lock();
+                try {
+                    durablePosition = target;
+                    durableAdvanced.signalAll();
+                } finally {
+                    durableLock.unlock();
+                }
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new JournalException("Journal " + path + " failed; no further writes are durable", cause);
+        }
+    }
+
+    /**
+     * Callback receiving each replayed record with the position just after it.
+     */
+    public interface RecordHandler {
+        void onRecord(long position, byte[] payload);
+    }
+}
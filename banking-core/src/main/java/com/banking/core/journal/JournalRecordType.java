@@ -0,0 +1,35 @@
+package com.banking.core.journal;
+
+/**
+ * Enumeration of the record kinds stored in the ledger journal. The code is the
+ * first byte of every record payload and must never be reused or renumbered.
+ */
+public enum JournalRecordType {
+    ACCOUNT_OPENED(1),
+    ACCOUNT_ACTIVATED(2),
+    ACCOUNT_DEACTIVATED(3),
+    TRANSACTION(4),
+    POSTING(5);
+
+    private final byte code;
+
+    JournalRecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static JournalRecordType of(byte[] payload) {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Empty journal record");
+        }
+        for (JournalRecordType type : values()) {
+            if (type.code == payload[0]) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown journal record type: " + payload[0]);
+    }
+}
@@ -0,0 +1,98 @@
+package com.banking.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters of one service operation. A call is
+ * timed by taking {@link #start()} before it and passing that value to
+ * {@link #success(long)} or {@link #failure(long, Throwable)} after it. Metrics
+ * of a {@linkplain ServiceMetrics#disabled() disabled} registry skip the clock
+ * reads and record nothing.
+ */
+public class OperationMetrics {
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final String name;
+    private final boolean enabled;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder[] outcomes = new LongAdder[OUTCOMES.length];
+    private final long createdNanos = System.nanoTime();
+
+    OperationMetrics(String name, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Start time to pass to {@link #success(long)} or {@link #failure(long, Throwable)}.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void success(long startNanos) {
+        record(startNanos, Outcome.SUCCESS);
+    }
+
+    public void failure(long startNanos, Throwable failure) {
+        record(startNanos, Outcome.of(failure));
+    }
+
+    public void record(long startNanos, Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        latency.record(System.nanoTime() - startNanos);
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Latency of every call, whatever its outcome.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder outcome : outcomes) {
+            count += outcome.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Calls per second averaged since the metrics were created; monitoring
+     * systems derive current rates from {@link #getCount()} instead.
+     */
+    public double getThroughput() {
+        long elapsed = System.nanoTime() - createdNanos;
+        return elapsed <= 0 ? 0 : getCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OperationMetrics{name=%s, count=%d, insufficientFunds=%d, invalidAccount=%d, "
+                        + "failed=%d, p50Micros=%d, p99Micros=%d, maxMicros=%d}",
+                name, getCount(), getCount(Outcome.INSUFFICIENT_FUNDS), getCount(Outcome.INVALID_ACCOUNT),
+                getCount(Outcome.FAILED), TimeUnit.NANOSECONDS.toMicros(latency.valueAtPercentile(50)),
+                TimeUnit.NANOSECONDS.toMicros(latency.valueAtPercentile(99)),
+                TimeUnit.NANOSECONDS.toMicros(latency.getMaxNanos()));
+    }
+}
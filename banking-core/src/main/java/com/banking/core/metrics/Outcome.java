@@ -0,0 +1,27 @@
+package com.banking.core.metrics;
+
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+
+/**
+ * How a service operation ended.
+ */
+public enum Outcome {
+    SUCCESS,
+    INSUFFICIENT_FUNDS,
+    INVALID_ACCOUNT,
+    /**
+     * Any other failure: invalid input, an inactive account, a durability error.
+     */
+    FAILED;
+
+    public static Outcome of(Throwable failure) {
+        if (failure instanceof InsufficientFundsException) {
+            return INSUFFICIENT_FUNDS;
+        }
+        if (failure instanceof InvalidAccountException) {
+            return INVALID_ACCOUNT;
+        }
+        return FAILED;
+    }
+}
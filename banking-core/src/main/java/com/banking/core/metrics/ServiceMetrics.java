@@ -0,0 +1,85 @@
+package com.banking.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of the account and transaction services: an {@link OperationMetrics}
+ * per named operation and a histogram of the time threads waited for a
+ * contended account stripe lock. One instance is shared by every service (and
+ * shard) of an engine, so each operation is reported once, however many shards
+ * execute it.
+ * <p>
+ * Services look their operations up once, when they are constructed, and keep
+ * the references; the hot path never touches the registry's map. The services'
+ * own operations are registered up front, so exporters that enumerate
+ * {@link #getOperations()} see them whether or not the services exist yet.
+ */
+public class ServiceMetrics {
+    public static final String ACCOUNT_CREATE = "account.create";
+    public static final String DEPOSIT = "transaction.deposit";
+    public static final String WITHDRAWAL = "transaction.withdraw";
+    public static final String TRANSFER = "transaction.transfer";
+    public static final String POSTING = "transaction.posting";
+    public static final String BATCH = "transaction.batch";
+
+    private static final String[] SERVICE_OPERATIONS = {ACCOUNT_CREATE, DEPOSIT, WITHDRAWAL, TRANSFER, POSTING, BATCH};
+
+    private static final ServiceMetrics DISABLED = new ServiceMetrics(false);
+
+    private final boolean enabled;
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final LatencyHistogram lockWaits;
+
+    public ServiceMetrics() {
+        this(true);
+    }
+
+    private ServiceMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.lockWaits = enabled ? new LatencyHistogram() : null;
+        for (String name : SERVICE_OPERATIONS) {
+            operation(name);
+        }
+    }
+
+    /**
+     * Shared registry that records nothing, for services built without metrics.
+     */
+    public static ServiceMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public OperationMetrics operation(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Operation name cannot be null or empty");
+        }
+        return operations.computeIfAbsent(name, key -> new OperationMetrics(key, enabled));
+    }
+
+    /**
+     * Operations registered so far, in name order.
+     */
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> result = new ArrayList<>(operations.values());
+        result.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Time spent waiting for account stripe locks that were held by another
+     * thread; uncontended acquisitions are not timed. Record into it by building
+     * the services' locks with {@code new StripedLocks(stripes, getLockWaits())}.
+     * {@code null} if the registry is disabled, which makes the locks time nothing.
+     */
+    public LatencyHistogram getLockWaits() {
+        return lockWaits;
+    }
+}
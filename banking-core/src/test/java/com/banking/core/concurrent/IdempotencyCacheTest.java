@@ -0,0 +1,93 @@
+package com.banking.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void testRepeatedKeyReturnsOriginalResult() {
+        IdempotencyCache cache = new IdempotencyCache(1, TimeUnit.HOURS, 100);
+        AtomicInteger executions = new AtomicInteger();
+
+        String first = cache.execute("key-1", () -> "result-" + executions.incrementAndGet());
+        String retry = cache.execute("key-1", () -> "result-" + executions.incrementAndGet());
+        String other = cache.execute("key-2", () -> "result-" + executions.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", retry);
+        assertEquals("result-2", other);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testExpiredEntryRunsAgain() {
+        AtomicLong now = new AtomicLong();
+        IdempotencyCache cache = new IdempotencyCache(10, TimeUnit.SECONDS, 100, now::get);
+        AtomicInteger executions = new AtomicInteger();
+
+        cache.execute("key", executions::incrementAndGet);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertEquals(1, (int) cache.execute("key", executions::incrementAndGet));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(2, (int) cache.execute("key", executions::incrementAndGet));
+    }
+
+    @Test
+    void testBoundedByMaxEntries() {
+        IdempotencyCache cache = new IdempotencyCache(1, TimeUnit.HOURS, 10);
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            cache.execute("key-" + i, () -> value);
+        }
+        assertTrue(cache.size() <= 11, "Cache grew to " + cache.size());
+        // Oldest keys were evicted and execute again
+        assertEquals(-1, (int) cache.execute("key-0", () -> -1));
+    }
+
+    @Test
+    void testFailedOperationIsNotCached() {
+        IdempotencyCache cache = new IdempotencyCache(1, TimeUnit.HOURS, 100);
+        assertThrows(IllegalStateException.class, () -> cache.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("ok", cache.execute("key", () -> "ok"));
+    }
+
+    @Test
+    void testConcurrentDuplicatesExecuteOnce() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(1, TimeUnit.HOURS, 100);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.execute("key", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return executions.incrementAndGet();
+            })));
+        }
+        Thread.sleep(50);
+        release.countDown();
+        for (Future<Integer> result : results) {
+            assertEquals(1, (int) result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        executor.shutdown();
+    }
+}
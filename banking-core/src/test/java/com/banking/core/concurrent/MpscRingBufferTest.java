@@ -0,0 +1,69 @@
+package com.banking.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void testFifoAndCapacity() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        assertNull(ring.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, (int) ring.poll());
+        assertTrue(ring.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, ring.drain(drained::add, 10));
+        assertEquals(List.of(1, 2, 3, 4), drained);
+        assertTrue(ring.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(3));
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingAndKeepPerProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 200_000;
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(executor.submit(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        long[] next = new long[producers];
+        long received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (received < (long) producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertEquals(next[(int) element[0]]++, element[1]);
+            received++;
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals((long) producers * perProducer, received);
+    }
+}
@@ -0,0 +1,37 @@
+package com.banking.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestExecutorsTest {
+
+    @Test
+    void testBoundedPoolRunsOnNamedDaemonThreadsAndRejectsBeyondItsQueue() throws Exception {
+        ThreadPoolExecutor pool = RequestExecutors.newBoundedPool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<Thread> running = pool.submit(() -> {
+                release.await();
+                return Thread.currentThread();
+            });
+            Future<?> queued = pool.submit(() -> { });
+            assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> { }));
+
+            release.countDown();
+            Thread thread = running.get(10, TimeUnit.SECONDS);
+            queued.get(10, TimeUnit.SECONDS);
+            assertTrue(thread.isDaemon());
+            assertTrue(thread.getName().startsWith("banking-request-"));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.core.concurrent;
+
+import com.banking.core.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLocksTest {
+
+    @Test
+    void testStripeCountRoundedToPowerOfTwo() {
+        assertEquals(1, new StripedLocks(1).stripeCount());
+        assertEquals(16, new StripedLocks(10).stripeCount());
+        assertEquals(1024, new StripedLocks().stripeCount());
+    }
+
+    @Test
+    void testSameStripeLockedOnce() {
+        StripedLocks locks = new StripedLocks(1);
+        try (StripedLocks.Held held = locks.lockAll(Arrays.asList("A", "B", "C"))) {
+            assertNotNull(held);
+        }
+        // Stripe must be fully released again
+        try (StripedLocks.Held held = locks.lock("A", "B")) {
+            assertNotNull(held);
+        }
+    }
+
+    @Test
+    void testSequenceIsOddWhileStripeIsHeld() {
+        StripedLocks locks = new StripedLocks(1);
+        long before = locks.sequence(0);
+        assertTrue(locks.validate(0, before));
+        try (StripedLocks.Held outer = locks.lock("A")) {
+            long held = locks.sequence(0);
+            assertEquals(before + 1, held);
+            assertFalse(locks.validate(0, held));
+            assertTrue(locks.isHeldByCurrentThread(0));
+            // Re-entering the stripe does not advance it again
+            try (StripedLocks.Held inner = locks.lock("B")) {
+                assertEquals(held, locks.sequence(0));
+            }
+            assertEquals(held, locks.sequence(0));
+        }
+        assertFalse(locks.isHeldByCurrentThread(0));
+        assertEquals(before + 2, locks.sequence(0));
+        assertFalse(locks.validate(0, before), "A read spanning the write must be retried");
+    }
+
+    @Test
+    void testOnlyContendedAcquisitionsAreTimed() throws InterruptedException {
+        LatencyHistogram waits = new LatencyHistogram();
+        StripedLocks locks = new StripedLocks(1, waits);
+        try (StripedLocks.Held ignored = locks.lock("A")) {
+            assertNotNull(ignored);
+        }
+        assertEquals(0, waits.getCount());
+
+        Thread waiter = new Thread(() -> {
+            try (StripedLocks.Held held = locks.lock("B")) {
+                assertNotNull(held);
+            }
+        });
+        try (StripedLocks.Held ignored = locks.lock("A")) {
+            waiter.start();
+            // Parked inside lock(), behind this thread
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(20);
+        }
+        waiter.join();
+        assertEquals(1, waits.getCount());
+        assertTrue(waits.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(10), "Waited " + waits.getMaxNanos());
+    }
+
+    @Test
+    void testOpposingTransfersDoNotDeadlock() throws InterruptedException {
+        StripedLocks locks = new StripedLocks(64);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicBoolean failed = new AtomicBoolean();
+        for (int t = 0; t < 2; t++) {
+            boolean forward = t == 0;
+            executor.submit(() -> {
+                try {
+                    for (int i = 0; i < 100_000; i++) {
+                        try (StripedLocks.Held ignored = forward ? locks.lock("ACC-1", "ACC-2") : locks.lock("ACC-2", "ACC-1")) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failed.set(true);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Lock ordering deadlocked");
+        assertFalse(failed.get());
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,25 @@
+package com.banking.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest {
+
+    @Test
+    void testExecutorMatchesRuntimeSupport() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(UnsupportedOperationException.class, VirtualThreads::newVirtualThreadPerTaskExecutor);
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            assertEquals("done", executor.submit(() -> "done").get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.core.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactMoneyTest {
+
+    @Test
+    void testCurrencyUnitsAreInterned() {
+        assertSame(CurrencyUnit.of("USD"), CurrencyUnit.of("USD"));
+        assertSame(CurrencyUnit.of("EUR"), CurrencyUnit.ofNumericCode(978));
+        assertEquals(2, CurrencyUnit.of("USD").getFractionDigits());
+        assertEquals(0, CurrencyUnit.of("JPY").getFractionDigits());
+        assertEquals(3, CurrencyUnit.of("KWD").getFractionDigits());
+        assertThrows(IllegalArgumentException.class, () -> CurrencyUnit.of("XYZ"));
+    }
+
+    @Test
+    void testRoundTripWithMoney() {
+        CompactMoney compact = CompactMoney.of(new Money(100.5, "USD"));
+        assertEquals(10050, compact.getMinorUnits());
+        assertEquals(0, new BigDecimal("100.50").compareTo(compact.toMoney().getAmount()));
+        assertEquals("USD", compact.toMoney().getCurrency());
+        assertEquals(1234, CompactMoney.of(new Money(1234.0, "JPY")).getMinorUnits());
+    }
+
+    @Test
+    void testRejectsSubMinorUnitPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> CompactMoney.of(new Money(0.005, "USD")));
+    }
+
+    @Test
+    void testArithmeticAndComparison() {
+        CompactMoney a = CompactMoney.of(new Money(100.0, "USD"));
+        CompactMoney b = CompactMoney.of(new Money(30.25, "USD"));
+        assertEquals(13025, a.add(b).getMinorUnits());
+        assertEquals(6975, a.subtract(b).getMinorUnits());
+        assertTrue(b.isLessThan(a));
+        assertTrue(a.isGreaterThan(b));
+        assertThrows(IllegalArgumentException.class, () -> a.add(CompactMoney.of(new Money(1.0, "EUR"))));
+    }
+
+    @Test
+    void testOverflowIsDetected() {
+        CurrencyUnit usd = CurrencyUnit.of("USD");
+        CompactMoney max = new CompactMoney(Long.MAX_VALUE, usd);
+        assertThrows(ArithmeticException.class, () -> max.add(new CompactMoney(1, usd)));
+        assertThrows(ArithmeticException.class, () -> CompactMoney.subtract(Long.MIN_VALUE, 1));
+    }
+}
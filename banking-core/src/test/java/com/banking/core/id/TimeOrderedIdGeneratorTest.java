@@ -0,0 +1,108 @@
+package com.banking.core.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void testIdsAreStrictlyIncreasingAsStrings() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+        String previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.nextId();
+            assertEquals(13, next.length());
+            assertTrue(next.compareTo(previous) > 0, next + " not after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testMonotonicWhenClockStepsBackOrSequenceOverflows() {
+        AtomicLong now = new AtomicLong(TimeOrderedIdGenerator.EPOCH_MILLIS + 1_000_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1, now::get);
+        long previous = generator.nextLong();
+        // More IDs than fit in one millisecond
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextLong();
+            assertTrue(next > previous);
+            previous = next;
+        }
+        now.addAndGet(-5_000);
+        assertTrue(generator.nextLong() > previous);
+    }
+
+    @Test
+    void testAdvancePastIdsFromEarlierRun() {
+        AtomicLong now = new AtomicLong(TimeOrderedIdGenerator.EPOCH_MILLIS + 1_000_000);
+        TimeOrderedIdGenerator before = new TimeOrderedIdGenerator(1, now::get);
+        String last = null;
+        // Runs ahead of the clock, which a restarted generator would not know about
+        for (int i = 0; i < 10_000; i++) {
+            last = before.nextId();
+        }
+
+        TimeOrderedIdGenerator after = new TimeOrderedIdGenerator(1, now::get);
+        after.advancePast(last);
+        after.advancePast(TimeOrderedIdGenerator.encode(1));
+        after.advancePast("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+        after.advancePast("ZZZZZZZZZZZZZ");
+        assertTrue(after.nextId().compareTo(last) > 0);
+    }
+
+    @Test
+    void testEncodeDecodeRoundTripAndEmbeddedTimestamp() {
+        AtomicLong now = new AtomicLong(1_750_000_000_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1023, now::get);
+        long id = generator.nextLong();
+        assertEquals(id, TimeOrderedIdGenerator.decode(TimeOrderedIdGenerator.encode(id)));
+        assertEquals(1_750_000_000_000L, TimeOrderedIdGenerator.timestampOf(id));
+        assertEquals(1023, id & TimeOrderedIdGenerator.MAX_NODE_ID);
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.decode("not-an-id"));
+    }
+
+    @Test
+    void testNodesNeverCollide() {
+        AtomicLong now = new AtomicLong(TimeOrderedIdGenerator.EPOCH_MILLIS + 42);
+        TimeOrderedIdGenerator a = new TimeOrderedIdGenerator(1, now::get);
+        TimeOrderedIdGenerator b = new TimeOrderedIdGenerator(2, now::get);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.add(a.nextId()));
+            assertTrue(ids.add(b.nextId()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1024));
+    }
+
+    @Test
+    void testConcurrentGenerationIsUnique() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    assertTrue(ids.add(generator.nextId()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(400_000, ids.size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.banking.core.journal;
+
+import com.banking.core.exception.JournalException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppendedRecordsAreReplayedInOrder() {
+        Path file = tempDir.resolve("ledger.journal");
+        try (Journal journal = new Journal(file)) {
+            long first = journal.append(bytes("first"));
+            long second = journal.append(bytes("second"));
+            assertTrue(second > first);
+            journal.awaitDurable(second);
+            assertEquals(second, journal.getDurablePosition());
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(file)) {
+            journal.replay(0, (position, payload) -> replayed.add(new String(payload, StandardCharsets.UTF_8)));
+        }
+        assertEquals(List.of("first", "second"), replayed);
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnOpen() throws Exception {
+        Path file = tempDir.resolve("ledger.journal");
+        long intactEnd;
+        try (Journal journal = new Journal(file)) {
+            intactEnd = journal.append(bytes("intact"));
+            journal.awaitDurable(intactEnd);
+        }
+        // Simulate a crash midway through writing the next record
+        Files.write(file, new byte[] {0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (Journal journal = new Journal(file)) {
+            assertEquals(intactEnd, journal.getAppendedPosition());
+            List<String> replayed = new ArrayList<>();
+            journal.replay(0, (position, payload) -> replayed.add(new String(payload, StandardCharsets.UTF_8)));
+            assertEquals(List.of("intact"), replayed);
+        }
+        assertEquals(intactEnd, Files.size(file));
+    }
+
+    @Test
+    void testConcurrentWritersShareGroupCommits() throws Exception {
+        Path file = tempDir.resolve("ledger.journal");
+        int threads = 8;
+        int recordsPerThread = 500;
+        try (Journal journal = new Journal(file, true, 0)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < recordsPerThread; i++) {
+                        journal.awaitDurable(journal.append(bytes("record-" + i)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+
+        long[] count = new long[1];
+        try (Journal journal = new Journal(file)) {
+            journal.replay(0, (position, payload) -> count[0]++);
+        }
+        assertEquals((long) threads * recordsPerThread, count[0]);
+    }
+
+    @Test
+    void testFailedJournalRefusesFurtherWrites() {
+        Path file = tempDir.resolve("ledger.journal");
+        try (Journal journal = new Journal(file)) {
+            long durable = journal.append(bytes("before"));
+            journal.awaitDurable(durable);
+            journal.checkWritable();
+
+            journal.fail(new IllegalStateException("unrecorded change"));
+            assertThrows(JournalException.class, journal::checkWritable);
+            assertThrows(JournalException.class, () -> journal.append(bytes("after")));
+            // What was already durable stays acknowledged
+            journal.awaitDurable(durable);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
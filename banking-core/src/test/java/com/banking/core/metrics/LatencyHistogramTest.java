@@ -0,0 +1,74 @@
+package com.banking.core.metrics;
+
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndWithinPrecision() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(previousHighest + 1), "Lowest value of bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(highest), "Highest value of bucket " + bucket);
+            assertTrue(highest - previousHighest <= Math.max(1, (previousHighest + 1) / 16),
+                    "Bucket " + bucket + " is wider than 1/16 of its values");
+            previousHighest = highest;
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(99));
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        histogram.record(-5);
+
+        assertEquals(10_001, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertEquals(10_000_000, histogram.valueAtPercentile(100));
+        assertEquals(0, histogram.valueAtPercentile(0));
+        assertWithinPrecision(5_000_000, histogram.valueAtPercentile(50));
+        assertWithinPrecision(9_900_000, histogram.valueAtPercentile(99));
+        assertEquals(50_005_000_000L, histogram.getTotalNanos());
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+    }
+
+    @Test
+    void testOperationOutcomes() {
+        ServiceMetrics metrics = new ServiceMetrics();
+        // Registered before any service looks them up, so exporters can enumerate them
+        assertEquals(6, metrics.getOperations().size());
+        OperationMetrics deposits = metrics.operation(ServiceMetrics.DEPOSIT);
+        assertSame(deposits, metrics.operation(ServiceMetrics.DEPOSIT));
+
+        deposits.success(deposits.start());
+        deposits.failure(deposits.start(), new InsufficientFundsException("Insufficient funds"));
+        deposits.failure(deposits.start(), new InvalidAccountException("Account not found"));
+        deposits.failure(deposits.start(), new IllegalArgumentException("Amount must be positive"));
+
+        assertEquals(4, deposits.getCount());
+        assertEquals(4, deposits.getLatency().getCount());
+        for (Outcome outcome : Outcome.values()) {
+            assertEquals(1, deposits.getCount(outcome), outcome.name());
+        }
+        assertNotNull(metrics.getLockWaits());
+
+        OperationMetrics disabled = ServiceMetrics.disabled().operation(ServiceMetrics.DEPOSIT);
+        disabled.success(disabled.start());
+        assertEquals(0, disabled.getCount());
+        assertNull(ServiceMetrics.disabled().getLockWaits());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16, "Expected about " + expected
+                + " but was " + actual);
+    }
+}
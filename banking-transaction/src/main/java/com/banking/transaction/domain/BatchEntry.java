@@ -0,0 +1,62 @@
+package com.banking.transaction.domain;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+
+/**
+ * One deposit, withdrawal or transfer submitted as part of a batch.
+ */
+public class BatchEntry {
+    private final TransactionType type;
+    private final String accountId;
+    private final String relatedAccountId;
+    private final Money amount;
+    private final String description;
+
+    private BatchEntry(TransactionType type, String accountId, String relatedAccountId, Money amount,
+                       String description) {
+        this.type = type;
+        this.accountId = accountId;
+        this.relatedAccountId = relatedAccountId;
+        this.amount = amount;
+        this.description = description;
+    }
+
+    public static BatchEntry deposit(String accountId, Money amount, String description) {
+        return new BatchEntry(TransactionType.DEPOSIT, accountId, null, amount, description);
+    }
+
+    public static BatchEntry withdrawal(String accountId, Money amount, String description) {
+        return new BatchEntry(TransactionType.WITHDRAWAL, accountId, null, amount, description);
+    }
+
+    public static BatchEntry transfer(String fromAccountId, String toAccountId, Money amount, String description) {
+        return new BatchEntry(TransactionType.TRANSFER, fromAccountId, toAccountId, amount, description);
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    /**
+     * The account debited or credited; the source account of a transfer.
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * The destination account of a transfer, otherwise {@code null}.
+     */
+    public String getRelatedAccountId() {
+        return relatedAccountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,44 @@
+package com.banking.transaction.domain;
+
+/**
+ * Outcome of one {@link BatchEntry}: the recorded transaction if it was
+ * applied, or the reason it was rejected.
+ */
+public class BatchResult {
+    private final int index;
+    private final Transaction transaction;
+    private final String error;
+
+    private BatchResult(int index, Transaction transaction, String error) {
+        this.index = index;
+        this.transaction = transaction;
+        this.error = error;
+    }
+
+    public static BatchResult applied(int index, Transaction transaction) {
+        return new BatchResult(index, transaction, null);
+    }
+
+    public static BatchResult rejected(int index, String error) {
+        return new BatchResult(index, null, error);
+    }
+
+    /**
+     * Position of the entry in the submitted batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isApplied() {
+        return transaction != null;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
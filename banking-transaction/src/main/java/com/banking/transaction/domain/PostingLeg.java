@@ -0,0 +1,38 @@
+package com.banking.transaction.domain;
+
+import com.banking.core.domain.Money;
+
+/**
+ * One debit or credit of a multi-leg posting.
+ */
+public class PostingLeg {
+    private final String accountId;
+    private final Money amount;
+    private final boolean debit;
+
+    private PostingLeg(String accountId, Money amount, boolean debit) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.debit = debit;
+    }
+
+    public static PostingLeg debit(String accountId, Money amount) {
+        return new PostingLeg(accountId, amount, true);
+    }
+
+    public static PostingLeg credit(String accountId, Money amount) {
+        return new PostingLeg(accountId, amount, false);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public boolean isDebit() {
+        return debit;
+    }
+}
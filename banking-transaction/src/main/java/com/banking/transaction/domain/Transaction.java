@@ -2,15 +2,21 @@ package com.banking.transaction.domain;
 
 import com.banking.core.domain.Money;
 import com.banking.core.domain.TransactionType;
+import com.banking.core.id.IdGenerators;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Represents a banking transaction.
  */
 public class Transaction {
+    /**
+     * Longest description a new transaction accepts. The journal stores it as
+     * modified UTF-8 in at most 65,535 bytes, which this always fits.
+     */
+    public static final int MAX_DESCRIPTION_LENGTH = 4096;
+
     private final String transactionId;
     private final String accountId;
     private final TransactionType type;
@@ -29,8 +35,11 @@ public class Transaction {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description cannot exceed " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
         
-        this.transactionId = UUID.randomUUID().toString();
+        this.transactionId = IdGenerators.nextId();
         this.accountId = accountId;
         this.type = type;
         this.amount = amount;
@@ -43,6 +52,17 @@ public class Transaction {
         this.relatedAccountId = relatedAccountId;
     }
 
+    public Transaction(String transactionId, String accountId, TransactionType type, Money amount,
+                       LocalDateTime timestamp, String description, String relatedAccountId) {
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.description = description != null ? description : "";
+        this.relatedAccountId = relatedAccountId;
+    }
+
     public String getTransactionId() {
         return transactionId;
     }
@@ -0,0 +1,32 @@
+package com.banking.transaction.domain;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of an account's transaction history, newest first.
+ */
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final String nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, String nextCursor) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Opaque cursor for the next (older) page, or {@code null} when this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,187 @@
+package com.banking.transaction.history;
+
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Append-only, time-ordered transaction history of a single account.
+ * Each entry gets the next per-account sequence number, so sequence order is
+ * commit order. Appends must be serialized by the account's stripe lock; reads
+ * are lock-free and may run concurrently with appends.
+ * <p>
+ * The first entry of each day also records a checkpoint: the account's balance
+ * when the previous day closed. A point-in-time balance then starts from the
+ * checkpoint of that day (or the last active day before it) and replays at most
+ * one day of entries, however long the history is.
+ * <p>
+ * Balances are only known from the point the history covers: the account's
+ * opening if the history holds every transaction since, or otherwise (an
+ * account restored from a snapshot or an off-heap store) the first entry with a
+ * known balance. Earlier times get no answer.
+ */
+public class AccountHistory {
+    private final ConcurrentSkipListMap<Long, Transaction> entries = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<LocalDate, Checkpoint> checkpoints = new ConcurrentSkipListMap<>();
+    private volatile LocalDateTime coversFrom;
+    private long lastSequence;
+    private LocalDate lastDay;
+
+    /**
+     * History of an account whose earlier state is unknown; it covers times from
+     * its first checkpoint on.
+     */
+    public AccountHistory() {
+        this(null);
+    }
+
+    /**
+     * @param openedAt when the account was opened, if the history will hold every
+     *                 transaction since; {@code null} if unknown
+     */
+    public AccountHistory(LocalDateTime openedAt) {
+        this.coversFrom = openedAt;
+    }
+
+    /**
+     * Appends a transaction whose effect on the account is already applied.
+     *
+     * @param balanceAfter the account's balance right after this transaction,
+     *                     or {@code null} if unknown (a replayed transaction the
+     *                     account's restored state already includes); the day's
+     *                     checkpoint is then skipped
+     */
+    public long append(String accountId, Transaction transaction, Money balanceAfter) {
+        long sequence = ++lastSequence;
+        entries.put(sequence, transaction);
+        LocalDate day = transaction.getTimestamp().toLocalDate();
+        if (lastDay == null || day.isAfter(lastDay)) {
+            lastDay = day;
+            if (balanceAfter != null) {
+                BigDecimal before = balanceAfter.getAmount().subtract(change(accountId, transaction));
+                // Published after the entry, so a reader that sees the checkpoint also sees its entries
+                checkpoints.put(day, new Checkpoint(sequence, new Money(before, balanceAfter.getCurrency())));
+                if (coversFrom == null) {
+                    // Published after the checkpoint, which every covered time then has at or before it
+                    coversFrom = transaction.getTimestamp();
+                }
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Balance of the account at {@code at}: the closest checkpoint at or before it
+     * plus the entries recorded from there up to {@code at}. Times between the
+     * account's opening and the first entry get the balance before that entry.
+     * Returns {@code null} if {@code at} is before the time the history covers
+     * from, or if the history has no checkpoint to start from.
+     */
+    public Money balanceAt(String accountId, LocalDateTime at) {
+        LocalDateTime from = coversFrom;
+        if (from == null || at.isBefore(from)) {
+            return null;
+        }
+        Map.Entry<LocalDate, Checkpoint> floor = checkpoints.floorEntry(at.toLocalDate());
+        if (floor == null) {
+            // Only a history that starts at the account's opening covers times before its first checkpoint
+            Map.Entry<LocalDate, Checkpoint> first = checkpoints.firstEntry();
+            return first != null && first.getValue().sequence == entries.firstKey() ? first.getValue().balance : null;
+        }
+        Checkpoint checkpoint = floor.getValue();
+        BigDecimal balance = checkpoint.balance.getAmount();
+        for (Transaction transaction : entries.tailMap(checkpoint.sequence).values()) {
+            if (transaction.getTimestamp().isAfter(at)) {
+                break;
+            }
+            balance = balance.add(change(accountId, transaction));
+        }
+        return new Money(balance, checkpoint.balance.getCurrency());
+    }
+
+    /**
+     * Signed change a transaction made to the balance of {@code accountId}.
+     */
+    public static BigDecimal change(String accountId, Transaction transaction) {
+        BigDecimal amount = transaction.getAmount().getAmount();
+        switch (transaction.getType()) {
+            case DEPOSIT:
+            case INTEREST_CREDIT:
+                return amount;
+            case WITHDRAWAL:
+                return amount.negate();
+            case TRANSFER:
+                BigDecimal change = BigDecimal.ZERO;
+                if (accountId.equals(transaction.getAccountId())) {
+                    change = change.subtract(amount);
+                }
+                if (accountId.equals(transaction.getRelatedAccountId())) {
+                    change = change.add(amount);
+                }
+                return change;
+            default:
+                throw new IllegalStateException("Unsupported transaction type: " + transaction.getType());
+        }
+    }
+
+    /**
+     * Earliest time {@link #balanceAt} answers for, or {@code null} if none yet.
+     */
+    public LocalDateTime getCoversFrom() {
+        return coversFrom;
+    }
+
+    public List<Transaction> newestFirst() {
+        return new ArrayList<>(entries.descendingMap().values());
+    }
+
+    /**
+     * Returns up to {@code limit} transactions older than the cursor (or the newest
+     * ones when the cursor is {@code null}), seeking directly to the cursor position.
+     */
+    public TransactionPage page(HistoryCursor before, int limit) {
+        NavigableMap<Long, Transaction> older = entries.descendingMap();
+        if (before != null) {
+            Transaction anchor = entries.get(before.getSequence());
+            if (anchor == null || !anchor.getTransactionId().equals(before.getTransactionId())) {
+                throw new IllegalArgumentException("Cursor does not belong to this account history");
+            }
+            older = older.tailMap(before.getSequence(), false);
+        }
+        List<Transaction> page = new ArrayList<>(Math.min(limit, 64));
+        HistoryCursor last = null;
+        for (Map.Entry<Long, Transaction> entry : older.entrySet()) {
+            if (page.size() == limit) {
+                return new TransactionPage(page, last.encode());
+            }
+            page.add(entry.getValue());
+            last = new HistoryCursor(entry.getKey(), entry.getValue().getTransactionId());
+        }
+        return new TransactionPage(page, null);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Checkpoint {
+        // First entry of the checkpoint's day
+        final long sequence;
+        // Balance before that entry
+        final Money balance;
+
+        Checkpoint(long sequence, Money balance) {
+            this.sequence = sequence;
+            this.balance = balance;
+        }
+    }
+}
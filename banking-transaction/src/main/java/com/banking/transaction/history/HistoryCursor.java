@@ -0,0 +1,44 @@
+package com.banking.transaction.history;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position within an account history: the sequence number and ID of the
+ * last transaction a client has seen. Encoded as an opaque URL-safe token.
+ */
+public final class HistoryCursor {
+    private final long sequence;
+    private final String transactionId;
+
+    public HistoryCursor(long sequence, String transactionId) {
+        this.sequence = sequence;
+        this.transactionId = transactionId;
+    }
+
+    public static HistoryCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            return new HistoryCursor(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sequence + ":" + transactionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+}
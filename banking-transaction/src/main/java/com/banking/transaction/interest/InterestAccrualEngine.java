@@ -0,0 +1,357 @@
+package com.banking.transaction.interest;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountEngine;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.Journal;
+import com.banking.core.journal.JournalRecordType;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.TransactionJournalCodec;
+import com.banking.transaction.service.TransactionEngine;
+import com.banking.transaction.service.TransactionService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Period-end batch that credits interest to every interest-bearing account as
+ * {@code INTEREST_CREDIT} transactions.
+ * <p>
+ * A run walks the account shards in parallel on its own fork-join pool: each
+ * shard's accounts are streamed once, grouped into batches, and the batches
+ * are forked as tasks that call {@link TransactionEngine#creditInterest}. Every
+ * credit locks only its own account, for as long as it takes to compute and
+ * journal one transaction, so online traffic is never held behind a batch, and
+ * each batch waits once for durability. The pool defaults to half the
+ * processors, leaving the rest to online traffic.
+ * <p>
+ * Runs are restartable. A credit's transaction ID is derived from the run ID
+ * and the account, and accounts that already hold it are skipped, so running
+ * the same run ID again after a crash, failure or {@link #cancel()} credits
+ * only the accounts that were missed. With a state directory the engine also
+ * records where in the journal each run started and when it completed: a
+ * completed run is not walked again, and a resumed run first re-indexes its
+ * credits from the journal, since transactions older than a restored account
+ * snapshot are not reloaded into the in-memory store.
+ */
+public class InterestAccrualEngine implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final int MAGIC = 0x494E5452;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "interest-";
+    private static final String SUFFIX = ".run";
+    private static final Pattern RUN_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final AccountEngine accountEngine;
+    private final TransactionEngine transactionEngine;
+    private final Path stateDirectory;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private volatile boolean cancelled;
+
+    /**
+     * @param stateDirectory where run progress is recorded, or {@code null} to
+     *                       rely on the transaction store alone
+     */
+    public InterestAccrualEngine(AccountEngine accountEngine, TransactionEngine transactionEngine,
+                                 Path stateDirectory) {
+        this(accountEngine, transactionEngine, stateDirectory,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param parallelism worker threads of the run's fork-join pool
+     * @param batchSize   accounts credited per task and per durability wait
+     */
+    public InterestAccrualEngine(AccountEngine accountEngine, TransactionEngine transactionEngine,
+                                 Path stateDirectory, int parallelism, int batchSize) {
+        if (accountEngine == null) {
+            throw new IllegalArgumentException("AccountEngine cannot be null");
+        }
+        if (transactionEngine == null) {
+            throw new IllegalArgumentException("TransactionEngine cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.accountEngine = accountEngine;
+        this.transactionEngine = transactionEngine;
+        this.stateDirectory = stateDirectory;
+        this.pool = new ForkJoinPool(parallelism);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Credits interest for run {@code runId} (for example the month, {@code 2025-03})
+     * to every active account with a positive balance and a rate in {@code policy},
+     * and returns once every credit is durable or the run is cancelled. Calling it
+     * again with the same run ID resumes or, once complete, does nothing.
+     */
+    public synchronized InterestRunStats run(String runId, InterestPolicy policy) {
+        if (runId == null || !RUN_ID.matcher(runId).matches()) {
+            throw new IllegalArgumentException("Interest run ID must be 1-64 letters, digits, '.', '_' or '-'");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Interest policy cannot be null");
+        }
+        long start = System.nanoTime();
+        cancelled = false;
+        Journal journal = accountEngine.getJournal();
+        RunState state = readState(runId);
+        boolean resumed = state != null;
+        if (state == null) {
+            state = new RunState(journal == null ? 0 : journal.getAppendedPosition(), false);
+            writeState(runId, state);
+        } else if (state.complete) {
+            return new InterestRunStats(runId, 0, 0, true, true, System.nanoTime() - start);
+        } else {
+            indexEarlierCredits(journal, runId, state.startPosition);
+        }
+
+        LongAdder accounts = new LongAdder();
+        LongAdder credited = new LongAdder();
+        List<ShardTask> shards = new ArrayList<>();
+        for (AccountEngine shard : shardsOf(accountEngine)) {
+            shards.add(new ShardTask(shard, runId, policy, accounts, credited));
+        }
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(shards);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Let no batch of the failed run keep crediting behind the caller's back
+            cancelled = true;
+            pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        boolean complete = !cancelled;
+        if (complete) {
+            writeState(runId, new RunState(state.startPosition, true));
+        }
+        return new InterestRunStats(runId, accounts.sum(), credited.sum(), resumed, complete,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the run in progress after the batches already started; run it again to resume.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        pool.shutdown();
+    }
+
+    private static List<? extends AccountEngine> shardsOf(AccountEngine accountEngine) {
+        if (!(accountEngine instanceof ShardedAccountService)) {
+            return Collections.singletonList(accountEngine);
+        }
+        ShardedAccountService sharded = (ShardedAccountService) accountEngine;
+        List<AccountEngine> shards = new ArrayList<>(sharded.getShardCount());
+        for (int i = 0; i < sharded.getShardCount(); i++) {
+            shards.add(sharded.getShard(i));
+        }
+        return shards;
+    }
+
+    /**
+     * Makes the run's credits journaled before this process started retrievable
+     * again, so they are recognised and skipped. Credits already in the store
+     * (replayed after the last snapshot, or made by this process) are left alone.
+     * The others predate the restored state, so they are only indexed by ID:
+     * appending them to account histories now would put months-old entries
+     * after newer ones and count them again in point-in-time balances.
+     */
+    private void indexEarlierCredits(Journal journal, String runId, long startPosition) {
+        if (journal == null || startPosition >= journal.getRecoveredPosition()) {
+            return;
+        }
+        journal.replay(startPosition, (position, payload) -> {
+            if (JournalRecordType.of(payload) != JournalRecordType.TRANSACTION) {
+                return;
+            }
+            Transaction transaction = TransactionJournalCodec.decode(payload);
+            if (transaction.getType() == TransactionType.INTEREST_CREDIT
+                    && transaction.getTransactionId().equals(
+                            TransactionService.interestCreditId(runId, transaction.getAccountId()))
+                    && !isStored(transaction.getTransactionId())) {
+                transactionEngine.restoreIndex(transaction);
+            }
+        });
+    }
+
+    private boolean isStored(String transactionId) {
+        try {
+            transactionEngine.getTransaction(transactionId);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private RunState readState(String runId) {
+        if (stateDirectory == null) {
+            return null;
+        }
+        Path file = stateDirectory.resolve(PREFIX + runId + SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !runId.equals(in.readUTF())) {
+                throw new JournalException("Not an interest run state file: " + file);
+            }
+            return new RunState(in.readLong(), in.readBoolean());
+        } catch (IOException e) {
+            throw new JournalException("Cannot read interest run state " + file, e);
+        }
+    }
+
+    private void writeState(String runId, RunState state) {
+        if (stateDirectory == null) {
+            return;
+        }
+        Path target = stateDirectory.resolve(PREFIX + runId + SUFFIX);
+        Path temp = stateDirectory.resolve(PREFIX + runId + SUFFIX + ".tmp");
+        try {
+            Files.createDirectories(stateDirectory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(runId);
+                out.writeLong(state.startPosition);
+                out.writeBoolean(state.complete);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new JournalException("Cannot write interest run state " + target, e);
+        }
+    }
+
+    private static final class RunState {
+        final long startPosition;
+        final boolean complete;
+
+        RunState(long startPosition, boolean complete) {
+            this.startPosition = startPosition;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * Streams one shard's accounts and forks a {@link BatchTask} per batch of
+     * interest-bearing accounts, keeping a bounded number of batches in flight
+     * so a shard's account IDs are never all held at once.
+     */
+    private final class ShardTask extends RecursiveAction {
+        private final AccountEngine shard;
+        private final String runId;
+        private final InterestPolicy policy;
+        private final LongAdder accounts;
+        private final LongAdder credited;
+
+        ShardTask(AccountEngine shard, String runId, InterestPolicy policy, LongAdder accounts, LongAdder credited) {
+            this.shard = shard;
+            this.runId = runId;
+            this.policy = policy;
+            this.accounts = accounts;
+            this.credited = credited;
+        }
+
+        @Override
+        protected void compute() {
+            int maxPending = 2 * pool.getParallelism();
+            Deque<BatchTask> pending = new ArrayDeque<>();
+            List<String> batch = new ArrayList<>(batchSize);
+            try (Stream<Account> stream = shard.streamAllAccounts()) {
+                for (Iterator<Account> it = stream.iterator(); it.hasNext() && !cancelled; ) {
+                    Account account = it.next();
+                    if (!policy.appliesTo(account.getAccountType())) {
+                        continue;
+                    }
+                    batch.add(account.getAccountId());
+                    if (batch.size() == batchSize) {
+                        pending.add(fork(batch));
+                        batch = new ArrayList<>(batchSize);
+                        if (pending.size() > maxPending) {
+                            pending.poll().join();
+                        }
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                pending.add(fork(batch));
+            }
+            for (BatchTask task : pending) {
+                task.join();
+            }
+        }
+
+        private BatchTask fork(List<String> batch) {
+            BatchTask task = new BatchTask(batch, runId, policy, accounts, credited);
+            task.fork();
+            return task;
+        }
+    }
+
+    private final class BatchTask extends RecursiveAction {
+        private final List<String> accountIds;
+        private final String runId;
+        private final InterestPolicy policy;
+        private final LongAdder accounts;
+        private final LongAdder credited;
+
+        BatchTask(List<String> accountIds, String runId, InterestPolicy policy, LongAdder accounts,
+                  LongAdder credited) {
+            this.accountIds = accountIds;
+            this.runId = runId;
+            this.policy = policy;
+            this.accounts = accounts;
+            this.credited = credited;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            credited.add(transactionEngine.creditInterest(accountIds, runId, policy::interestOn).size());
+            accounts.add(accountIds.size());
+        }
+    }
+}
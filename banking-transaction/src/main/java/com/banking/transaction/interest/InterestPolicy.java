@@ -0,0 +1,92 @@
+package com.banking.transaction.interest;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.CurrencyUnit;
+import com.banking.core.domain.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Simple interest for one accrual period: the balance times the annual rate of
+ * the account's type times {@code days / 365}, rounded half-even to the
+ * currency's minor unit. Account types without a rate earn no interest.
+ */
+public class InterestPolicy {
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+    // Minor-unit scale for currency codes that are not ISO-4217
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+
+    private final Map<AccountType, BigDecimal> annualRates;
+    private final int days;
+    private final BigDecimal[] periodRates;
+
+    /**
+     * @param annualRates annual rate per account type, e.g. {@code 0.02} for 2%
+     * @param days        length of the accrual period in days
+     */
+    public InterestPolicy(Map<AccountType, BigDecimal> annualRates, int days) {
+        if (annualRates == null || annualRates.isEmpty()) {
+            throw new IllegalArgumentException("At least one interest rate is required");
+        }
+        if (days <= 0) {
+            throw new IllegalArgumentException("Accrual period must be positive");
+        }
+        this.annualRates = Collections.unmodifiableMap(new EnumMap<>(annualRates));
+        this.days = days;
+        this.periodRates = new BigDecimal[AccountType.values().length];
+        for (Map.Entry<AccountType, BigDecimal> rate : this.annualRates.entrySet()) {
+            if (rate.getValue() == null || rate.getValue().signum() < 0) {
+                throw new IllegalArgumentException("Interest rate for " + rate.getKey() + " cannot be negative");
+            }
+            periodRates[rate.getKey().ordinal()] = rate.getValue().multiply(BigDecimal.valueOf(days));
+        }
+    }
+
+    /**
+     * Policy accruing over every day of {@code month}.
+     */
+    public static InterestPolicy forMonth(YearMonth month, Map<AccountType, BigDecimal> annualRates) {
+        return new InterestPolicy(annualRates, month.lengthOfMonth());
+    }
+
+    public boolean appliesTo(AccountType accountType) {
+        return periodRates[accountType.ordinal()] != null;
+    }
+
+    /**
+     * Interest earned by the account's current balance over the period, or
+     * {@code null} if it earns none (no rate, or a balance that is not positive).
+     */
+    public Money interestOn(Account account) {
+        BigDecimal periodRate = periodRates[account.getAccountType().ordinal()];
+        Money balance = account.getBalance();
+        if (periodRate == null || balance.getAmount().signum() <= 0) {
+            return null;
+        }
+        BigDecimal interest = balance.getAmount().multiply(periodRate)
+                .divide(DAYS_PER_YEAR, fractionDigitsOf(balance.getCurrency()), RoundingMode.HALF_EVEN);
+        return interest.signum() > 0 ? new Money(interest, balance.getCurrency()) : null;
+    }
+
+    public Map<AccountType, BigDecimal> getAnnualRates() {
+        return annualRates;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    private static int fractionDigitsOf(String currency) {
+        try {
+            return CurrencyUnit.of(currency).getFractionDigits();
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_FRACTION_DIGITS;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.banking.transaction.interest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one invocation of {@link InterestAccrualEngine#run}.
+ */
+public class InterestRunStats {
+    private final String runId;
+    private final long accountCount;
+    private final long creditedCount;
+    private final boolean resumed;
+    private final boolean complete;
+    private final long durationNanos;
+
+    public InterestRunStats(String runId, long accountCount, long creditedCount, boolean resumed, boolean complete,
+                            long durationNanos) {
+        this.runId = runId;
+        this.accountCount = accountCount;
+        this.creditedCount = creditedCount;
+        this.resumed = resumed;
+        this.complete = complete;
+        this.durationNanos = durationNanos;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Accounts of an interest-bearing type visited by this invocation.
+     */
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    /**
+     * Accounts credited by this invocation; accounts credited before an
+     * interruption are not counted again when the run resumes.
+     */
+    public long getCreditedCount() {
+        return creditedCount;
+    }
+
+    /**
+     * Whether this invocation continued a run that an earlier one started.
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Whether every account has been visited; {@code false} if the run was cancelled.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InterestRunStats{runId=%s, accounts=%d, credited=%d, resumed=%b, complete=%b, millis=%d}",
+                runId, accountCount, creditedCount, resumed, complete, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+}
@@ -0,0 +1,92 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.journal.AccountJournalCodec;
+import com.banking.account.service.AccountEngine;
+import com.banking.core.exception.JournalException;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.journal.Journal;
+import com.banking.core.journal.JournalRecordType;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionEngine;
+
+import java.util.List;
+
+/**
+ * Rebuilds accounts and transactions by replaying the ledger journal into the
+ * services, either from the start or on top of a restored account snapshot.
+ * Must run before the services accept any traffic. Replayed transaction IDs
+ * are passed to {@link IdGenerators#advancePast(String)} (account IDs are by
+ * the account service as it restores them), so none is issued again.
+ */
+public final class JournalRecovery {
+
+    private JournalRecovery() {
+    }
+
+    /**
+     * Replays every record in the journal and returns the number of records applied.
+     */
+    public static long recover(Journal journal, AccountEngine accountEngine, TransactionEngine transactionEngine) {
+        return recover(journal, accountEngine, transactionEngine, 0);
+    }
+
+    /**
+     * Replays the journal tail starting at {@code fromPosition} (the position recorded
+     * in a restored snapshot) and returns the number of records read. Records already
+     * reflected in a restored account are skipped for that account. Transactions older
+     * than the snapshot are not reloaded into the in-memory history.
+     */
+    public static long recover(Journal journal, AccountEngine accountEngine, TransactionEngine transactionEngine,
+                               long fromPosition) {
+        long[] applied = new long[1];
+        journal.replay(fromPosition, (position, payload) -> {
+            try {
+                apply(position, payload, accountEngine, transactionEngine);
+            } catch (RuntimeException e) {
+                throw new JournalException("Cannot replay journal record ending at " + position, e);
+            }
+            applied[0]++;
+        });
+        return applied[0];
+    }
+
+    private static void apply(long position, byte[] payload, AccountEngine accountEngine,
+                              TransactionEngine transactionEngine) {
+        switch (JournalRecordType.of(payload)) {
+            case ACCOUNT_OPENED:
+                Account opened = AccountJournalCodec.decodeOpened(payload, accountEngine.getBalanceMode());
+                if (!accountEngine.accountExists(opened.getAccountId())) {
+                    opened.setJournalPosition(position);
+                    accountEngine.restoreAccount(opened);
+                }
+                break;
+            case ACCOUNT_ACTIVATED:
+            case ACCOUNT_DEACTIVATED:
+                Account account = accountEngine.getAccount(AccountJournalCodec.decodeStatusAccountId(payload));
+                if (position > account.getJournalPosition()) {
+                    if (JournalRecordType.of(payload) == JournalRecordType.ACCOUNT_ACTIVATED) {
+                        account.activate();
+                    } else {
+                        account.deactivate();
+                    }
+                    account.setJournalPosition(position);
+                }
+                break;
+            case TRANSACTION:
+                Transaction transaction = TransactionJournalCodec.decode(payload);
+                IdGenerators.advancePast(transaction.getTransactionId());
+                transactionEngine.restoreTransaction(transaction, position);
+                break;
+            case POSTING:
+                List<Transaction> posting = TransactionJournalCodec.decodePosting(payload);
+                for (Transaction leg : posting) {
+                    IdGenerators.advancePast(leg.getTransactionId());
+                }
+                transactionEngine.restorePosting(posting, position);
+                break;
+            default:
+                throw new JournalException("Unsupported journal record type");
+        }
+    }
+}
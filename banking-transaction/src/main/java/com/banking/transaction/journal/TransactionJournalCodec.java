@@ -0,0 +1,107 @@
+package com.banking.transaction.journal;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.JournalRecordType;
+import com.banking.transaction.domain.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of transaction records in the ledger journal.
+ */
+public final class TransactionJournalCodec {
+
+    private TransactionJournalCodec() {
+    }
+
+    public static byte[] encode(Transaction transaction) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(JournalRecordType.TRANSACTION.code());
+            writeTransaction(out, transaction);
+        } catch (IOException e) {
+            throw new JournalException("Cannot encode transaction " + transaction.getTransactionId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the transactions of one multi-leg posting as a single record, so
+     * recovery sees either all of its legs or none of them.
+     */
+    public static byte[] encodePosting(List<Transaction> transactions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160 * transactions.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(JournalRecordType.POSTING.code());
+            out.writeInt(transactions.size());
+            for (Transaction transaction : transactions) {
+                writeTransaction(out, transaction);
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot encode posting", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Transaction decode(byte[] payload) {
+        if (JournalRecordType.of(payload) != JournalRecordType.TRANSACTION) {
+            throw new JournalException("Expected " + JournalRecordType.TRANSACTION + " record");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+            return readTransaction(in);
+        } catch (IOException e) {
+            throw new JournalException("Corrupt transaction record", e);
+        }
+    }
+
+    public static List<Transaction> decodePosting(byte[] payload) {
+        if (JournalRecordType.of(payload) != JournalRecordType.POSTING) {
+            throw new JournalException("Expected " + JournalRecordType.POSTING + " record");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 1, payload.length - 1))) {
+            int count = in.readInt();
+            List<Transaction> transactions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                transactions.add(readTransaction(in));
+            }
+            return transactions;
+        } catch (IOException e) {
+            throw new JournalException("Corrupt posting record", e);
+        }
+    }
+
+    private static void writeTransaction(DataOutputStream out, Transaction transaction) throws IOException {
+        out.writeUTF(transaction.getTransactionId());
+        out.writeUTF(transaction.getType().name());
+        out.writeUTF(transaction.getAccountId());
+        out.writeBoolean(transaction.getRelatedAccountId() != null);
+        if (transaction.getRelatedAccountId() != null) {
+            out.writeUTF(transaction.getRelatedAccountId());
+        }
+        out.writeUTF(transaction.getAmount().getAmount().toPlainString());
+        out.writeUTF(transaction.getAmount().getCurrency());
+        out.writeUTF(transaction.getTimestamp().toString());
+        out.writeUTF(transaction.getDescription());
+    }
+
+    private static Transaction readTransaction(DataInputStream in) throws IOException {
+        String transactionId = in.readUTF();
+        TransactionType type = TransactionType.valueOf(in.readUTF());
+        String accountId = in.readUTF();
+        String relatedAccountId = in.readBoolean() ? in.readUTF() : null;
+        Money amount = new Money(new BigDecimal(in.readUTF()), in.readUTF());
+        LocalDateTime timestamp = LocalDateTime.parse(in.readUTF());
+        String description = in.readUTF();
+        return new Transaction(transactionId, accountId, type, amount, timestamp, description, relatedAccountId);
+    }
+}
@@ -0,0 +1,704 @@
+package com.banking.transaction.log;
+
+import com.banking.core.domain.Money;
+import com.banking.core.exception.JournalException;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.transaction.domain.Transaction;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, memory-mapped log of transactions stored column by column, so
+ * statements and time-range scans read each column sequentially and allocate
+ * nothing per record.
+ * <p>
+ * Records are kept in fixed-capacity segment files. Within a segment every
+ * column is a contiguous array: timestamp (nanoseconds, UTC wall clock),
+ * amount (unscaled value and scale), journal position, transaction ID,
+ * description, account index, related account index, currency index and
+ * type. Account IDs and currency codes are interned once in a symbol table and
+ * referenced by dense index; descriptions, and transaction IDs that are not
+ * {@link TimeOrderedIdGenerator} IDs, are kept in a separate string heap.
+ * Each block of {@value #BLOCK_SIZE} records carries its minimum and maximum
+ * timestamp, so range scans skip blocks outside the range, and an in-memory
+ * index lists the blocks holding each account's records, so a statement reads
+ * only those blocks instead of the whole log. Both are rebuilt when the log is
+ * opened.
+ * <p>
+ * Appends are serialized by this log's monitor; scans are lock-free and see
+ * every record appended before they started. The log is not fsynced per
+ * append: the journal stays the source of truth. Each record carries the
+ * position of the journal record it came from, so on startup
+ * {@link #truncateAfter(long)} drops records whose journal record never became
+ * durable and replay uses {@link #contains(long)} to append only what is
+ * missing.
+ */
+public class ColumnarTransactionLog implements AutoCloseable {
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+    public static final int DEFAULT_HEAP_SEGMENT_BYTES = 1 << 26;
+    public static final int BLOCK_SIZE = 4096;
+
+    static final int NO_ACCOUNT = -1;
+    static final long NO_STRING = -1;
+
+    private static final int MAGIC = 0x42544C47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORDS_PER_SEGMENT = 8;
+    private static final int HEADER_HEAP_SEGMENT_BYTES = 12;
+    private static final int HEADER_RECORD_COUNT = 16;
+    private static final int HEADER_HEAP_POSITION = 24;
+
+    // Column start within a segment, in bytes per record of capacity
+    static final int TIMESTAMP = 0;
+    static final int AMOUNT = 8;
+    static final int JOURNAL_POSITION = 16;
+    static final int TRANSACTION_ID = 24;
+    static final int DESCRIPTION = 32;
+    static final int ACCOUNT = 40;
+    static final int RELATED_ACCOUNT = 44;
+    static final int CURRENCY = 48;
+    static final int TYPE = 52;
+    static final int SCALE = 53;
+    static final int RECORD_WIDTH = 54;
+
+    // Journal positions kept for replay deduplication; far more than can be in flight at once
+    private static final int RECOVERY_TAIL = 1 << 16;
+
+    private final Path directory;
+    private final ByteBuffer header;
+    private final FileChannel headerChannel;
+    private final FileChannel symbolChannel;
+    private final int recordsPerSegment;
+    private final int segmentShift;
+    private final int heapSegmentBytes;
+
+    // Published by the volatile write of recordCount after the records they cover are written
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    private volatile ByteBuffer[] heapSegments = new ByteBuffer[0];
+    private volatile String[] symbols = new String[64];
+    private volatile long[] blockMinTimestamps = new long[16];
+    private volatile long[] blockMaxTimestamps = new long[16];
+    // Indexed by account symbol; null for symbols that are not accounts
+    private volatile BlockList[] accountBlocks = new BlockList[64];
+    private volatile long recordCount;
+    private final Map<String, Integer> symbolIndex = new ConcurrentHashMap<>();
+    private int symbolCount;
+    private long heapPosition;
+    private Set<Long> recoveredPositions = Collections.emptySet();
+    private long recoveredMinPosition;
+    private boolean recoveredAll;
+    private boolean closed;
+
+    /**
+     * Opens (or creates) a log in {@code directory}.
+     */
+    public ColumnarTransactionLog(Path directory) {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT, DEFAULT_HEAP_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param recordsPerSegment records per segment file (power of two, at least
+     *                          {@value #BLOCK_SIZE}); an existing log keeps the
+     *                          sizes it was created with
+     * @param heapSegmentBytes  bytes per string heap file; bounds the longest description
+     */
+    public ColumnarTransactionLog(Path directory, int recordsPerSegment, int heapSegmentBytes) {
+        if (recordsPerSegment < BLOCK_SIZE || Integer.bitCount(recordsPerSegment) != 1) {
+            throw new IllegalArgumentException("Records per segment must be a power of two of at least " + BLOCK_SIZE);
+        }
+        if ((long) recordsPerSegment * RECORD_WIDTH > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment of " + recordsPerSegment + " records exceeds 2 GB");
+        }
+        if (heapSegmentBytes < 1024) {
+            throw new IllegalArgumentException("Heap segment must be at least 1 KB");
+        }
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            this.headerChannel = FileChannel.open(directory.resolve("log.header"), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean existing = headerChannel.size() >= HEADER_SIZE;
+            this.header = headerChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (existing) {
+                if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != VERSION) {
+                    throw new JournalException("Not a transaction log: " + directory);
+                }
+            } else {
+                header.putInt(HEADER_MAGIC, MAGIC);
+                header.putInt(HEADER_VERSION, VERSION);
+                header.putInt(HEADER_RECORDS_PER_SEGMENT, recordsPerSegment);
+                header.putInt(HEADER_HEAP_SEGMENT_BYTES, heapSegmentBytes);
+                header.putLong(HEADER_RECORD_COUNT, 0);
+                header.putLong(HEADER_HEAP_POSITION, 0);
+            }
+            this.recordsPerSegment = header.getInt(HEADER_RECORDS_PER_SEGMENT);
+            this.segmentShift = Integer.numberOfTrailingZeros(this.recordsPerSegment);
+            this.heapSegmentBytes = header.getInt(HEADER_HEAP_SEGMENT_BYTES);
+            this.symbolChannel = FileChannel.open(directory.resolve("symbols.dat"), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            loadSymbols();
+            reload();
+        } catch (IOException e) {
+            throw new JournalException("Cannot open transaction log " + directory, e);
+        }
+    }
+
+    /**
+     * Appends one transaction recorded at journal {@code position}.
+     */
+    public void append(Transaction transaction, long position) {
+        appendAll(Collections.singletonList(transaction), position);
+    }
+
+    /**
+     * Appends the transactions of one journal record; they become visible to
+     * scans, and to a reopened log, together.
+     */
+    public synchronized void appendAll(List<Transaction> transactions, long position) {
+        if (closed) {
+            throw new IllegalStateException("Transaction log is closed");
+        }
+        long record = recordCount;
+        for (Transaction transaction : transactions) {
+            write(record++, transaction, position);
+        }
+        header.putLong(HEADER_RECORD_COUNT, record);
+        header.putLong(HEADER_HEAP_POSITION, heapPosition);
+        recordCount = record;
+    }
+
+    /**
+     * Whether the record at journal {@code position} was already in this log
+     * when it was opened, so replay must not append it again.
+     */
+    public synchronized boolean contains(long position) {
+        if (recoveredAll) {
+            return recoveredPositions.contains(position);
+        }
+        // Appends follow journal order except among concurrently committing writers
+        return position < recoveredMinPosition || recoveredPositions.contains(position);
+    }
+
+    /**
+     * Drops the records that follow the first one whose journal record ends
+     * beyond {@code durablePosition}; replay appends back any of them that the
+     * journal does hold. Call once on startup, before replay.
+     */
+    public synchronized void truncateAfter(long durablePosition) {
+        long count = recordCount;
+        long first = Math.max(0, count - RECOVERY_TAIL);
+        long keep = count;
+        for (long record = count - 1; record >= first; record--) {
+            if (segmentOf(record).getLong(offset(record, JOURNAL_POSITION, 8)) > durablePosition) {
+                keep = record;
+            }
+        }
+        if (keep == count) {
+            return;
+        }
+        header.putLong(HEADER_RECORD_COUNT, keep);
+        recordCount = keep;
+        for (BlockList blocks : accountBlocks) {
+            if (blocks != null) {
+                blocks.truncate(keep);
+            }
+        }
+        if (keep % BLOCK_SIZE != 0) {
+            recomputeBlock(keep / BLOCK_SIZE, keep);
+        }
+        loadRecoveredPositions();
+    }
+
+    /**
+     * Visits, oldest first, the records with a timestamp in {@code [from, to)};
+     * either bound may be {@code null}. The visitor is handed the same
+     * {@link LogRecord} positioned on each match in turn. Returns the number of
+     * records visited.
+     */
+    public long scan(LocalDateTime from, LocalDateTime to, RecordVisitor visitor) {
+        return scan(NO_ACCOUNT, from, to, visitor);
+    }
+
+    /**
+     * Visits, oldest first, the records in {@code [from, to)} that debit or
+     * credit {@code accountId}: the account's statement.
+     */
+    public long scanAccount(String accountId, LocalDateTime from, LocalDateTime to, RecordVisitor visitor) {
+        Integer account = symbolIndex.get(accountId);
+        return account == null ? 0 : scan(account, from, to, visitor);
+    }
+
+    /**
+     * Number of blocks a statement of {@code accountId} reads.
+     */
+    int accountBlockCount(String accountId) {
+        Integer account = symbolIndex.get(accountId);
+        BlockList blocks = account == null ? null : blocksOf(account);
+        return blocks == null ? 0 : blocks.size;
+    }
+
+    /**
+     * Positions {@code record} on record number {@code index} (in append order).
+     */
+    public LogRecord read(long index, LogRecord record) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("No record " + index);
+        }
+        record.moveTo(index);
+        return record;
+    }
+
+    /**
+     * Returns a reusable record for {@link #read(long, LogRecord)}.
+     */
+    public LogRecord newRecord() {
+        return new LogRecord(this);
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Flushes every mapped file; the log may be reopened afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (ByteBuffer segment : segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+            for (ByteBuffer segment : heapSegments) {
+                ((MappedByteBuffer) segment).force();
+            }
+            ((MappedByteBuffer) header).force();
+            symbolChannel.force(true);
+            symbolChannel.close();
+            headerChannel.close();
+        } catch (IOException e) {
+            throw new JournalException("Cannot close transaction log " + directory, e);
+        }
+    }
+
+    private long scan(int account, LocalDateTime from, LocalDateTime to, RecordVisitor visitor) {
+        // Block bounds and the account index cover at least the records counted here
+        long count = recordCount;
+        long fromNanos = from == null ? Long.MIN_VALUE : toNanos(from);
+        long toNanos = to == null ? Long.MAX_VALUE : toNanos(to);
+        LogRecord cursor = new LogRecord(this);
+        long visited = 0;
+        if (account == NO_ACCOUNT) {
+            for (long block = 0; block * BLOCK_SIZE < count; block++) {
+                visited += scanBlock(block, count, NO_ACCOUNT, fromNanos, toNanos, cursor, visitor);
+            }
+            return visited;
+        }
+        BlockList blocks = blocksOf(account);
+        if (blocks == null) {
+            return 0;
+        }
+        // Size before the array, so the array read holds at least that many blocks
+        int size = blocks.size;
+        int[] list = blocks.blocks;
+        for (int i = 0; i < size && (long) list[i] * BLOCK_SIZE < count; i++) {
+            visited += scanBlock(list[i], count, account, fromNanos, toNanos, cursor, visitor);
+        }
+        return visited;
+    }
+
+    private long scanBlock(long block, long count, int account, long fromNanos, long toNanos, LogRecord cursor,
+                           RecordVisitor visitor) {
+        long[] minimums = blockMinTimestamps;
+        long[] maximums = blockMaxTimestamps;
+        long start = block * BLOCK_SIZE;
+        long end = Math.min(count, start + BLOCK_SIZE);
+        // Bounds of the block being appended to may still be moving
+        if (end - start == BLOCK_SIZE && block < minimums.length
+                && (minimums[(int) block] >= toNanos || maximums[(int) block] < fromNanos)) {
+            return 0;
+        }
+        ByteBuffer segment = segments[(int) (start >>> segmentShift)];
+        int timestamps = recordsPerSegment * TIMESTAMP;
+        int accounts = recordsPerSegment * ACCOUNT;
+        int related = recordsPerSegment * RELATED_ACCOUNT;
+        long visited = 0;
+        for (long record = start; record < end; record++) {
+            int slot = slotOf(record);
+            long timestamp = segment.getLong(timestamps + slot * 8);
+            if (timestamp < fromNanos || timestamp >= toNanos) {
+                continue;
+            }
+            if (account != NO_ACCOUNT && segment.getInt(accounts + slot * 4) != account
+                    && segment.getInt(related + slot * 4) != account) {
+                continue;
+            }
+            cursor.moveTo(record);
+            visitor.visit(cursor);
+            visited++;
+        }
+        return visited;
+    }
+
+    private void write(long record, Transaction transaction, long position) {
+        ensureSegment((int) (record >>> segmentShift));
+        ByteBuffer segment = segments[(int) (record >>> segmentShift)];
+        int slot = slotOf(record);
+        BigDecimal amount = normalize(transaction.getAmount());
+        long timestamp = toNanos(transaction.getTimestamp());
+        String relatedAccountId = transaction.getRelatedAccountId();
+        int account = symbol(transaction.getAccountId());
+        int related = relatedAccountId == null ? NO_ACCOUNT : symbol(relatedAccountId);
+
+        segment.putLong(recordsPerSegment * TIMESTAMP + slot * 8, timestamp);
+        segment.putLong(recordsPerSegment * AMOUNT + slot * 8, amount.unscaledValue().longValue());
+        segment.putLong(recordsPerSegment * JOURNAL_POSITION + slot * 8, position);
+        segment.putLong(recordsPerSegment * TRANSACTION_ID + slot * 8, transactionKey(transaction.getTransactionId()));
+        segment.putLong(recordsPerSegment * DESCRIPTION + slot * 8,
+                transaction.getDescription() == null ? NO_STRING : putString(transaction.getDescription()));
+        segment.putInt(recordsPerSegment * ACCOUNT + slot * 4, account);
+        segment.putInt(recordsPerSegment * RELATED_ACCOUNT + slot * 4, related);
+        segment.putInt(recordsPerSegment * CURRENCY + slot * 4, symbol(transaction.getAmount().getCurrency()));
+        segment.put(recordsPerSegment * TYPE + slot, (byte) transaction.getType().ordinal());
+        segment.put(recordsPerSegment * SCALE + slot, (byte) amount.scale());
+        includeInBlock(record, timestamp, account, related);
+    }
+
+    /**
+     * Rescales an amount so its unscaled value fits a {@code long} and its scale a byte.
+     */
+    private static BigDecimal normalize(Money money) {
+        BigDecimal amount = money.getAmount();
+        if (amount.scale() < 0) {
+            amount = amount.setScale(0);
+        }
+        if (amount.unscaledValue().bitLength() > 63 || amount.scale() > Byte.MAX_VALUE) {
+            amount = amount.stripTrailingZeros();
+            if (amount.scale() < 0) {
+                amount = amount.setScale(0);
+            }
+        }
+        if (amount.unscaledValue().bitLength() > 63 || amount.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount " + money + " cannot be stored in the transaction log");
+        }
+        return amount;
+    }
+
+    /**
+     * Numeric value of a time-ordered transaction ID, or the negated heap
+     * offset (minus one) of any other ID.
+     */
+    private long transactionKey(String transactionId) {
+        // 13 base32 characters carry 65 bits; the first must leave the top two clear
+        if (transactionId.length() == 13 && transactionId.charAt(0) <= '7') {
+            try {
+                return TimeOrderedIdGenerator.decode(transactionId);
+            } catch (IllegalArgumentException e) {
+                // Not time-ordered after all; kept in the heap below
+            }
+        }
+        return -putString(transactionId) - 1;
+    }
+
+    private void includeInBlock(long record, long timestamp, int account, int related) {
+        int block = (int) (record / BLOCK_SIZE);
+        indexAccount(account, block);
+        if (related != NO_ACCOUNT) {
+            indexAccount(related, block);
+        }
+        long[] minimums = blockMinTimestamps;
+        long[] maximums = blockMaxTimestamps;
+        if (block >= minimums.length) {
+            minimums = Arrays.copyOf(minimums, minimums.length * 2);
+            maximums = Arrays.copyOf(maximums, maximums.length * 2);
+        }
+        if (record % BLOCK_SIZE == 0) {
+            minimums[block] = timestamp;
+            maximums[block] = timestamp;
+        } else {
+            minimums[block] = Math.min(minimums[block], timestamp);
+            maximums[block] = Math.max(maximums[block], timestamp);
+        }
+        blockMinTimestamps = minimums;
+        blockMaxTimestamps = maximums;
+    }
+
+    private void indexAccount(int account, int block) {
+        BlockList[] current = accountBlocks;
+        if (account >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, account + 1));
+            accountBlocks = current;
+        }
+        BlockList blocks = current[account];
+        if (blocks == null) {
+            blocks = new BlockList();
+            current[account] = blocks;
+            // Republished so scans that see the new entry see the list
+            accountBlocks = current;
+        }
+        blocks.add(block);
+    }
+
+    private BlockList blocksOf(int account) {
+        BlockList[] current = accountBlocks;
+        return account < current.length ? current[account] : null;
+    }
+
+    private void recomputeBlock(long block, long end) {
+        for (long record = block * BLOCK_SIZE; record < end; record++) {
+            includeRecord(record);
+        }
+    }
+
+    private void includeRecord(long record) {
+        ByteBuffer segment = segmentOf(record);
+        includeInBlock(record, segment.getLong(offset(record, TIMESTAMP, 8)),
+                segment.getInt(offset(record, ACCOUNT, 4)), segment.getInt(offset(record, RELATED_ACCOUNT, 4)));
+    }
+
+    private int symbol(String value) {
+        Integer index = symbolIndex.get(value);
+        if (index != null) {
+            return index;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(4 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putInt(bytes.length).put(bytes).flip();
+        try {
+            while (entry.hasRemaining()) {
+                symbolChannel.write(entry, symbolChannel.size());
+            }
+        } catch (IOException e) {
+            throw new JournalException("Cannot write transaction log symbols in " + directory, e);
+        }
+        return intern(value);
+    }
+
+    private int intern(String value) {
+        String[] current = symbols;
+        if (symbolCount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        int index = symbolCount++;
+        current[index] = value;
+        symbols = current;
+        symbolIndex.put(value, index);
+        return index;
+    }
+
+    private long putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = 4 + bytes.length;
+        if (size > heapSegmentBytes) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes exceeds the transaction log heap segment");
+        }
+        // Strings never span heap segments
+        if (heapPosition % heapSegmentBytes + size > heapSegmentBytes) {
+            heapPosition += heapSegmentBytes - heapPosition % heapSegmentBytes;
+        }
+        long offset = heapPosition;
+        ByteBuffer segment = heapSegment((int) (offset / heapSegmentBytes));
+        int at = (int) (offset % heapSegmentBytes);
+        segment.putInt(at, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            segment.put(at + 4 + i, bytes[i]);
+        }
+        heapPosition = offset + size;
+        return offset;
+    }
+
+    String getString(long offset) {
+        ByteBuffer segment = heapSegments[(int) (offset / heapSegmentBytes)];
+        int at = (int) (offset % heapSegmentBytes);
+        byte[] bytes = new byte[segment.getInt(at)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = segment.get(at + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String getSymbol(int index) {
+        return symbols[index];
+    }
+
+    ByteBuffer segmentOf(long record) {
+        return segments[(int) (record >>> segmentShift)];
+    }
+
+    /**
+     * Byte offset of {@code record}'s value in a column of {@code width}-byte values.
+     */
+    int offset(long record, int column, int width) {
+        return recordsPerSegment * column + slotOf(record) * width;
+    }
+
+    private int slotOf(long record) {
+        return (int) (record & (recordsPerSegment - 1));
+    }
+
+    private void loadSymbols() throws IOException {
+        long size = symbolChannel.size();
+        ByteBuffer symbolFile = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        while (symbolFile.hasRemaining() && symbolChannel.read(symbolFile, symbolFile.position()) >= 0) {
+            // read fully
+        }
+        symbolFile.flip();
+        while (symbolFile.remaining() >= 4) {
+            int length = symbolFile.getInt(symbolFile.position());
+            if (length < 0 || symbolFile.remaining() - 4 < length) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            symbolFile.position(symbolFile.position() + 4);
+            symbolFile.get(bytes);
+            intern(new String(bytes, StandardCharsets.UTF_8));
+        }
+        // Drop an entry torn by a crash
+        symbolChannel.truncate(symbolFile.position());
+    }
+
+    private void reload() {
+        long count = header.getLong(HEADER_RECORD_COUNT);
+        heapPosition = header.getLong(HEADER_HEAP_POSITION);
+        if (count < 0 || heapPosition < 0) {
+            throw new JournalException("Corrupt transaction log header in " + directory);
+        }
+        for (long segment = 0; segment * recordsPerSegment < count; segment++) {
+            ensureSegment((int) segment);
+        }
+        for (long segment = 0; segment * heapSegmentBytes < heapPosition; segment++) {
+            heapSegment((int) segment);
+        }
+        for (long record = 0; record < count; record++) {
+            includeRecord(record);
+        }
+        recordCount = count;
+        loadRecoveredPositions();
+    }
+
+    private void loadRecoveredPositions() {
+        long count = recordCount;
+        long first = Math.max(0, count - RECOVERY_TAIL);
+        Set<Long> positions = new HashSet<>();
+        long minimum = Long.MAX_VALUE;
+        for (long record = first; record < count; record++) {
+            long position = segmentOf(record).getLong(offset(record, JOURNAL_POSITION, 8));
+            positions.add(position);
+            minimum = Math.min(minimum, position);
+        }
+        recoveredPositions = positions;
+        recoveredMinPosition = minimum;
+        recoveredAll = first == 0;
+    }
+
+    private void ensureSegment(int index) {
+        ByteBuffer[] current = segments;
+        if (index < current.length) {
+            return;
+        }
+        ByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        grown[index] = map(String.format("records-%06d.col", index), (long) recordsPerSegment * RECORD_WIDTH);
+        segments = grown;
+    }
+
+    private ByteBuffer heapSegment(int index) {
+        ByteBuffer[] current = heapSegments;
+        if (index < current.length) {
+            return current[index];
+        }
+        ByteBuffer[] grown = Arrays.copyOf(current, index + 1);
+        for (int i = current.length; i <= index; i++) {
+            grown[i] = map(String.format("strings-%06d.heap", i), heapSegmentBytes);
+        }
+        heapSegments = grown;
+        return grown[index];
+    }
+
+    private ByteBuffer map(String name, long size) {
+        try (FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new JournalException("Cannot map " + name + " in transaction log " + directory, e);
+        }
+    }
+
+    static long toNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Ascending numbers of the blocks holding an account's records. Appended to
+     * under the log's monitor; the array is published before the size, so a
+     * reader that reads the size first finds at least that many blocks.
+     */
+    private static final class BlockList {
+        volatile int[] blocks = new int[4];
+        volatile int size;
+
+        void add(int block) {
+            int count = size;
+            if (count > 0 && blocks[count - 1] == block) {
+                return;
+            }
+            if (count == blocks.length) {
+                blocks = Arrays.copyOf(blocks, count * 2);
+            }
+            blocks[count] = block;
+            size = count + 1;
+        }
+
+        /**
+         * Drops the blocks that hold no record below {@code records}.
+         */
+        void truncate(long records) {
+            int count = size;
+            while (count > 0 && (long) blocks[count - 1] * BLOCK_SIZE >= records) {
+                count--;
+            }
+            size = count;
+        }
+    }
+
+    /**
+     * Receives each record of a scan; the record is only valid during the call.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(LogRecord record);
+    }
+}
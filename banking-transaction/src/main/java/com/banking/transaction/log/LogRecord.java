@@ -0,0 +1,134 @@
+package com.banking.transaction.log;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.transaction.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static com.banking.transaction.log.ColumnarTransactionLog.ACCOUNT;
+import static com.banking.transaction.log.ColumnarTransactionLog.AMOUNT;
+import static com.banking.transaction.log.ColumnarTransactionLog.CURRENCY;
+import static com.banking.transaction.log.ColumnarTransactionLog.DESCRIPTION;
+import static com.banking.transaction.log.ColumnarTransactionLog.JOURNAL_POSITION;
+import static com.banking.transaction.log.ColumnarTransactionLog.NO_ACCOUNT;
+import static com.banking.transaction.log.ColumnarTransactionLog.NO_STRING;
+import static com.banking.transaction.log.ColumnarTransactionLog.RELATED_ACCOUNT;
+import static com.banking.transaction.log.ColumnarTransactionLog.SCALE;
+import static com.banking.transaction.log.ColumnarTransactionLog.TIMESTAMP;
+import static com.banking.transaction.log.ColumnarTransactionLog.TRANSACTION_ID;
+import static com.banking.transaction.log.ColumnarTransactionLog.TYPE;
+
+/**
+ * Reusable cursor over one record of a {@link ColumnarTransactionLog}. The
+ * primitive getters and the account and currency lookups read the mapped
+ * columns without allocating; the description, transaction ID, timestamp and
+ * amount objects are decoded on request.
+ */
+public final class LogRecord {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final ColumnarTransactionLog log;
+    private ByteBuffer segment;
+    private long index = -1;
+
+    LogRecord(ColumnarTransactionLog log) {
+        this.log = log;
+    }
+
+    void moveTo(long index) {
+        this.index = index;
+        this.segment = log.segmentOf(index);
+    }
+
+    /**
+     * Record number in append order.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public long getTimestampNanos() {
+        return segment.getLong(log.offset(index, TIMESTAMP, 8));
+    }
+
+    public LocalDateTime getTimestamp() {
+        return ColumnarTransactionLog.fromNanos(getTimestampNanos());
+    }
+
+    public TransactionType getType() {
+        return TYPES[segment.get(log.offset(index, TYPE, 1))];
+    }
+
+    /**
+     * Amount as an unscaled value; see {@link #getAmountScale()}.
+     */
+    public long getAmountUnscaled() {
+        return segment.getLong(log.offset(index, AMOUNT, 8));
+    }
+
+    public int getAmountScale() {
+        return segment.get(log.offset(index, SCALE, 1));
+    }
+
+    public Money getAmount() {
+        return new Money(BigDecimal.valueOf(getAmountUnscaled(), getAmountScale()), getCurrency());
+    }
+
+    public String getCurrency() {
+        return log.getSymbol(segment.getInt(log.offset(index, CURRENCY, 4)));
+    }
+
+    /**
+     * Dense index of the account in the log's symbol table.
+     */
+    public int getAccountIndex() {
+        return segment.getInt(log.offset(index, ACCOUNT, 4));
+    }
+
+    public String getAccountId() {
+        return log.getSymbol(getAccountIndex());
+    }
+
+    /**
+     * Dense index of the related account, or -1 if the transaction has none.
+     */
+    public int getRelatedAccountIndex() {
+        return segment.getInt(log.offset(index, RELATED_ACCOUNT, 4));
+    }
+
+    public String getRelatedAccountId() {
+        int related = getRelatedAccountIndex();
+        return related == NO_ACCOUNT ? null : log.getSymbol(related);
+    }
+
+    /**
+     * Position of the journal record this transaction came from (0 without a journal).
+     */
+    public long getJournalPosition() {
+        return segment.getLong(log.offset(index, JOURNAL_POSITION, 8));
+    }
+
+    public String getTransactionId() {
+        long key = segment.getLong(log.offset(index, TRANSACTION_ID, 8));
+        return key >= 0 ? TimeOrderedIdGenerator.encode(key) : log.getString(-key - 1);
+    }
+
+    public String getDescription() {
+        long offset = segment.getLong(log.offset(index, DESCRIPTION, 8));
+        return offset == NO_STRING ? null : log.getString(offset);
+    }
+
+    public Transaction toTransaction() {
+        return new Transaction(getTransactionId(), getAccountId(), getType(), getAmount(), getTimestamp(),
+                getDescription(), getRelatedAccountId());
+    }
+
+    @Override
+    public String toString() {
+        return index < 0 ? "LogRecord{}" : "LogRecord{index=" + index + ", " + toTransaction() + "}";
+    }
+}
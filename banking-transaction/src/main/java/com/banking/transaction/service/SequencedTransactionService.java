@@ -0,0 +1,280 @@
+package com.banking.transaction.service;
+
+import com.banking.core.concurrent.MpscRingBuffer;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.domain.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer alternative to calling {@link TransactionService} directly.
+ * <p>
+ * Deposits, withdrawals and transfers are published into a lock-free ring
+ * buffer per shard and applied by that shard's writer thread in publication
+ * order; callers get a future. Commands are routed by the (source) account, so
+ * every account's commands are applied in a deterministic order by one thread.
+ * A writer drains commands in batches and waits once per batch for the journal
+ * to make them durable before completing their futures, so journaling costs one
+ * group commit per batch rather than one wait per command. If that wait fails,
+ * the batch's applied commands complete with a {@link JournalException} saying
+ * so, and the failed journal refuses every later command before it is applied.
+ * <p>
+ * Writers apply commands through the same account stripe locks as direct
+ * callers. Those are uncontended within a shard; they keep cross-shard transfers
+ * (and any direct callers of the underlying service) safe.
+ * <p>
+ * Commands are timed in the underlying service's metrics under the same
+ * operations as direct calls, from publication until their future completes,
+ * so the time spent queued in the ring is included.
+ */
+public class SequencedTransactionService implements AutoCloseable {
+    public static final int DEFAULT_RING_CAPACITY = 1 << 16;
+
+    private static final int MAX_BATCH = 512;
+    private static final int IDLE_SPINS = 200;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TransactionService transactionService;
+    private final StripedLocks accountLocks;
+    private final Journal journal;
+    private final OperationMetrics deposits;
+    private final OperationMetrics withdrawals;
+    private final OperationMetrics transfers;
+    private final Shard[] shards;
+    private volatile boolean closed;
+
+    public SequencedTransactionService(TransactionService transactionService) {
+        this(transactionService, Runtime.getRuntime().availableProcessors(), DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * @param shardCount   number of writer threads
+     * @param ringCapacity commands each shard can buffer (power of two); publishers
+     *                     back off while their shard's ring is full
+     */
+    public SequencedTransactionService(TransactionService transactionService, int shardCount, int ringCapacity) {
+        if (transactionService == null) {
+            throw new IllegalArgumentException("TransactionService cannot be null");
+        }
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.transactionService = transactionService;
+        this.accountLocks = transactionService.getAccountLocks();
+        this.journal = transactionService.getJournal();
+        ServiceMetrics metrics = transactionService.getMetrics();
+        this.deposits = metrics.operation(ServiceMetrics.DEPOSIT);
+        this.withdrawals = metrics.operation(ServiceMetrics.WITHDRAWAL);
+        this.transfers = metrics.operation(ServiceMetrics.TRANSFER);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringCapacity);
+        }
+        for (Shard shard : shards) {
+            shard.writer.start();
+        }
+    }
+
+    public CompletableFuture<Transaction> deposit(String accountId, Money amount, String description) {
+        return submit(accountId, new Command(CommandType.DEPOSIT, accountId, null, amount, description, deposits));
+    }
+
+    public CompletableFuture<Transaction> withdraw(String accountId, Money amount, String description) {
+        return submit(accountId, new Command(CommandType.WITHDRAWAL, accountId, null, amount, description,
+                withdrawals));
+    }
+
+    public CompletableFuture<Transaction> transfer(String fromAccountId, String toAccountId, Money amount,
+                                                   String description) {
+        return submit(fromAccountId, new Command(CommandType.TRANSFER, fromAccountId, toAccountId, amount, description,
+                transfers));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Stops accepting commands, lets the writers apply everything already
+     * published, and waits for them to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.writer);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private CompletableFuture<Transaction> submit(String accountId, Command command) {
+        if (accountId == null) {
+            command.fail(new IllegalArgumentException("Account ID cannot be null"));
+            return command.result;
+        }
+        Shard shard = shards[accountLocks.stripeFor(accountId) % shards.length];
+        // Registered before checking closed, so the writer cannot exit with this command unapplied
+        shard.publishers.incrementAndGet();
+        try {
+            while (true) {
+                if (closed) {
+                    command.fail(new IllegalStateException("Sequencer is closed"));
+                    return command.result;
+                }
+                if (shard.ring.offer(command)) {
+                    break;
+                }
+                // Ring full: back off until the writer catches up
+                LockSupport.unpark(shard.writer);
+                Thread.onSpinWait();
+            }
+        } finally {
+            shard.publishers.decrementAndGet();
+        }
+        if (shard.sleeping) {
+            LockSupport.unpark(shard.writer);
+        }
+        return command.result;
+    }
+
+    private TransactionService.Recorded apply(Command command) {
+        switch (command.type) {
+            case DEPOSIT:
+                return transactionService.applyDeposit(command.accountId, command.amount, command.description);
+            case WITHDRAWAL:
+                return transactionService.applyWithdrawal(command.accountId, command.amount, command.description);
+            case TRANSFER:
+                return transactionService.applyTransfer(command.accountId, command.relatedAccountId, command.amount,
+                        command.description);
+            default:
+                throw new IllegalStateException("Unsupported command: " + command.type);
+        }
+    }
+
+    private enum CommandType {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER
+    }
+
+    private static final class Command {
+        final CommandType type;
+        final String accountId;
+        final String relatedAccountId;
+        final Money amount;
+        final String description;
+        final CompletableFuture<Transaction> result = new CompletableFuture<>();
+        final OperationMetrics metrics;
+        final long startNanos;
+        Transaction transaction;
+
+        Command(CommandType type, String accountId, String relatedAccountId, Money amount, String description,
+                OperationMetrics metrics) {
+            this.type = type;
+            this.accountId = accountId;
+            this.relatedAccountId = relatedAccountId;
+            this.amount = amount;
+            this.description = description;
+            this.metrics = metrics;
+            this.startNanos = metrics.start();
+        }
+
+        void complete() {
+            metrics.success(startNanos);
+            result.complete(transaction);
+        }
+
+        void fail(RuntimeException failure) {
+            metrics.failure(startNanos, failure);
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private final class Shard {
+        final MpscRingBuffer<Command> ring;
+        final Thread writer;
+        final List<Command> batch = new ArrayList<>(MAX_BATCH);
+        final AtomicInteger publishers = new AtomicInteger();
+        volatile boolean sleeping;
+
+        Shard(int index, int ringCapacity) {
+            this.ring = new MpscRingBuffer<>(ringCapacity);
+            this.writer = new Thread(this::run, "transaction-sequencer-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        private void run() {
+            int idle = 0;
+            while (true) {
+                if (ring.drain(batch::add, MAX_BATCH) > 0) {
+                    idle = 0;
+                    applyBatch();
+                } else if (closed && publishers.get() == 0 && ring.isEmpty()) {
+                    return;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    // Re-check after announcing sleep so a concurrent publish is not missed
+                    if (ring.isEmpty() && !closed) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private void applyBatch() {
+            long position = 0;
+            for (Command command : batch) {
+                try {
+                    TransactionService.Recorded recorded = apply(command);
+                    command.transaction = recorded.transaction;
+                    position = Math.max(position, recorded.position);
+                } catch (RuntimeException e) {
+                    // The service encodes the record before applying, so the command was refused
+                    // unchanged, or it failed the journal and every later command is refused too
+                    command.fail(e);
+                }
+            }
+            RuntimeException durabilityFailure = null;
+            if (journal != null && position > 0) {
+                try {
+                    journal.awaitDurable(position);
+                } catch (RuntimeException e) {
+                    durabilityFailure = e;
+                }
+            }
+            for (Command command : batch) {
+                if (command.transaction == null) {
+                    continue;
+                }
+                if (durabilityFailure != null) {
+                    // Applied, so not a rejection: its outcome is lost with the journal
+                    command.fail(new JournalException("Transaction " + command.transaction.getTransactionId()
+                            + " was applied but did not become durable", durabilityFailure));
+                } else {
+                    command.complete();
+                }
+            }
+            batch.clear();
+        }
+    }
+}
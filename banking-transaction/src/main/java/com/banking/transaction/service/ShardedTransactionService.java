@@ -0,0 +1,559 @@
+package com.banking.transaction.service;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
+import com.banking.transaction.journal.TransactionJournalCodec;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Transaction service over a {@link ShardedAccountService}. Each shard has its
+ * own {@link TransactionService} (transaction store and account histories) and
+ * its own single-threaded executor.
+ * <p>
+ * Operations whose accounts all live in one shard are delegated to that shard
+ * unchanged. Cross-shard transfers and postings are coordinated here: the
+ * accounts' locks are taken across shards in shard order, the balance changes
+ * are applied all-or-nothing, and the result is journaled as one record. A
+ * cross-shard transaction is stored by the shard of its (source) account and
+ * appears in the histories of both accounts' shards.
+ * <p>
+ * A batch without cross-shard transfers is split into per-shard sub-batches
+ * that run concurrently on the shard executors; each account still sees its
+ * entries in submission order.
+ * <p>
+ * Shards record into the account service's {@link ServiceMetrics}, shared by
+ * all of them; an operation delegated to a shard is counted once.
+ */
+public class ShardedTransactionService implements TransactionEngine, AutoCloseable {
+    private final ShardedAccountService accountService;
+    private final TransactionService[] shards;
+    private final ExecutorService[] executors;
+    private final Journal journal;
+    private final OperationMetrics transfers;
+    private final OperationMetrics postings;
+    private final OperationMetrics batches;
+
+    public ShardedTransactionService(ShardedAccountService accountService) {
+        if (accountService == null) {
+            throw new IllegalArgumentException("AccountService cannot be null");
+        }
+        this.accountService = accountService;
+        this.journal = accountService.getJournal();
+        ServiceMetrics metrics = accountService.getMetrics();
+        this.transfers = metrics.operation(ServiceMetrics.TRANSFER);
+        this.postings = metrics.operation(ServiceMetrics.POSTING);
+        this.batches = metrics.operation(ServiceMetrics.BATCH);
+        int shardCount = accountService.getShardCount();
+        this.shards = new TransactionService[shardCount];
+        this.executors = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new TransactionService(accountService.getShard(i));
+            String name = "transaction-shard-" + i;
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public Transaction deposit(String accountId, Money amount, String description) {
+        return shardFor(accountId).deposit(accountId, amount, description);
+    }
+
+    @Override
+    public Transaction withdraw(String accountId, Money amount, String description) {
+        return shardFor(accountId).withdraw(accountId, amount, description);
+    }
+
+    @Override
+    public Transaction transfer(String fromAccountId, String toAccountId, Money amount, String description) {
+        long start = transfers.start();
+        try {
+            Transaction transaction = transferFunds(fromAccountId, toAccountId, amount, description);
+            transfers.success(start);
+            return transaction;
+        } catch (RuntimeException e) {
+            transfers.failure(start, e);
+            throw e;
+        }
+    }
+
+    private Transaction transferFunds(String fromAccountId, String toAccountId, Money amount, String description) {
+        int fromShard = accountService.shardOf(fromAccountId);
+        int toShard = accountService.shardOf(toAccountId);
+        if (fromShard == toShard) {
+            TransactionService.Recorded recorded = shards[fromShard].applyTransfer(fromAccountId, toAccountId,
+                    amount, description);
+            awaitDurable(recorded.position);
+            return recorded.transaction;
+        }
+        Account fromAccount = accountService.getAccount(fromAccountId);
+        Account toAccount = accountService.getAccount(toAccountId);
+        Transaction transaction;
+        long position;
+        try (ShardedAccountService.ShardLocks ignored = accountService.lockAll(Arrays.asList(fromAccountId, toAccountId))) {
+            transaction = new Transaction(fromAccountId, TransactionType.TRANSFER, amount, description, toAccountId);
+            byte[] record = encode(transaction);
+            TransactionService.applyAtomically(new Account[] {fromAccount, toAccount}, new Money[] {amount, amount},
+                    new boolean[] {true, false});
+            position = record(transaction, record, fromAccount, toAccount);
+            fromAccount.setJournalPosition(position);
+            toAccount.setJournalPosition(position);
+        }
+        awaitDurable(position);
+        return transaction;
+    }
+
+    /**
+     * Applies a multi-leg posting atomically, as {@link TransactionService#post(List, String)}
+     * does, even when its accounts live in different shards.
+     */
+    @Override
+    public List<Transaction> post(List<PostingLeg> legs, String description) {
+        long start = postings.start();
+        try {
+            List<Transaction> postingTransactions = postLegs(legs, description);
+            postings.success(start);
+            return postingTransactions;
+        } catch (RuntimeException e) {
+            postings.failure(start, e);
+            throw e;
+        }
+    }
+
+    private List<Transaction> postLegs(List<PostingLeg> legs, String description) {
+        TransactionService.NettedPosting netted = TransactionService.NettedPosting.of(legs);
+        Integer shard = commonShard(netted.accountIds);
+        if (shard != null) {
+            return shards[shard].postLegs(legs, description);
+        }
+        Account[] accounts = new Account[netted.accountIds.size()];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = accountService.getAccount(netted.accountIds.get(i));
+        }
+        List<Transaction> postingTransactions;
+        long position;
+        try (ShardedAccountService.ShardLocks ignored = accountService.lockAll(netted.accountIds)) {
+            postingTransactions = TransactionService.pairwiseTransfers(netted.accountIds, netted.amounts,
+                    netted.debits, description);
+            byte[] record = null;
+            if (journal != null) {
+                journal.checkWritable();
+                record = TransactionJournalCodec.encodePosting(postingTransactions);
+            }
+            TransactionService.applyAtomically(accounts, netted.amounts, netted.debits);
+            try {
+                Money[][] balancesAfter = TransactionService.balancesAfter(postingTransactions, accounts);
+                for (int i = 0; i < postingTransactions.size(); i++) {
+                    store(postingTransactions.get(i), balancesAfter[i][0], balancesAfter[i][1]);
+                }
+                position = record == null ? 0 : journal.append(record);
+            } catch (RuntimeException e) {
+                throw halt(e);
+            }
+            for (Account account : accounts) {
+                account.setJournalPosition(position);
+            }
+        }
+        awaitDurable(position);
+        return postingTransactions;
+    }
+
+    /**
+     * Applies a batch with the semantics of {@link TransactionService#processBatch(List)}.
+     * Without cross-shard transfers the per-shard sub-batches run in parallel;
+     * otherwise every account the batch touches is locked across shards and the
+     * entries are applied here in submission order.
+     */
+    @Override
+    public List<BatchResult> processBatch(List<BatchEntry> entries) {
+        long start = batches.start();
+        try {
+            List<BatchResult> results = processEntries(entries);
+            batches.success(start);
+            return results;
+        } catch (RuntimeException e) {
+            batches.failure(start, e);
+            throw e;
+        }
+    }
+
+    private List<BatchResult> processEntries(List<BatchEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        if (entries.size() > TransactionService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot exceed " + TransactionService.MAX_BATCH_SIZE + " entries");
+        }
+        BatchResult[] results = new BatchResult[entries.size()];
+        int[] entryShards = new int[entries.size()];
+        boolean crossShard = false;
+        for (int i = 0; i < results.length; i++) {
+            BatchEntry entry = entries.get(i);
+            try {
+                TransactionService.validate(entry);
+                entryShards[i] = accountService.shardOf(entry.getAccountId());
+                if (entry.getType() == TransactionType.TRANSFER
+                        && accountService.shardOf(entry.getRelatedAccountId()) != entryShards[i]) {
+                    crossShard = true;
+                }
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchResult.rejected(i, e.getMessage());
+            }
+        }
+        if (crossShard) {
+            processAcrossShards(entries, results);
+        } else {
+            processPerShard(entries, results, entryShards);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Credits interest as {@link TransactionService#creditInterest(List, String, Function)}
+     * does, each account through its own shard, with one durability wait for the call.
+     */
+    @Override
+    public List<Transaction> creditInterest(List<String> accountIds, String runId, Function<Account, Money> interest) {
+        List<Transaction> credited = new ArrayList<>();
+        long position = 0;
+        for (String accountId : accountIds) {
+            TransactionService.Recorded recorded = shardFor(accountId).applyInterestCredit(accountId, runId, interest);
+            if (recorded != null) {
+                credited.add(recorded.transaction);
+                position = Math.max(position, recorded.position);
+            }
+        }
+        awaitDurable(position);
+        return credited;
+    }
+
+    /**
+     * Re-applies a transaction recovered from the journal record ending at {@code position}.
+     */
+    @Override
+    public void restoreTransaction(Transaction transaction, long position) {
+        restorePosting(Collections.singletonList(transaction), position);
+    }
+
+    /**
+     * Indexes the transaction in the shard of its (source) account, where it is stored.
+     */
+    @Override
+    public void restoreIndex(Transaction transaction) {
+        shardFor(transaction.getAccountId()).index(transaction);
+    }
+
+    /**
+     * Re-applies the transactions of one recovered posting, skipping accounts
+     * whose state already includes the record, as
+     * {@link TransactionService#restorePosting(List, long)} does within a shard.
+     */
+    @Override
+    public void restorePosting(List<Transaction> postingTransactions, long position) {
+        Set<String> accountIds = new HashSet<>();
+        for (Transaction transaction : postingTransactions) {
+            accountIds.add(transaction.getAccountId());
+            if (transaction.getRelatedAccountId() != null) {
+                accountIds.add(transaction.getRelatedAccountId());
+            }
+        }
+        Integer shard = commonShard(accountIds);
+        if (shard != null) {
+            shards[shard].restorePosting(postingTransactions, position);
+            return;
+        }
+        try (ShardedAccountService.ShardLocks ignored = accountService.lockAll(accountIds)) {
+            Map<String, Account> stale = new HashMap<>();
+            for (String accountId : accountIds) {
+                Account account = accountService.getAccount(accountId);
+                if (position > account.getJournalPosition()) {
+                    stale.put(accountId, account);
+                }
+            }
+            for (Transaction transaction : postingTransactions) {
+                if (transaction.getType() != TransactionType.TRANSFER) {
+                    throw new IllegalStateException("Cross-shard record with non-transfer type: " + transaction.getType());
+                }
+                Account account = stale.get(transaction.getAccountId());
+                if (account != null) {
+                    account.withdraw(transaction.getAmount());
+                }
+                Account relatedAccount = stale.get(transaction.getRelatedAccountId());
+                if (relatedAccount != null) {
+                    relatedAccount.deposit(transaction.getAmount());
+                }
+                store(transaction, account == null ? null : account.getBalance(),
+                        relatedAccount == null ? null : relatedAccount.getBalance());
+            }
+            for (Account account : stale.values()) {
+                account.setJournalPosition(position);
+            }
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactionsByAccount(String accountId) {
+        return shardFor(accountId).getTransactionsByAccount(accountId);
+    }
+
+    @Override
+    public TransactionPage getTransactionsByAccount(String accountId, String cursor, int limit) {
+        return shardFor(accountId).getTransactionsByAccount(accountId, cursor, limit);
+    }
+
+    /**
+     * Transaction IDs carry no shard, so this asks each shard in turn.
+     */
+    @Override
+    public Transaction getTransaction(String transactionId) {
+        for (TransactionService shard : shards) {
+            Transaction transaction = shard.findTransaction(transactionId);
+            if (transaction != null) {
+                return transaction;
+            }
+        }
+        throw new IllegalArgumentException("Transaction not found: " + transactionId);
+    }
+
+    @Override
+    public List<Transaction> getAllTransactions() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (TransactionService shard : shards) {
+            transactions.addAll(shard.getAllTransactions());
+        }
+        return transactions;
+    }
+
+    @Override
+    public Stream<Transaction> streamAllTransactions() {
+        return Arrays.stream(shards).flatMap(TransactionService::streamAllTransactions);
+    }
+
+    @Override
+    public Money calculateAccountBalance(String accountId) {
+        return accountService.getBalance(accountId);
+    }
+
+    /**
+     * Answered by the account's shard, whose history includes its cross-shard transfers.
+     */
+    @Override
+    public Money getBalanceAt(String accountId, LocalDateTime at) {
+        return shardFor(accountId).getBalanceAt(accountId, at);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    private void processPerShard(List<BatchEntry> entries, BatchResult[] results, int[] entryShards) {
+        List<List<Integer>> indexesByShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            indexesByShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                indexesByShard.get(entryShards[i]).add(i);
+            }
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<Integer> indexes = indexesByShard.get(shard);
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            TransactionService service = shards[shard];
+            pending.add(CompletableFuture.runAsync(() -> {
+                List<BatchEntry> subBatch = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    subBatch.add(entries.get(index));
+                }
+                List<BatchResult> subResults = service.processEntries(subBatch);
+                for (int j = 0; j < indexes.size(); j++) {
+                    int index = indexes.get(j);
+                    BatchResult result = subResults.get(j);
+                    // Each shard writes disjoint slots; join() below publishes them to the caller
+                    results[index] = result.isApplied()
+                            ? BatchResult.applied(index, result.getTransaction())
+                            : BatchResult.rejected(index, result.getError());
+                }
+            }, executors[shard]));
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void processAcrossShards(List<BatchEntry> entries, BatchResult[] results) {
+        Account[] sources = new Account[results.length];
+        Account[] targets = new Account[results.length];
+        Set<String> accountIds = new HashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BatchEntry entry = entries.get(i);
+            try {
+                sources[i] = accountService.getAccount(entry.getAccountId());
+                if (entry.getType() == TransactionType.TRANSFER) {
+                    targets[i] = accountService.getAccount(entry.getRelatedAccountId());
+                    accountIds.add(entry.getRelatedAccountId());
+                }
+                accountIds.add(entry.getAccountId());
+            } catch (InvalidAccountException e) {
+                results[i] = BatchResult.rejected(i, e.getMessage());
+            }
+        }
+
+        long position = 0;
+        try (ShardedAccountService.ShardLocks ignored = accountService.lockAll(accountIds)) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                BatchEntry entry = entries.get(i);
+                Transaction transaction = new Transaction(entry.getAccountId(), entry.getType(), entry.getAmount(),
+                        entry.getDescription(), entry.getRelatedAccountId());
+                byte[] record = encode(transaction);
+                try {
+                    TransactionService.apply(entry, sources[i], targets[i]);
+                } catch (IllegalArgumentException | InvalidAccountException | InsufficientFundsException
+                         | ArithmeticException e) {
+                    results[i] = BatchResult.rejected(i, e.getMessage());
+                    continue;
+                }
+                position = record(transaction, record, sources[i], targets[i]);
+                sources[i].setJournalPosition(position);
+                if (targets[i] != null) {
+                    targets[i].setJournalPosition(position);
+                }
+                results[i] = BatchResult.applied(i, transaction);
+            }
+        }
+        awaitDurable(position);
+    }
+
+    /**
+     * Encodes a transaction's journal record ({@code null} without a journal)
+     * before it is applied, as {@link TransactionService} does, so a record that
+     * cannot be written is refused while no balance has changed yet.
+     */
+    private byte[] encode(Transaction transaction) {
+        if (journal == null) {
+            return null;
+        }
+        journal.checkWritable();
+        return TransactionJournalCodec.encode(transaction);
+    }
+
+    /**
+     * Stores and journals a transaction that has just been applied across
+     * shards, returning its journal position. A failure after the balances
+     * changed fails the journal, so no later write is acknowledged past it.
+     */
+    private long record(Transaction transaction, byte[] record, Account account, Account relatedAccount) {
+        try {
+            store(transaction, account.getBalance(), relatedAccount == null ? null : relatedAccount.getBalance());
+            return record == null ? 0 : journal.append(record);
+        } catch (RuntimeException e) {
+            throw halt(e);
+        }
+    }
+
+    private RuntimeException halt(RuntimeException failure) {
+        if (journal != null) {
+            journal.fail(failure);
+        }
+        return failure;
+    }
+
+    /**
+     * Stores a transaction in the shard of its (source) account and appends it to
+     * the history of each account in that account's shard, with each account's
+     * balance right after it ({@code null} if unknown). Must be called while
+     * holding the locks of every account the transaction touches.
+     */
+    private void store(Transaction transaction, Money balanceAfter, Money relatedBalanceAfter) {
+        String accountId = transaction.getAccountId();
+        TransactionService owner = shardFor(accountId);
+        owner.index(transaction);
+        owner.appendHistory(accountId, transaction, balanceAfter);
+        String relatedAccountId = transaction.getRelatedAccountId();
+        if (relatedAccountId != null && !relatedAccountId.equals(accountId)) {
+            shardFor(relatedAccountId).appendHistory(relatedAccountId, transaction, relatedBalanceAfter);
+        }
+    }
+
+    /**
+     * Shard shared by all the accounts (any shard if there are none), or
+     * {@code null} if they span shards.
+     */
+    private Integer commonShard(Collection<String> accountIds) {
+        if (accountIds.isEmpty()) {
+            return 0;
+        }
+        Integer shard = null;
+        for (String accountId : accountIds) {
+            int accountShard = accountService.shardOf(accountId);
+            if (shard == null) {
+                shard = accountShard;
+            } else if (shard != accountShard) {
+                return null;
+            }
+        }
+        return shard;
+    }
+
+    private TransactionService shardFor(String accountId) {
+        return shards[accountService.shardOf(accountId)];
+    }
+
+    private void awaitDurable(long position) {
+        if (journal != null) {
+            journal.awaitDurable(position);
+        }
+    }
+}
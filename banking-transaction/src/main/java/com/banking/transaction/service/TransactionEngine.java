@@ -0,0 +1,97 @@
+package com.banking.transaction.service;
+
+import com.banking.account.domain.Account;
+import com.banking.core.domain.Money;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Money movement and transaction queries over an
+ * {@link com.banking.account.service.AccountEngine}. {@link TransactionService}
+ * is the default in-memory engine; {@link ShardedTransactionService} runs over
+ * sharded accounts. Every method returns only once its changes are durable,
+ * if the engine journals them.
+ */
+public interface TransactionEngine {
+
+    Transaction deposit(String accountId, Money amount, String description);
+
+    Transaction withdraw(String accountId, Money amount, String description);
+
+    Transaction transfer(String fromAccountId, String toAccountId, Money amount, String description);
+
+    /**
+     * Applies a multi-leg posting atomically; the legs must net to zero in each currency.
+     */
+    List<Transaction> post(List<PostingLeg> legs, String description);
+
+    /**
+     * Applies a batch in submission order, returning one result per entry.
+     */
+    List<BatchResult> processBatch(List<BatchEntry> entries);
+
+    /**
+     * Credits interest to each account as an {@code INTEREST_CREDIT} transaction
+     * whose ID is derived from {@code runId} and the account, skipping accounts
+     * that already hold that transaction, so a run repeated after an
+     * interruption credits every account at most once. {@code interest} is
+     * evaluated under the account's lock and may return {@code null} or zero to
+     * skip the account; inactive accounts are skipped. Each account is locked
+     * only for its own credit, and the call waits for durability once.
+     *
+     * @return the transactions credited by this call
+     */
+    List<Transaction> creditInterest(List<String> accountIds, String runId, Function<Account, Money> interest);
+
+    /**
+     * Re-applies a transaction recovered from the journal record ending at {@code position}.
+     */
+    void restoreTransaction(Transaction transaction, long position);
+
+    /**
+     * Re-applies the transactions of one posting recovered from the journal
+     * record ending at {@code position}.
+     */
+    void restorePosting(List<Transaction> postingTransactions, long position);
+
+    /**
+     * Makes a transaction recovered from the journal retrievable by ID without
+     * re-applying it or adding it to any account history, for records older
+     * than the state the engine was restored from.
+     */
+    void restoreIndex(Transaction transaction);
+
+    List<Transaction> getTransactionsByAccount(String accountId);
+
+    /**
+     * Returns one page of an account's history, newest first.
+     */
+    TransactionPage getTransactionsByAccount(String accountId, String cursor, int limit);
+
+    Transaction getTransaction(String transactionId);
+
+    List<Transaction> getAllTransactions();
+
+    /**
+     * Lazily iterates all transactions without copying the store.
+     */
+    Stream<Transaction> streamAllTransactions();
+
+    Money calculateAccountBalance(String accountId);
+
+    /**
+     * Balance the account had at {@code at}, answered in time bounded by one day
+     * of the account's transactions rather than its whole history.
+     *
+     * @throws IllegalArgumentException if the in-memory history does not reach back to {@code at}
+     */
+    Money getBalanceAt(String accountId, LocalDateTime at);
+}
@@ -2,75 +2,505 @@ package com.banking.transaction.service;
 
 import com.banking.account.domain.Account;
 import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.StripedLocks;
 import com.banking.core.domain.Money;
 import com.banking.core.domain.TransactionType;
 import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
 import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
+import com.banking.transaction.history.AccountHistory;
+import com.banking.transaction.history.HistoryCursor;
+import com.banking.transaction.journal.TransactionJournalCodec;
+import com.banking.transaction.log.ColumnarTransactionLog;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
- * Service for processing banking transactions.
+ * Service for processing banking transactions; the default {@link TransactionEngine}.
+ * Balance changes run under the per-account stripe locks owned by the
+ * {@link AccountService}, so operations on disjoint accounts proceed in parallel.
+ * It therefore works on that concrete account engine rather than any
+ * {@link com.banking.account.service.AccountEngine}.
+ * Each account keeps its own time-ordered history, appended under the same lock,
+ * so history reads never touch other accounts' transactions.
+ * <p>
+ * With a journal configured, each change is appended to the journal while the
+ * locks are held, and the caller waits for durability only after releasing
+ * them, so concurrent writers share group commits without blocking each other.
+ * <p>
+ * With a {@link ColumnarTransactionLog} configured, each recorded transaction
+ * is also appended to it, tagged with its journal position, for sequential
+ * statement and range scans.
+ * <p>
+ * Deposits, withdrawals, transfers, postings and batches are timed, by outcome,
+ * in the {@link ServiceMetrics} of the account service.
  */
-public class TransactionService {
+public class TransactionService implements TransactionEngine {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 50_000;
+
+    private static final String INTEREST_CREDIT_PREFIX = "INT-";
+
     private final AccountService accountService;
+    private final StripedLocks accountLocks;
+    private final Journal journal;
+    private final ColumnarTransactionLog log;
     private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final Map<String, AccountHistory> histories = new ConcurrentHashMap<>();
+    private final OperationMetrics deposits;
+    private final OperationMetrics withdrawals;
+    private final OperationMetrics transfers;
+    private final OperationMetrics postings;
+    private final OperationMetrics batches;
 
     public TransactionService(AccountService accountService) {
+        this(accountService, null);
+    }
+
+    /**
+     * @param log columnar log to append every transaction to, or {@code null}.
+     *            Records whose journal record is not in the account service's
+     *            journal are dropped from it, so construct this service before
+     *            journal replay.
+     */
+    public TransactionService(AccountService accountService, ColumnarTransactionLog log) {
         if (accountService == null) {
             throw new IllegalArgumentException("AccountService cannot be null");
         }
         this.accountService = accountService;
+        this.accountLocks = accountService.getAccountLocks();
+        this.journal = accountService.getJournal();
+        this.log = log;
+        ServiceMetrics metrics = accountService.getMetrics();
+        this.deposits = metrics.operation(ServiceMetrics.DEPOSIT);
+        this.withdrawals = metrics.operation(ServiceMetrics.WITHDRAWAL);
+        this.transfers = metrics.operation(ServiceMetrics.TRANSFER);
+        this.postings = metrics.operation(ServiceMetrics.POSTING);
+        this.batches = metrics.operation(ServiceMetrics.BATCH);
+        if (log != null && journal != null) {
+            log.truncateAfter(journal.getAppendedPosition());
+        }
     }
 
+    @Override
     public Transaction deposit(String accountId, Money amount, String description) {
-        Account account = accountService.getAccount(accountId);
-        account.deposit(amount);
-        Transaction transaction = new Transaction(accountId, TransactionType.DEPOSIT, amount, description);
-        transactions.put(transaction.getTransactionId(), transaction);
-        return transaction;
+        long start = deposits.start();
+        try {
+            Transaction transaction = awaitDurable(applyDeposit(accountId, amount, description));
+            deposits.success(start);
+            return transaction;
+        } catch (RuntimeException e) {
+            deposits.failure(start, e);
+            throw e;
+        }
     }
 
+    @Override
     public Transaction withdraw(String accountId, Money amount, String description) {
-        Account account = accountService.getAccount(accountId);
-        account.withdraw(amount);
-        Transaction transaction = new Transaction(accountId, TransactionType.WITHDRAWAL, amount, description);
-        transactions.put(transaction.getTransactionId(), transaction);
-        return transaction;
+        long start = withdrawals.start();
+        try {
+            Transaction transaction = awaitDurable(applyWithdrawal(accountId, amount, description));
+            withdrawals.success(start);
+            return transaction;
+        } catch (RuntimeException e) {
+            withdrawals.failure(start, e);
+            throw e;
+        }
     }
 
+    @Override
     public Transaction transfer(String fromAccountId, String toAccountId, Money amount, String description) {
+        long start = transfers.start();
+        try {
+            Transaction transaction = awaitDurable(applyTransfer(fromAccountId, toAccountId, amount, description));
+            transfers.success(start);
+            return transaction;
+        } catch (RuntimeException e) {
+            transfers.failure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Applies and journals a deposit without waiting for the journal to make it
+     * durable; callers acknowledge it only after {@link Journal#awaitDurable(long)}.
+     */
+    Recorded applyDeposit(String accountId, Money amount, String description) {
+        Account account = accountService.getAccount(accountId);
+        try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+            Transaction transaction = new Transaction(accountId, TransactionType.DEPOSIT, amount, description);
+            byte[] record = encode(transaction);
+            account.deposit(amount);
+            long position = record(transaction, record, account, null);
+            account.setJournalPosition(position);
+            return new Recorded(transaction, position);
+        }
+    }
+
+    Recorded applyWithdrawal(String accountId, Money amount, String description) {
+        Account account = accountService.getAccount(accountId);
+        try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+            Transaction transaction = new Transaction(accountId, TransactionType.WITHDRAWAL, amount, description);
+            byte[] record = encode(transaction);
+            account.withdraw(amount);
+            long position = record(transaction, record, account, null);
+            account.setJournalPosition(position);
+            return new Recorded(transaction, position);
+        }
+    }
+
+    Recorded applyTransfer(String fromAccountId, String toAccountId, Money amount, String description) {
         Account fromAccount = accountService.getAccount(fromAccountId);
         Account toAccount = accountService.getAccount(toAccountId);
+        try (StripedLocks.Held ignored = accountLocks.lock(fromAccountId, toAccountId)) {
+            // Create transaction record
+            Transaction transaction = new Transaction(
+                fromAccountId,
+                TransactionType.TRANSFER,
+                amount,
+                description,
+                toAccountId
+            );
+            byte[] record = encode(transaction);
 
-        // Withdraw from source account
-        fromAccount.withdraw(amount);
-        
-        // Deposit to destination account
-        toAccount.deposit(amount);
-
-        // Create transaction record
-        Transaction transaction = new Transaction(
-            fromAccountId, 
-            TransactionType.TRANSFER, 
-            amount, 
-            description,
-            toAccountId
-        );
-        transactions.put(transaction.getTransactionId(), transaction);
-        return transaction;
+            // Debit the source and credit the destination, or neither
+            applyAtomically(new Account[] {fromAccount, toAccount}, new Money[] {amount, amount},
+                    new boolean[] {true, false});
+            long position = record(transaction, record, fromAccount, toAccount);
+            fromAccount.setJournalPosition(position);
+            toAccount.setJournalPosition(position);
+            return new Recorded(transaction, position);
+        }
     }
 
+    /**
+     * Applies a multi-leg posting atomically: every debit and credit is applied,
+     * or, if any leg fails (insufficient funds, inactive account, currency
+     * mismatch), none is. The legs must net to zero in each currency.
+     * <p>
+     * Only the stripe locks of the accounts involved are taken, in stripe order,
+     * so postings over disjoint accounts run concurrently. Legs on the same
+     * account are netted first, and the posting is recorded as the pairwise
+     * transfers from each net-debited to each net-credited account, journaled
+     * as a single record so recovery also applies all of them or none.
+     */
+    @Override
+    public List<Transaction> post(List<PostingLeg> legs, String description) {
+        long start = postings.start();
+        try {
+            List<Transaction> postingTransactions = postLegs(legs, description);
+            postings.success(start);
+            return postingTransactions;
+        } catch (RuntimeException e) {
+            postings.failure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@link #post(List, String)} without recording it in the metrics, for
+     * callers that time the posting themselves.
+     */
+    List<Transaction> postLegs(List<PostingLeg> legs, String description) {
+        NettedPosting netted = NettedPosting.of(legs);
+        List<String> accountIds = netted.accountIds;
+        Money[] amounts = netted.amounts;
+        boolean[] debits = netted.debits;
+        Account[] accounts = new Account[accountIds.size()];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = accountService.getAccount(accountIds.get(i));
+        }
+
+        List<Transaction> postingTransactions;
+        long position;
+        try (StripedLocks.Held ignored = accountLocks.lockAll(accountIds)) {
+            postingTransactions = pairwiseTransfers(accountIds, amounts, debits, description);
+            byte[] record = null;
+            if (journal != null && !postingTransactions.isEmpty()) {
+                journal.checkWritable();
+                record = TransactionJournalCodec.encodePosting(postingTransactions);
+            }
+            applyAtomically(accounts, amounts, debits);
+            try {
+                Money[][] balancesAfter = balancesAfter(postingTransactions, accounts);
+                for (int i = 0; i < postingTransactions.size(); i++) {
+                    store(postingTransactions.get(i), balancesAfter[i][0], balancesAfter[i][1]);
+                }
+                position = record == null ? 0 : journal.append(record);
+                if (log != null && !postingTransactions.isEmpty()) {
+                    log.appendAll(postingTransactions, position);
+                }
+            } catch (RuntimeException e) {
+                throw halt(e);
+            }
+            for (Account account : accounts) {
+                account.setJournalPosition(position);
+            }
+        }
+        awaitDurable(position);
+        return postingTransactions;
+    }
+
+    /**
+     * Applies a batch of deposits, withdrawals and transfers in submission order
+     * and returns one result per entry. Entries are validated in a single pass
+     * first; the stripe locks of every account the valid entries touch are then
+     * acquired once, in stripe order, and held while all of them are applied, so
+     * the batch pays for locking and (with a journal) one durability wait
+     * instead of one per entry. An entry that fails, for example for
+     * insufficient funds, is rejected without affecting the others.
+     * <p>
+     * The batch is timed as one operation; rejected entries do not make it fail.
+     */
+    @Override
+    public List<BatchResult> processBatch(List<BatchEntry> entries) {
+        long start = batches.start();
+        try {
+            List<BatchResult> results = processEntries(entries);
+            batches.success(start);
+            return results;
+        } catch (RuntimeException e) {
+            batches.failure(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * {@link #processBatch(List)} without recording it in the metrics, for
+     * callers that time the batch themselves.
+     */
+    List<BatchResult> processEntries(List<BatchEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        if (entries.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot exceed " + MAX_BATCH_SIZE + " entries");
+        }
+        BatchResult[] results = new BatchResult[entries.size()];
+        Account[] sources = new Account[entries.size()];
+        Account[] targets = new Account[entries.size()];
+        Set<String> accountIds = new HashSet<>();
+        for (int i = 0; i < results.length; i++) {
+            BatchEntry entry = entries.get(i);
+            try {
+                validate(entry);
+                sources[i] = accountService.getAccount(entry.getAccountId());
+                if (entry.getType() == TransactionType.TRANSFER) {
+                    targets[i] = accountService.getAccount(entry.getRelatedAccountId());
+                    accountIds.add(entry.getRelatedAccountId());
+                }
+                accountIds.add(entry.getAccountId());
+            } catch (IllegalArgumentException | InvalidAccountException e) {
+                results[i] = BatchResult.rejected(i, e.getMessage());
+            }
+        }
+
+        long position = 0;
+        try (StripedLocks.Held ignored = accountLocks.lockAll(accountIds)) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                BatchEntry entry = entries.get(i);
+                Transaction transaction = new Transaction(entry.getAccountId(), entry.getType(), entry.getAmount(),
+                        entry.getDescription(), entry.getRelatedAccountId());
+                byte[] record = encode(transaction);
+                try {
+                    apply(entry, sources[i], targets[i]);
+                } catch (IllegalArgumentException | InvalidAccountException | InsufficientFundsException
+                         | ArithmeticException e) {
+                    results[i] = BatchResult.rejected(i, e.getMessage());
+                    continue;
+                }
+                position = record(transaction, record, sources[i], targets[i]);
+                sources[i].setJournalPosition(position);
+                if (targets[i] != null) {
+                    targets[i].setJournalPosition(position);
+                }
+                results[i] = BatchResult.applied(i, transaction);
+            }
+        }
+        awaitDurable(position);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Credits interest to each account in turn under that account's stripe lock
+     * alone, so online traffic on an account waits at most for one credit, and
+     * waits once for the journal to make all of them durable.
+     */
+    @Override
+    public List<Transaction> creditInterest(List<String> accountIds, String runId, Function<Account, Money> interest) {
+        List<Transaction> credited = new ArrayList<>();
+        long position = 0;
+        for (String accountId : accountIds) {
+            Recorded recorded = applyInterestCredit(accountId, runId, interest);
+            if (recorded != null) {
+                credited.add(recorded.transaction);
+                position = Math.max(position, recorded.position);
+            }
+        }
+        awaitDurable(position);
+        return credited;
+    }
+
+    /**
+     * Applies and journals one interest credit without waiting for durability,
+     * returning {@code null} if the account is skipped.
+     */
+    Recorded applyInterestCredit(String accountId, String runId, Function<Account, Money> interest) {
+        String transactionId = interestCreditId(runId, accountId);
+        Account account = accountService.getAccount(accountId);
+        try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+            if (!account.isActive() || findTransaction(transactionId) != null) {
+                return null;
+            }
+            Money amount = interest.apply(account);
+            if (amount == null || amount.getAmount().signum() <= 0) {
+                return null;
+            }
+            Transaction transaction = new Transaction(transactionId, accountId, TransactionType.INTEREST_CREDIT,
+                    amount, LocalDateTime.now(), "Interest " + runId, null);
+            byte[] record = encode(transaction);
+            account.deposit(amount);
+            long position = record(transaction, record, account, null);
+            account.setJournalPosition(position);
+            return new Recorded(transaction, position);
+        }
+    }
+
+    /**
+     * ID of the interest credit of run {@code runId} to an account; it is the
+     * same every time the run is repeated.
+     */
+    public static String interestCreditId(String runId, String accountId) {
+        if (runId == null || runId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Interest run ID cannot be null or empty");
+        }
+        return INTEREST_CREDIT_PREFIX + runId + "-" + accountId;
+    }
+
+    /**
+     * Re-applies a transaction recovered from the journal record ending at
+     * {@code position}. Its balance effect is replayed on each account whose
+     * state does not already include that record (accounts restored from a
+     * snapshot may), and it is indexed again without being journaled twice.
+     */
+    @Override
+    public void restoreTransaction(Transaction transaction, long position) {
+        restorePosting(Collections.singletonList(transaction), position);
+    }
+
+    @Override
+    public void restoreIndex(Transaction transaction) {
+        index(transaction);
+    }
+
+    /**
+     * Re-applies the transactions of one posting recovered from the journal
+     * record ending at {@code position}, skipping accounts whose state already
+     * includes that record.
+     */
+    @Override
+    public void restorePosting(List<Transaction> postingTransactions, long position) {
+        Set<String> accountIds = new HashSet<>();
+        for (Transaction transaction : postingTransactions) {
+            accountIds.add(transaction.getAccountId());
+            if (transaction.getRelatedAccountId() != null) {
+                accountIds.add(transaction.getRelatedAccountId());
+            }
+        }
+        try (StripedLocks.Held ignored = accountLocks.lockAll(accountIds)) {
+            // Decide per account before applying anything, since every leg shares one position
+            Map<String, Account> stale = new HashMap<>();
+            for (String accountId : accountIds) {
+                Account account = accountService.getAccount(accountId);
+                if (position > account.getJournalPosition()) {
+                    stale.put(accountId, account);
+                }
+            }
+            for (Transaction transaction : postingTransactions) {
+                Account account = stale.get(transaction.getAccountId());
+                switch (transaction.getType()) {
+                    case DEPOSIT:
+                    case INTEREST_CREDIT:
+                        if (account != null) {
+                            account.deposit(transaction.getAmount());
+                        }
+                        break;
+                    case WITHDRAWAL:
+                        if (account != null) {
+                            account.withdraw(transaction.getAmount());
+                        }
+                        break;
+                    case TRANSFER:
+                        if (account != null) {
+                            account.withdraw(transaction.getAmount());
+                        }
+                        Account relatedAccount = stale.get(transaction.getRelatedAccountId());
+                        if (relatedAccount != null) {
+                            relatedAccount.deposit(transaction.getAmount());
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unsupported transaction type: " + transaction.getType());
+                }
+                // Balances are known only for accounts this record is being applied to
+                Account related = transaction.getRelatedAccountId() == null
+                        ? null : stale.get(transaction.getRelatedAccountId());
+                store(transaction, account == null ? null : account.getBalance(),
+                        related == null ? null : related.getBalance());
+            }
+            if (log != null && !log.contains(position)) {
+                log.appendAll(postingTransactions, position);
+            }
+            for (Account account : stale.values()) {
+                account.setJournalPosition(position);
+            }
+        }
+    }
+
+    @Override
     public List<Transaction> getTransactionsByAccount(String accountId) {
-        return transactions.values().stream()
-                .filter(t -> t.getAccountId().equals(accountId) || 
-                           (t.getRelatedAccountId() != null && t.getRelatedAccountId().equals(accountId)))
-                .sorted(Comparator.comparing(Transaction::getTimestamp).reversed())
-                .collect(Collectors.toList());
+        AccountHistory history = histories.get(accountId);
+        return history == null ? new ArrayList<>() : history.newestFirst();
     }
 
+    /**
+     * Returns one page of an account's history, newest first. Pass the previous
+     * page's {@link TransactionPage#getNextCursor()} to continue with older entries.
+     * Limits above {@link #MAX_PAGE_SIZE} are capped to it.
+     */
+    @Override
+    public TransactionPage getTransactionsByAccount(String accountId, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        limit = Math.min(limit, MAX_PAGE_SIZE);
+        HistoryCursor before = cursor == null || cursor.isEmpty() ? null : HistoryCursor.decode(cursor);
+        AccountHistory history = histories.get(accountId);
+        if (history == null) {
+            if (before != null) {
+                throw new IllegalArgumentException("Cursor does not belong to this account history");
+            }
+            return new TransactionPage(new ArrayList<>(), null);
+        }
+        return history.page(before, limit);
+    }
+
+    @Override
     public Transaction getTransaction(String transactionId) {
         Transaction transaction = transactions.get(transactionId);
         if (transaction == null) {
@@ -79,13 +509,359 @@ public class TransactionService {
         return transaction;
     }
 
+    @Override
     public List<Transaction> getAllTransactions() {
         return new ArrayList<>(transactions.values());
     }
 
+    /**
+     * Lazily iterates all transactions without copying the store; the view is weakly
+     * consistent with transactions recorded while the stream is being consumed.
+     */
+    @Override
+    public Stream<Transaction> streamAllTransactions() {
+        return transactions.values().stream();
+    }
+
+    static void validate(BatchEntry entry) {
+        if (entry == null) {
+            throw new IllegalArgumentException("Batch entry cannot be null");
+        }
+        if (entry.getType() == null) {
+            throw new IllegalArgumentException("Transaction type is required");
+        }
+        if (entry.getAccountId() == null || entry.getAccountId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Account ID is required");
+        }
+        if (entry.getAmount() == null || entry.getAmount().getAmount().signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        if (entry.getType() == TransactionType.TRANSFER
+                && (entry.getRelatedAccountId() == null || entry.getRelatedAccountId().trim().isEmpty())) {
+            throw new IllegalArgumentException("Transfer requires a destination account");
+        }
+        if (entry.getDescription() != null && entry.getDescription().length() > Transaction.MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Description cannot exceed " + Transaction.MAX_DESCRIPTION_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * Applies one batch entry's balance change. Must be called while holding the
+     * stripe locks of both accounts.
+     */
+    static void apply(BatchEntry entry, Account source, Account target) {
+        switch (entry.getType()) {
+            case DEPOSIT:
+                source.deposit(entry.getAmount());
+                break;
+            case WITHDRAWAL:
+                source.withdraw(entry.getAmount());
+                break;
+            case TRANSFER:
+                applyAtomically(new Account[] {source, target}, new Money[] {entry.getAmount(), entry.getAmount()},
+                        new boolean[] {true, false});
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported batch transaction type: " + entry.getType());
+        }
+    }
+
+    /**
+     * Withdraws {@code amounts[i]} from (or deposits it into) {@code accounts[i]}
+     * for every leg, or for none: if a leg fails, the legs already applied are
+     * reversed before the failure is rethrown. Must be called while holding the
+     * stripe locks of every account, so no other thread observes the partial state.
+     */
+    static void applyAtomically(Account[] accounts, Money[] amounts, boolean[] debits) {
+        int applied = 0;
+        try {
+            for (; applied < accounts.length; applied++) {
+                if (debits[applied]) {
+                    accounts[applied].withdraw(amounts[applied]);
+                } else {
+                    accounts[applied].deposit(amounts[applied]);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = applied - 1; i >= 0; i--) {
+                if (debits[i]) {
+                    accounts[i].deposit(amounts[i]);
+                } else {
+                    accounts[i].withdraw(amounts[i]);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Decomposes netted posting legs into transfers from debited to credited
+     * accounts of the same currency, matching them greedily in leg order.
+     */
+    static List<Transaction> pairwiseTransfers(List<String> accountIds, Money[] amounts, boolean[] debits,
+                                               String description) {
+        BigDecimal[] remaining = new BigDecimal[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            remaining[i] = amounts[i].getAmount();
+        }
+        List<Transaction> transfers = new ArrayList<>();
+        for (int from = 0; from < amounts.length; from++) {
+            if (!debits[from]) {
+                continue;
+            }
+            String currency = amounts[from].getCurrency();
+            for (int to = 0; to < amounts.length && remaining[from].signum() > 0; to++) {
+                if (debits[to] || remaining[to].signum() == 0 || !currency.equals(amounts[to].getCurrency())) {
+                    continue;
+                }
+                BigDecimal leg = remaining[from].min(remaining[to]);
+                remaining[from] = remaining[from].subtract(leg);
+                remaining[to] = remaining[to].subtract(leg);
+                transfers.add(new Transaction(accountIds.get(from), TransactionType.TRANSFER,
+                        new Money(leg, currency), description, accountIds.get(to)));
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * Encodes a transaction's journal record ({@code null} without a journal)
+     * and checks that the journal still accepts writes. Called before the
+     * transaction is applied, so a record that cannot be written is refused
+     * while no balance has changed yet.
+     */
+    private byte[] encode(Transaction transaction) {
+        if (journal == null) {
+            return null;
+        }
+        journal.checkWritable();
+        return TransactionJournalCodec.encode(transaction);
+    }
+
+    /**
+     * Stores and journals a transaction that has just been applied to
+     * {@code account} (and {@code relatedAccount}, if any), returning its journal
+     * position. Must be called while holding the stripe locks of the accounts it touches.
+     */
+    private long record(Transaction transaction, byte[] record, Account account, Account relatedAccount) {
+        try {
+            store(transaction, account.getBalance(), relatedAccount == null ? null : relatedAccount.getBalance());
+            long position = record == null ? 0 : journal.append(record);
+            if (log != null) {
+                log.append(transaction, position);
+            }
+            return position;
+        } catch (RuntimeException e) {
+            throw halt(e);
+        }
+    }
+
+    /**
+     * Fails the journal after a change was applied but could not be recorded,
+     * so no later write is acknowledged on top of the lost one, and returns
+     * {@code failure} for rethrowing.
+     */
+    private RuntimeException halt(RuntimeException failure) {
+        if (journal != null) {
+            journal.fail(failure);
+        }
+        return failure;
+    }
+
+    private void awaitDurable(long position) {
+        if (journal != null) {
+            journal.awaitDurable(position);
+        }
+    }
+
+    private Transaction awaitDurable(Recorded recorded) {
+        awaitDurable(recorded.position);
+        return recorded.transaction;
+    }
+
+    Journal getJournal() {
+        return journal;
+    }
+
+    StripedLocks getAccountLocks() {
+        return accountLocks;
+    }
+
+    ServiceMetrics getMetrics() {
+        return accountService.getMetrics();
+    }
+
+    /**
+     * Stores a transaction and appends it to the history of every account it
+     * touches, with each account's balance right after it ({@code null} if unknown).
+     */
+    private void store(Transaction transaction, Money balanceAfter, Money relatedBalanceAfter) {
+        index(transaction);
+        appendHistory(transaction.getAccountId(), transaction, balanceAfter);
+        String relatedAccountId = transaction.getRelatedAccountId();
+        if (relatedAccountId != null && !relatedAccountId.equals(transaction.getAccountId())) {
+            appendHistory(relatedAccountId, transaction, relatedBalanceAfter);
+        }
+    }
+
+    /**
+     * Makes a transaction retrievable by ID from this service.
+     */
+    void index(Transaction transaction) {
+        transactions.put(transaction.getTransactionId(), transaction);
+    }
+
+    /**
+     * Appends a transaction to one account's history. Must be called while
+     * holding that account's stripe lock.
+     */
+    void appendHistory(String accountId, Transaction transaction, Money balanceAfter) {
+        histories.computeIfAbsent(accountId, id -> new AccountHistory(accountService.getAccount(id).getOpenedAt()))
+                .append(accountId, transaction, balanceAfter);
+    }
+
+    /**
+     * Balance of each account after each transfer of a posting whose legs have
+     * all been applied already, worked back from the accounts' current balances:
+     * {@code [i][0]} for the source and {@code [i][1]} for the destination of transfer {@code i}.
+     */
+    static Money[][] balancesAfter(List<Transaction> transfers, Account[] accounts) {
+        Map<String, Money> running = new HashMap<>();
+        for (Account account : accounts) {
+            running.put(account.getAccountId(), account.getBalance());
+        }
+        Money[][] balances = new Money[transfers.size()][2];
+        for (int i = transfers.size() - 1; i >= 0; i--) {
+            Transaction transfer = transfers.get(i);
+            balances[i][0] = running.get(transfer.getAccountId());
+            balances[i][1] = running.get(transfer.getRelatedAccountId());
+            running.put(transfer.getAccountId(), balances[i][0].add(transfer.getAmount()));
+            running.put(transfer.getRelatedAccountId(), balances[i][1].subtract(transfer.getAmount()));
+        }
+        return balances;
+    }
+
+    /**
+     * Looks a transaction up by ID, returning {@code null} if this service has not stored it.
+     */
+    Transaction findTransaction(String transactionId) {
+        return transactions.get(transactionId);
+    }
+
+    @Override
     public Money calculateAccountBalance(String accountId) {
         Account account = accountService.getAccount(accountId);
         return account.getBalance();
     }
-}
 
+    /**
+     * Balance as of {@code at}, from the account history's daily checkpoint at or
+     * before it plus at most one day of transactions, so the cost does not grow
+     * with the length of the history. Reads are lock-free except for accounts
+     * without any transactions, whose current balance is read under their lock.
+     * Times before the history's coverage starts (the account's opening, or the
+     * first transaction after it was restored) are rejected.
+     */
+    @Override
+    public Money getBalanceAt(String accountId, LocalDateTime at) {
+        if (at == null) {
+            throw new IllegalArgumentException("Point in time cannot be null");
+        }
+        Account account = accountService.getAccount(accountId);
+        AccountHistory history = histories.get(accountId);
+        if (history == null) {
+            try (StripedLocks.Held ignored = accountLocks.lock(accountId)) {
+                history = histories.get(accountId);
+                if (history == null) {
+                    // Never changed by a transaction since it was opened; unknown before that or after a restore
+                    LocalDateTime openedAt = account.getOpenedAt();
+                    if (openedAt == null || at.isBefore(openedAt)) {
+                        throw notCovered(accountId, at);
+                    }
+                    return account.getBalance();
+                }
+            }
+        }
+        Money balance = history.balanceAt(accountId, at);
+        if (balance == null) {
+            throw notCovered(accountId, at);
+        }
+        return balance;
+    }
+
+    private static IllegalArgumentException notCovered(String accountId, LocalDateTime at) {
+        return new IllegalArgumentException("Balance history of account " + accountId + " does not reach back to " + at);
+    }
+
+    /**
+     * A transaction applied under the account locks, with the journal position
+     * that must become durable before it is acknowledged.
+     */
+    static final class Recorded {
+        final Transaction transaction;
+        final long position;
+
+        Recorded(Transaction transaction, long position) {
+            this.transaction = transaction;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Posting legs validated and netted per account: the accounts whose balance
+     * changes, with the amount each is debited or credited.
+     */
+    static final class NettedPosting {
+        final List<String> accountIds;
+        final Money[] amounts;
+        final boolean[] debits;
+
+        private NettedPosting(List<String> accountIds, Money[] amounts, boolean[] debits) {
+            this.accountIds = accountIds;
+            this.amounts = amounts;
+            this.debits = debits;
+        }
+
+        static NettedPosting of(List<PostingLeg> legs) {
+            if (legs == null || legs.size() < 2) {
+                throw new IllegalArgumentException("A posting needs at least two legs");
+            }
+            Map<String, Money> netByAccount = new LinkedHashMap<>();
+            Map<String, BigDecimal> netByCurrency = new HashMap<>();
+            for (PostingLeg leg : legs) {
+                if (leg == null || leg.getAccountId() == null) {
+                    throw new IllegalArgumentException("Posting leg must name an account");
+                }
+                Money amount = leg.getAmount();
+                if (amount == null || amount.getAmount().signum() <= 0) {
+                    throw new IllegalArgumentException("Posting leg amount must be positive");
+                }
+                Money signed = leg.isDebit() ? new Money(amount.getAmount().negate(), amount.getCurrency()) : amount;
+                netByAccount.merge(leg.getAccountId(), signed, Money::add);
+                netByCurrency.merge(amount.getCurrency(), signed.getAmount(), BigDecimal::add);
+            }
+            for (Map.Entry<String, BigDecimal> net : netByCurrency.entrySet()) {
+                if (net.getValue().signum() != 0) {
+                    throw new IllegalArgumentException("Posting legs do not net to zero in " + net.getKey());
+                }
+            }
+
+            List<String> accountIds = new ArrayList<>();
+            for (Map.Entry<String, Money> net : netByAccount.entrySet()) {
+                if (net.getValue().getAmount().signum() != 0) {
+                    accountIds.add(net.getKey());
+                }
+            }
+            int n = accountIds.size();
+            Money[] amounts = new Money[n];
+            boolean[] debits = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                Money net = netByAccount.get(accountIds.get(i));
+                debits[i] = net.getAmount().signum() < 0;
+                amounts[i] = debits[i] ? new Money(net.getAmount().negate(), net.getCurrency()) : net;
+            }
+            return new NettedPosting(accountIds, amounts, debits);
+        }
+    }
+}
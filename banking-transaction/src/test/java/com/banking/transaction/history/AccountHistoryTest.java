@@ -0,0 +1,98 @@
+package com.banking.transaction.history;
+
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.transaction.domain.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountHistoryTest {
+    private static final String ACCOUNT = "ACC-A";
+    private static final LocalDateTime DAY_1 = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Test
+    void testBalanceAtAcrossDays() {
+        AccountHistory history = new AccountHistory(DAY_1.minusDays(5));
+        // Opened with 100.00; one deposit and one outgoing transfer on day 1, an incoming transfer on day 4
+        append(history, deposit("T1", DAY_1, "50.00"), "150.00");
+        append(history, transfer("T2", ACCOUNT, "ACC-B", DAY_1.plusHours(3), "30.00"), "120.00");
+        append(history, transfer("T3", "ACC-B", ACCOUNT, DAY_1.plusDays(3), "5.00"), "125.00");
+        for (int i = 0; i < 1000; i++) {
+            append(history, deposit("D" + i, DAY_1.plusDays(4).plusSeconds(i), "1.00"), (126 + i) + ".00");
+        }
+
+        assertNull(history.balanceAt(ACCOUNT, DAY_1.minusDays(10)));
+        assertBalance("100.00", history.balanceAt(ACCOUNT, DAY_1.minusDays(5)));
+        assertBalance("100.00", history.balanceAt(ACCOUNT, DAY_1.minusSeconds(1)));
+        assertBalance("150.00", history.balanceAt(ACCOUNT, DAY_1));
+        assertBalance("150.00", history.balanceAt(ACCOUNT, DAY_1.plusHours(2)));
+        assertBalance("120.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(2)));
+        assertBalance("125.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(3).plusHours(1)));
+        assertBalance("125.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(4).minusSeconds(1)));
+        assertBalance("626.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(4).plusSeconds(500)));
+        assertBalance("1125.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(30)));
+    }
+
+    @Test
+    void testHistoryWithoutKnownStart() {
+        AccountHistory history = new AccountHistory();
+        // Replayed entries the restored account state already includes
+        append(history, deposit("T1", DAY_1, "10.00"), null);
+        append(history, deposit("T2", DAY_1.plusHours(1), "10.00"), null);
+        append(history, deposit("T3", DAY_1.plusDays(1), "10.00"), "80.00");
+        append(history, deposit("T4", DAY_1.plusDays(1).plusHours(1), "10.00"), "90.00");
+
+        assertEquals(DAY_1.plusDays(1), history.getCoversFrom());
+        assertNull(history.balanceAt(ACCOUNT, DAY_1.plusHours(2)));
+        // The balance before the first known one is the restored state, whose time is unknown
+        assertNull(history.balanceAt(ACCOUNT, DAY_1.plusDays(1).toLocalDate().atStartOfDay()));
+        assertBalance("80.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(1)));
+        assertBalance("90.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(2)));
+    }
+
+    @Test
+    void testHistoryStartingAfterRestore() {
+        AccountHistory history = new AccountHistory();
+        assertNull(history.balanceAt(ACCOUNT, DAY_1));
+        // First transaction after a restore, on a later day than the restored state
+        append(history, deposit("T1", DAY_1.plusDays(3).plusHours(2), "10.00"), "60.00");
+
+        assertNull(history.balanceAt(ACCOUNT, DAY_1));
+        assertNull(history.balanceAt(ACCOUNT, DAY_1.plusDays(3)));
+        assertBalance("60.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(3).plusHours(2)));
+        assertBalance("60.00", history.balanceAt(ACCOUNT, DAY_1.plusDays(10)));
+    }
+
+    @Test
+    void testChangePerTransactionType() {
+        Money amount = new Money(new BigDecimal("2.50"), "USD");
+        assertEquals(0, new BigDecimal("2.50").compareTo(AccountHistory.change(ACCOUNT,
+                new Transaction("I", ACCOUNT, TransactionType.INTEREST_CREDIT, amount, DAY_1, "", null))));
+        assertEquals(0, new BigDecimal("-2.50").compareTo(AccountHistory.change(ACCOUNT,
+                new Transaction("W", ACCOUNT, TransactionType.WITHDRAWAL, amount, DAY_1, "", null))));
+        assertEquals(0, BigDecimal.ZERO.compareTo(AccountHistory.change(ACCOUNT,
+                new Transaction("S", ACCOUNT, TransactionType.TRANSFER, amount, DAY_1, "", ACCOUNT))));
+    }
+
+    private static void append(AccountHistory history, Transaction transaction, String balanceAfter) {
+        history.append(ACCOUNT, transaction, balanceAfter == null ? null : new Money(new BigDecimal(balanceAfter), "USD"));
+    }
+
+    private static Transaction deposit(String id, LocalDateTime timestamp, String amount) {
+        return new Transaction(id, ACCOUNT, TransactionType.DEPOSIT, new Money(new BigDecimal(amount), "USD"),
+                timestamp, "", null);
+    }
+
+    private static Transaction transfer(String id, String from, String to, LocalDateTime timestamp, String amount) {
+        return new Transaction(id, from, TransactionType.TRANSFER, new Money(new BigDecimal(amount), "USD"),
+                timestamp, "", to);
+    }
+
+    private static void assertBalance(String expected, Money actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.getAmount()), "Balance " + actual);
+    }
+}
@@ -0,0 +1,188 @@
+package com.banking.transaction.interest;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.account.snapshot.AccountSnapshotter;
+import com.banking.account.snapshot.SnapshotStats;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.journal.Journal;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.JournalRecovery;
+import com.banking.transaction.service.ShardedTransactionService;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterestAccrualEngineTest {
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCreditsInterestBearingAccountsOnce() {
+        AccountService accountService = new AccountService();
+        TransactionService transactionService = new TransactionService(accountService);
+        Account savings = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(1000.00, "USD"));
+        Account deposit = accountService.createAccount("CUST001", AccountType.FIXED_DEPOSIT, new Money(36500.00, "JPY"));
+        Account checking = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(1000.00, "USD"));
+        Account empty = accountService.createAccount("CUST002", AccountType.SAVINGS, new Money(0.00, "USD"));
+        Account inactive = accountService.createAccount("CUST003", AccountType.SAVINGS, new Money(500.00, "USD"));
+        accountService.deactivateAccount(inactive.getAccountId());
+
+        try (InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService, null, 2, 2)) {
+            InterestRunStats stats = engine.run("2025-03", InterestPolicy.forMonth(MARCH, rates()));
+            assertTrue(stats.isComplete());
+            assertEquals(4, stats.getAccountCount());
+            assertEquals(2, stats.getCreditedCount());
+
+            // 1000 * 0.02 * 31 / 365 = 1.6986..., and JPY has no minor unit
+            assertBalance("1001.70", savings);
+            assertBalance("36655", deposit);
+            assertBalance("1000.00", checking);
+            assertBalance("0.00", empty);
+            assertBalance("500.00", inactive);
+
+            List<Transaction> history = transactionService.getTransactionsByAccount(savings.getAccountId());
+            assertEquals(1, history.size());
+            assertEquals(TransactionType.INTEREST_CREDIT, history.get(0).getType());
+            assertEquals(TransactionService.interestCreditId("2025-03", savings.getAccountId()),
+                    history.get(0).getTransactionId());
+
+            // The same run credits nobody twice; the next period credits again
+            assertEquals(0, engine.run("2025-03", InterestPolicy.forMonth(MARCH, rates())).getCreditedCount());
+            assertBalance("1001.70", savings);
+            assertEquals(2, engine.run("2025-04", InterestPolicy.forMonth(MARCH.plusMonths(1), rates()))
+                    .getCreditedCount());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new InterestAccrualEngine(accountService, transactionService, null).run("2025/03",
+                        InterestPolicy.forMonth(MARCH, rates())));
+    }
+
+    @Test
+    void testShardedAccounts() {
+        ShardedAccountService accountService = new ShardedAccountService(4);
+        try (ShardedTransactionService transactionService = new ShardedTransactionService(accountService);
+             InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService, null, 4, 8)) {
+            List<String> accountIds = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                accountIds.add(accountService.createAccount("CUST" + i, AccountType.SAVINGS,
+                        new Money(365.00, "USD")).getAccountId());
+            }
+            InterestRunStats stats = engine.run("2025-03", new InterestPolicy(rates(), 10));
+            assertEquals(100, stats.getCreditedCount());
+            for (String accountId : accountIds) {
+                assertBalance("365.20", accountService.getAccount(accountId));
+                assertEquals(1, transactionService.getTransactionsByAccount(accountId).size());
+            }
+            assertEquals("USD", accountService.getBalanceTotals().get(0).getCurrency());
+            assertEquals(0, new BigDecimal("36520.00").compareTo(
+                    accountService.getBalanceTotals().get(0).getBalance().getAmount()));
+        }
+    }
+
+    @Test
+    void testResumesAfterFailureAcrossSnapshotRestore() {
+        Path journalFile = tempDir.resolve("ledger.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        Path state = tempDir.resolve("interest");
+        List<String> accountIds = new ArrayList<>();
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            for (int i = 0; i < 20; i++) {
+                accountIds.add(accountService.createAccount("CUST" + i, AccountType.SAVINGS,
+                        new Money(365.00, "USD")).getAccountId());
+            }
+            String failing = accountIds.get(7);
+            InterestPolicy failingPolicy = new InterestPolicy(rates(), 10) {
+                @Override
+                public Money interestOn(Account account) {
+                    if (account.getAccountId().equals(failing)) {
+                        throw new IllegalStateException("Simulated failure");
+                    }
+                    return super.interestOn(account);
+                }
+            };
+            try (InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService, state,
+                    1, 1)) {
+                assertThrows(IllegalStateException.class, () -> engine.run("2025-03", failingPolicy));
+            }
+            // The snapshot covers the credits made so far, so restart does not replay them
+            try (AccountSnapshotter snapshotter = new AccountSnapshotter(accountService, snapshots)) {
+                snapshotter.snapshot();
+            }
+        }
+
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            try (AccountSnapshotter snapshotter = new AccountSnapshotter(accountService, snapshots)) {
+                SnapshotStats restored = snapshotter.restoreLatest().orElseThrow(AssertionError::new);
+                JournalRecovery.recover(journal, accountService, transactionService, restored.getJournalPosition());
+            }
+            try (InterestAccrualEngine engine = new InterestAccrualEngine(accountService, transactionService, state,
+                    2, 3)) {
+                InterestRunStats stats = engine.run("2025-03", new InterestPolicy(rates(), 10));
+                assertTrue(stats.isResumed());
+                assertTrue(stats.isComplete());
+                assertTrue(stats.getCreditedCount() >= 1 && stats.getCreditedCount() <= 20,
+                        "Credited " + stats.getCreditedCount());
+                LocalDateTime now = LocalDateTime.now();
+                long inHistory = 0;
+                for (String accountId : accountIds) {
+                    assertBalance("365.20", accountService.getAccount(accountId));
+                    assertNotNull(transactionService.getTransaction(
+                            TransactionService.interestCreditId("2025-03", accountId)));
+                    // Credits from before the snapshot are indexed, not appended to the history again
+                    List<Transaction> history = transactionService.getTransactionsByAccount(accountId);
+                    assertTrue(history.size() <= 1, accountId + " history " + history);
+                    inHistory += history.size();
+                    if (history.isEmpty()) {
+                        // Restored from the snapshot and unchanged since, so its history covers no time yet
+                        assertThrows(IllegalArgumentException.class,
+                                () -> transactionService.getBalanceAt(accountId, now));
+                    } else {
+                        assertEquals(0, new BigDecimal("365.20").compareTo(
+                                transactionService.getBalanceAt(accountId, now).getAmount()), accountId);
+                    }
+                }
+                assertEquals(stats.getCreditedCount(), inHistory);
+
+                // A completed run is not walked again
+                InterestRunStats again = engine.run("2025-03", new InterestPolicy(rates(), 10));
+                assertEquals(0, again.getAccountCount());
+                assertTrue(again.isComplete());
+            }
+        }
+    }
+
+    private static Map<AccountType, BigDecimal> rates() {
+        Map<AccountType, BigDecimal> rates = new EnumMap<>(AccountType.class);
+        rates.put(AccountType.SAVINGS, new BigDecimal("0.02"));
+        rates.put(AccountType.FIXED_DEPOSIT, new BigDecimal("0.05"));
+        return rates;
+    }
+
+    private static void assertBalance(String expected, Account account) {
+        assertEquals(0, new BigDecimal(expected).compareTo(account.getBalance().getAmount()),
+                "Balance " + account.getBalance());
+    }
+}
@@ -0,0 +1,238 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.account.store.OffHeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.exception.JournalException;
+import com.banking.core.id.IdGenerator;
+import com.banking.core.id.IdGenerators;
+import com.banking.core.id.TimeOrderedIdGenerator;
+import com.banking.core.journal.Journal;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalRecoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecoveryRebuildsAccountsAndTransactions() {
+        Path file = tempDir.resolve("ledger.journal");
+        String savingsId;
+        String checkingId;
+        Transaction transfer;
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            Account savings = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+            Account checking = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(50.0, "USD"));
+            savingsId = savings.getAccountId();
+            checkingId = checking.getAccountId();
+            transactionService.deposit(savingsId, new Money(25.5, "USD"), "Deposit");
+            transactionService.withdraw(checkingId, new Money(10.0, "USD"), "Withdrawal");
+            transfer = transactionService.transfer(savingsId, checkingId, new Money(40.0, "USD"), "Transfer");
+            accountService.deactivateAccount(checkingId);
+        }
+
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertEquals(6, JournalRecovery.recover(journal, accountService, transactionService));
+
+            assertEquals(85.5, accountService.getBalance(savingsId).getAmount().doubleValue());
+            assertEquals(80.0, accountService.getBalance(checkingId).getAmount().doubleValue());
+            assertFalse(accountService.getAccount(checkingId).isActive());
+            assertEquals(1, accountService.getAccountsByCustomer("CUST001").size());
+
+            Transaction recovered = transactionService.getTransaction(transfer.getTransactionId());
+            assertEquals(transfer.getTimestamp(), recovered.getTimestamp());
+            assertEquals(checkingId, recovered.getRelatedAccountId());
+            assertEquals(2, transactionService.getTransactionsByAccount(savingsId).size());
+            assertEquals(2, transactionService.getTransactionsByAccount(checkingId).size());
+
+            // Recovered services keep journaling new changes
+            accountService.activateAccount(checkingId);
+            transactionService.deposit(checkingId, new Money(1.0, "USD"), "After restart");
+        }
+
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertEquals(8, JournalRecovery.recover(journal, accountService, transactionService));
+            assertEquals(81.0, accountService.getBalance(checkingId).getAmount().doubleValue());
+            assertThrows(InvalidAccountException.class, () -> accountService.getAccount("UNKNOWN"));
+        }
+    }
+
+    @Test
+    void testRecoveredIdsAreNotIssuedAgain() {
+        Path file = tempDir.resolve("ledger.journal");
+        IdGenerator previous = IdGenerators.getDefault();
+        try {
+            // IDs an hour ahead of the clock, as if the clock stepped back across the restart
+            TimeOrderedIdGenerator ahead = new TimeOrderedIdGenerator(0);
+            ahead.advancePast((System.currentTimeMillis() + 3_600_000 - TimeOrderedIdGenerator.EPOCH_MILLIS) << 22);
+            IdGenerators.setDefault(ahead);
+            String accountId;
+            String transactionId;
+            try (Journal journal = new Journal(file)) {
+                AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+                TransactionService transactionService = new TransactionService(accountService);
+                accountId = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"))
+                        .getAccountId();
+                transactionId = transactionService.deposit(accountId, new Money(1.0, "USD"), "Deposit")
+                        .getTransactionId();
+            }
+
+            IdGenerators.setDefault(new TimeOrderedIdGenerator(0));
+            try (Journal journal = new Journal(file)) {
+                AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+                TransactionService transactionService = new TransactionService(accountService);
+                JournalRecovery.recover(journal, accountService, transactionService);
+
+                String next = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(5.0, "USD"))
+                        .getAccountId();
+                assertTrue(next.compareTo(accountId) > 0 && next.compareTo(transactionId) > 0, next);
+                assertEquals(101.0, accountService.getBalance(accountId).getAmount().doubleValue());
+            }
+        } finally {
+            IdGenerators.setDefault(previous);
+        }
+    }
+
+    @Test
+    void testRecoveryReplaysPostingAsOneRecord() {
+        Path file = tempDir.resolve("ledger.journal");
+        String payerId;
+        String merchantId;
+        String feesId;
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            payerId = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD")).getAccountId();
+            merchantId = accountService.createAccount("CUST002", AccountType.CURRENT, new Money(0.0, "USD")).getAccountId();
+            feesId = accountService.createAccount("BANK", AccountType.CURRENT, new Money(0.0, "USD")).getAccountId();
+            transactionService.post(Arrays.asList(
+                PostingLeg.debit(payerId, new Money(60.0, "USD")),
+                PostingLeg.credit(merchantId, new Money(58.0, "USD")),
+                PostingLeg.credit(feesId, new Money(2.0, "USD"))
+            ), "Card payment");
+        }
+
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertEquals(4, JournalRecovery.recover(journal, accountService, transactionService));
+            assertEquals(40.0, accountService.getBalance(payerId).getAmount().doubleValue());
+            assertEquals(58.0, accountService.getBalance(merchantId).getAmount().doubleValue());
+            assertEquals(2.0, accountService.getBalance(feesId).getAmount().doubleValue());
+            assertEquals(2, transactionService.getTransactionsByAccount(payerId).size());
+        }
+    }
+
+    @Test
+    void testChangesThatCannotBeJournaledAreRefusedBeforeApplying() {
+        Path file = tempDir.resolve("ledger.journal");
+        String accountId;
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            accountId = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"))
+                    .getAccountId();
+            String targetId = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"))
+                    .getAccountId();
+            char[] chars = new char[70_000];
+            Arrays.fill(chars, '\u20ac');
+            String tooLong = new String(chars);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> transactionService.deposit(accountId, new Money(5.0, "USD"), tooLong));
+            assertThrows(IllegalArgumentException.class,
+                    () -> transactionService.transfer(accountId, targetId, new Money(5.0, "USD"), tooLong));
+            assertThrows(IllegalArgumentException.class, () -> transactionService.post(Arrays.asList(
+                PostingLeg.debit(accountId, new Money(5.0, "USD")),
+                PostingLeg.credit(targetId, new Money(5.0, "USD"))
+            ), tooLong));
+            List<BatchResult> results = transactionService.processBatch(Collections.singletonList(
+                BatchEntry.withdrawal(accountId, new Money(5.0, "USD"), tooLong)));
+            assertFalse(results.get(0).isApplied());
+            assertEquals(100.0, accountService.getBalance(accountId).getAmount().doubleValue());
+            assertEquals(0.0, accountService.getBalance(targetId).getAmount().doubleValue());
+            assertTrue(transactionService.getTransactionsByAccount(accountId).isEmpty());
+
+            // Once the journal has failed, nothing more is applied
+            journal.fail(new IllegalStateException("disk gone"));
+            assertThrows(JournalException.class,
+                    () -> transactionService.withdraw(accountId, new Money(5.0, "USD"), "Withdrawal"));
+            assertEquals(100.0, accountService.getBalance(accountId).getAmount().doubleValue());
+            assertTrue(transactionService.getTransactionsByAccount(accountId).isEmpty());
+        }
+
+        try (Journal journal = new Journal(file)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertEquals(2, JournalRecovery.recover(journal, accountService, transactionService));
+            assertEquals(100.0, accountService.getBalance(accountId).getAmount().doubleValue());
+        }
+    }
+
+    @Test
+    void testRecoveryResumesAfterCleanOffHeapTable() {
+        Path file = tempDir.resolve("ledger.journal");
+        Path table = tempDir.resolve("accounts.table");
+        String fromId;
+        String toId;
+        try (Journal journal = new Journal(file);
+             OffHeapAccountStore store = new OffHeapAccountStore(table)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS,
+                    journal, store);
+            TransactionService transactionService = new TransactionService(accountService);
+            fromId = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD")).getAccountId();
+            toId = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD")).getAccountId();
+            transactionService.transfer(fromId, toId, new Money(30.0, "USD"), "Transfer");
+        }
+
+        // A process that never closes its table leaves a journal tail the table must not miss
+        try (Journal journal = new Journal(file)) {
+            OffHeapAccountStore store = new OffHeapAccountStore(table);
+            assertTrue(store.isRestored());
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS,
+                    journal, store);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertEquals(0, JournalRecovery.recover(journal, accountService, transactionService,
+                    store.getRestoredJournalPosition()));
+            assertEquals(70.0, accountService.getBalance(fromId).getAmount().doubleValue());
+            transactionService.deposit(toId, new Money(5.0, "USD"), "Deposit");
+        }
+
+        try (Journal journal = new Journal(file);
+             OffHeapAccountStore store = new OffHeapAccountStore(table)) {
+            assertFalse(store.isRestored());
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.ATOMIC_MINOR_UNITS,
+                    journal, store);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertEquals(4, JournalRecovery.recover(journal, accountService, transactionService,
+                    store.getRestoredJournalPosition()));
+            assertEquals(70.0, accountService.getBalance(fromId).getAmount().doubleValue());
+            assertEquals(35.0, accountService.getBalance(toId).getAmount().doubleValue());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.banking.transaction.journal;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.account.snapshot.AccountSnapshotter;
+import com.banking.account.snapshot.SnapshotStats;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.journal.Journal;
+import com.banking.core.journal.JournalRecordType;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotRecoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRestoreSnapshotAndReplayOnlyTheTail() {
+        Path journalFile = tempDir.resolve("ledger.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        String aId;
+        String bId;
+        String lateId;
+        SnapshotStats written;
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            Account a = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+            Account b = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(50.0, "EUR"));
+            aId = a.getAccountId();
+            bId = b.getAccountId();
+            for (int i = 0; i < 100; i++) {
+                transactionService.deposit(aId, new Money(1.0, "USD"), "Before snapshot");
+            }
+
+            written = new AccountSnapshotter(accountService, snapshots).snapshot();
+            assertEquals(2, written.getAccountCount());
+            assertTrue(written.getSizeBytes() > 0);
+
+            transactionService.withdraw(aId, new Money(20.0, "USD"), "After snapshot");
+            accountService.deactivateAccount(bId);
+            lateId = accountService.createAccount("CUST003", AccountType.CURRENT, new Money(7.0, "USD")).getAccountId();
+        }
+
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            AccountSnapshotter snapshotter = new AccountSnapshotter(accountService, snapshots);
+            Optional<SnapshotStats> restored = snapshotter.restoreLatest();
+            assertTrue(restored.isPresent());
+            assertEquals(written.getJournalPosition(), restored.get().getJournalPosition());
+
+            long replayed = JournalRecovery.recover(journal, accountService, transactionService,
+                    restored.get().getJournalPosition());
+            assertEquals(3, replayed);
+
+            assertEquals(180.0, accountService.getBalance(aId).getAmount().doubleValue());
+            assertEquals("EUR", accountService.getBalance(bId).getCurrency());
+            assertFalse(accountService.getAccount(bId).isActive());
+            assertEquals(7.0, accountService.getBalance(lateId).getAmount().doubleValue());
+            assertEquals(1, transactionService.getTransactionsByAccount(aId).size());
+        }
+    }
+
+    @Test
+    void testBalanceHistoryStartsAtTheRestorePoint() throws InterruptedException {
+        Path journalFile = tempDir.resolve("ledger.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        String accountId;
+        String lateId;
+        LocalDateTime lateOpenedAt;
+        LocalDateTime beforeSnapshot;
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            accountId = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"))
+                    .getAccountId();
+            transactionService.deposit(accountId, new Money(50.0, "USD"), "Before snapshot");
+            Thread.sleep(2);
+            beforeSnapshot = LocalDateTime.now();
+            Thread.sleep(2);
+            transactionService.deposit(accountId, new Money(25.0, "USD"), "Before snapshot");
+            new AccountSnapshotter(accountService, snapshots).snapshot();
+
+            transactionService.withdraw(accountId, new Money(5.0, "USD"), "After snapshot");
+            Account late = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(7.0, "USD"));
+            lateId = late.getAccountId();
+            lateOpenedAt = late.getOpenedAt();
+        }
+
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            SnapshotStats restored = new AccountSnapshotter(accountService, snapshots).restoreLatest().get();
+            JournalRecovery.recover(journal, accountService, transactionService, restored.getJournalPosition());
+
+            LocalDateTime now = LocalDateTime.now();
+            assertEquals(170.0, transactionService.getBalanceAt(accountId, now).getAmount().doubleValue());
+            // The history only starts with the withdrawal replayed after the snapshot
+            assertThrows(IllegalArgumentException.class, () -> transactionService.getBalanceAt(accountId, beforeSnapshot));
+
+            // Opened after the snapshot, so the journal replays its whole history from the opening
+            assertEquals(lateOpenedAt, accountService.getAccount(lateId).getOpenedAt());
+            assertEquals(7.0, transactionService.getBalanceAt(lateId, lateOpenedAt).getAmount().doubleValue());
+            assertThrows(IllegalArgumentException.class,
+                    () -> transactionService.getBalanceAt(lateId, lateOpenedAt.minusSeconds(1)));
+        }
+    }
+
+    @Test
+    void testSnapshotTakenWhileAnAccountOpensIncludesIt() throws Exception {
+        Path journalFile = tempDir.resolve("ledger.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        CountDownLatch opening = new CountDownLatch(1);
+        String accountId;
+        // Holds the opener just after its ACCOUNT_OPENED record is appended
+        try (Journal journal = new Journal(journalFile) {
+            @Override
+            public long append(byte[] payload) {
+                long position = super.append(payload);
+                if (JournalRecordType.of(payload) == JournalRecordType.ACCOUNT_OPENED) {
+                    opening.countDown();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+                }
+                return position;
+            }
+        }) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            AccountSnapshotter snapshotter = new AccountSnapshotter(accountService, snapshots);
+            ExecutorService opener = Executors.newSingleThreadExecutor();
+            Future<Account> opened = opener.submit(() -> accountService.createAccount("CUST001", AccountType.SAVINGS,
+                    new Money(10.0, "USD")));
+            assertTrue(opening.await(30, TimeUnit.SECONDS));
+            SnapshotStats stats = snapshotter.snapshot();
+            assertEquals(1, stats.getAccountCount());
+            accountId = opened.get(30, TimeUnit.SECONDS).getAccountId();
+            opener.shutdown();
+            transactionService.deposit(accountId, new Money(1.0, "USD"), "After snapshot");
+        }
+
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            Optional<SnapshotStats> restored = new AccountSnapshotter(accountService, snapshots).restoreLatest();
+            assertTrue(restored.isPresent());
+            JournalRecovery.recover(journal, accountService, transactionService, restored.get().getJournalPosition());
+            assertEquals(11.0, accountService.getBalance(accountId).getAmount().doubleValue());
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotFallsBackToFullReplay() throws Exception {
+        Path journalFile = tempDir.resolve("ledger.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        String accountId;
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            accountId = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(10.0, "USD")).getAccountId();
+            SnapshotStats stats = new AccountSnapshotter(accountService, snapshots).snapshot();
+            java.nio.file.Files.write(stats.getFile(), new byte[] {1, 2, 3});
+        }
+
+        try (Journal journal = new Journal(journalFile)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService);
+            assertFalse(new AccountSnapshotter(accountService, snapshots).restoreLatest().isPresent());
+            JournalRecovery.recover(journal, accountService, transactionService);
+            assertEquals(10.0, accountService.getBalance(accountId).getAmount().doubleValue());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.banking.transaction.log;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.journal.Journal;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.JournalRecovery;
+import com.banking.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionLogTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 30, 0, 123_456_789);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecordsRoundTrip() {
+        Transaction deposit = new Transaction("0000000000001", "ACC-A", TransactionType.DEPOSIT,
+                new Money(new BigDecimal("125.50"), "USD"), START, "Salary", null);
+        Transaction transfer = new Transaction("legacy-42", "ACC-A", TransactionType.TRANSFER,
+                new Money(new BigDecimal("-0.001"), "BTC"), START.plusSeconds(1), "", "ACC-B");
+        try (ColumnarTransactionLog log = new ColumnarTransactionLog(tempDir.resolve("log"))) {
+            log.append(deposit, 10);
+            log.append(transfer, 20);
+
+            List<Transaction> read = new ArrayList<>();
+            assertEquals(2, log.scan(null, null, record -> read.add(record.toTransaction())));
+            assertRoundTrip(deposit, read.get(0));
+            assertRoundTrip(transfer, read.get(1));
+
+            LogRecord record = log.read(1, log.newRecord());
+            assertEquals(-1, record.getAmountUnscaled());
+            assertEquals(3, record.getAmountScale());
+            assertEquals(20, record.getJournalPosition());
+            assertEquals(0, log.read(0, log.newRecord()).getAccountIndex());
+            assertEquals(record.getAccountIndex(), log.read(0, log.newRecord()).getAccountIndex());
+            assertThrows(IndexOutOfBoundsException.class, () -> log.read(2, log.newRecord()));
+        }
+    }
+
+    @Test
+    void testAccountAndRangeScansAcrossSegments() {
+        int records = 3 * ColumnarTransactionLog.BLOCK_SIZE + 17;
+        try (ColumnarTransactionLog log = new ColumnarTransactionLog(tempDir.resolve("log"),
+                ColumnarTransactionLog.BLOCK_SIZE, 1024)) {
+            for (int i = 0; i < records; i++) {
+                String related = i % 3 == 0 ? "ACC-B" : null;
+                log.append(new Transaction("T" + i, i % 2 == 0 ? "ACC-A" : "ACC-C",
+                        related == null ? TransactionType.DEPOSIT : TransactionType.TRANSFER,
+                        new Money(i, "EUR"), START.plusSeconds(i), "Entry " + i, related), i + 1);
+            }
+            assertEquals(records, log.size());
+
+            long[] sum = new long[1];
+            assertEquals(100, log.scan(START.plusSeconds(5000), START.plusSeconds(5100), record -> {
+                assertTrue(!record.getTimestamp().isBefore(START.plusSeconds(5000)));
+                sum[0] += record.getAmount().getAmount().longValue();
+            }));
+            assertEquals((5000 + 5099) * 100 / 2, sum[0]);
+
+            // A statement includes transfers where the account is the counterparty
+            List<String> statement = new ArrayList<>();
+            log.scanAccount("ACC-B", START, START.plusSeconds(30), record -> statement.add(record.getDescription()));
+            assertEquals(Arrays.asList("Entry 0", "Entry 3", "Entry 6", "Entry 9", "Entry 12", "Entry 15",
+                    "Entry 18", "Entry 21", "Entry 24", "Entry 27"), statement);
+            assertEquals((records + 1) / 2, log.scanAccount("ACC-A", null, null, record -> { }));
+            assertEquals(0, log.scanAccount("ACC-UNKNOWN", null, null, record -> { }));
+        }
+    }
+
+    @Test
+    void testStatementReadsOnlyTheAccountsBlocks() {
+        Path directory = tempDir.resolve("log");
+        int records = 4 * ColumnarTransactionLog.BLOCK_SIZE;
+        try (ColumnarTransactionLog log = new ColumnarTransactionLog(directory,
+                ColumnarTransactionLog.BLOCK_SIZE, 1024)) {
+            for (int i = 0; i < records; i++) {
+                // ACC-RARE only appears in the first and the last block, once as the counterparty
+                boolean rare = i == 10 || i == records - 10;
+                log.append(new Transaction("T" + i, "ACC-BUSY", rare ? TransactionType.TRANSFER : TransactionType.DEPOSIT,
+                        new Money(1, "USD"), START.plusSeconds(i), null, rare ? "ACC-RARE" : null), i + 1);
+            }
+            assertEquals(2, log.accountBlockCount("ACC-RARE"));
+            assertEquals(4, log.accountBlockCount("ACC-BUSY"));
+            assertEquals(0, log.accountBlockCount("ACC-UNKNOWN"));
+            assertEquals(2, log.scanAccount("ACC-RARE", null, null, record -> { }));
+        }
+
+        try (ColumnarTransactionLog log = new ColumnarTransactionLog(directory)) {
+            assertEquals(2, log.accountBlockCount("ACC-RARE"));
+            // Cut back into the third block; the last block's records go
+            log.truncateAfter(3 * ColumnarTransactionLog.BLOCK_SIZE - 5);
+            assertEquals(1, log.accountBlockCount("ACC-RARE"));
+            assertEquals(1, log.scanAccount("ACC-RARE", null, null, record -> { }));
+
+            log.append(new Transaction("T-LATE", "ACC-RARE", TransactionType.DEPOSIT, new Money(1, "USD"),
+                    START.plusDays(1), null, null), records + 1);
+            assertEquals(2, log.accountBlockCount("ACC-RARE"));
+            assertEquals(2, log.scanAccount("ACC-RARE", null, null, record -> { }));
+            assertEquals(3 * ColumnarTransactionLog.BLOCK_SIZE - 5, log.scanAccount("ACC-BUSY", null, null, record -> { }));
+        }
+    }
+
+    @Test
+    void testReopenAndTruncateAfterDurablePosition() {
+        Path directory = tempDir.resolve("log");
+        try (ColumnarTransactionLog log = new ColumnarTransactionLog(directory)) {
+            for (int i = 1; i <= 5; i++) {
+                log.append(new Transaction("T" + i, "ACC-" + i, TransactionType.DEPOSIT, new Money(i, "USD"),
+                        START.plusMinutes(i), "Deposit " + i, null), i * 100);
+            }
+        }
+
+        try (ColumnarTransactionLog log = new ColumnarTransactionLog(directory)) {
+            assertEquals(5, log.size());
+            assertEquals("Deposit 5", log.read(4, log.newRecord()).getDescription());
+            assertEquals("ACC-3", log.read(2, log.newRecord()).getAccountId());
+            assertTrue(log.contains(300));
+            assertFalse(log.contains(350));
+
+            log.truncateAfter(300);
+            assertEquals(3, log.size());
+            assertFalse(log.contains(400));
+            assertEquals(0, log.scan(START.plusMinutes(4), null, record -> { }));
+
+            log.append(new Transaction("T6", "ACC-1", TransactionType.WITHDRAWAL, new Money(1, "USD"),
+                    START.plusMinutes(6), "Withdrawal", null), 400);
+            assertEquals(2, log.scanAccount("ACC-1", null, null, record -> { }));
+        }
+    }
+
+    @Test
+    void testServiceAppendsOnceAcrossJournalReplay() {
+        Path journalFile = tempDir.resolve("ledger.journal");
+        Path logDirectory = tempDir.resolve("log");
+        String savingsId;
+        String checkingId;
+        try (Journal journal = new Journal(journalFile);
+             ColumnarTransactionLog log = new ColumnarTransactionLog(logDirectory)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService, log);
+            Account savings = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+            Account checking = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+            savingsId = savings.getAccountId();
+            checkingId = checking.getAccountId();
+            transactionService.deposit(savingsId, new Money(25.0, "USD"), "Deposit");
+            transactionService.transfer(savingsId, checkingId, new Money(40.0, "USD"), "Transfer");
+            assertEquals(2, log.size());
+        }
+
+        // Replay finds both transactions already in the log
+        try (Journal journal = new Journal(journalFile);
+             ColumnarTransactionLog log = new ColumnarTransactionLog(logDirectory)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService, log);
+            JournalRecovery.recover(journal, accountService, transactionService);
+            assertEquals(2, log.size());
+            transactionService.withdraw(checkingId, new Money(5.0, "USD"), "Withdrawal");
+            assertEquals(2, log.scanAccount(checkingId, null, null, record -> { }));
+        }
+
+        // A fresh log is filled from the journal
+        Path rebuilt = tempDir.resolve("rebuilt");
+        try (Journal journal = new Journal(journalFile);
+             ColumnarTransactionLog log = new ColumnarTransactionLog(rebuilt)) {
+            AccountService accountService = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService transactionService = new TransactionService(accountService, log);
+            JournalRecovery.recover(journal, accountService, transactionService);
+            List<String> statement = new ArrayList<>();
+            log.scanAccount(savingsId, null, null, record -> statement.add(record.getType().name()));
+            assertEquals(Arrays.asList("DEPOSIT", "TRANSFER"), statement);
+            assertEquals(3, log.size());
+        }
+    }
+
+    private static void assertRoundTrip(Transaction expected, Transaction actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getAccountId(), actual.getAccountId());
+        assertEquals(expected.getRelatedAccountId(), actual.getRelatedAccountId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getAmount().getCurrency(), actual.getAmount().getCurrency());
+        assertEquals(0, expected.getAmount().getAmount().compareTo(actual.getAmount().getAmount()));
+    }
+}
@@ -0,0 +1,185 @@
+package com.banking.transaction.service;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.AccountService;
+import com.banking.core.concurrent.StripedLocks;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.domain.TransactionType;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.Journal;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.JournalRecovery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequencedTransactionServiceTest {
+
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private SequencedTransactionService sequencer;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+        sequencer = new SequencedTransactionService(transactionService, 4, 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.close();
+    }
+
+    @Test
+    void testCommandsCompleteFutures() throws Exception {
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+
+        Transaction deposit = sequencer.deposit(from.getAccountId(), new Money(50.0, "USD"), "Deposit")
+            .get(10, TimeUnit.SECONDS);
+        Transaction transfer = sequencer.transfer(from.getAccountId(), to.getAccountId(), new Money(120.0, "USD"), "Transfer")
+            .get(10, TimeUnit.SECONDS);
+
+        assertEquals(TransactionType.DEPOSIT, deposit.getType());
+        assertEquals(TransactionType.TRANSFER, transfer.getType());
+        assertEquals(30.0, from.getBalance().getAmount().doubleValue());
+        assertEquals(120.0, to.getBalance().getAmount().doubleValue());
+        assertEquals(2, transactionService.getTransactionsByAccount(from.getAccountId()).size());
+    }
+
+    @Test
+    void testFailedCommandCompletesExceptionally() throws Exception {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(10.0, "USD"));
+
+        CompletableFuture<Transaction> withdrawal = sequencer.withdraw(account.getAccountId(), new Money(50.0, "USD"), "Too much");
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> withdrawal.get(10, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof InsufficientFundsException);
+
+        // The writer keeps going after a rejected command
+        sequencer.deposit(account.getAccountId(), new Money(5.0, "USD"), "Deposit").get(10, TimeUnit.SECONDS);
+        assertEquals(15.0, account.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testCommandsForOneAccountApplyInPublicationOrder() throws Exception {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+        List<CompletableFuture<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(sequencer.deposit(account.getAccountId(), new Money(1.0, "USD"), "Deposit " + i));
+            // Only succeeds if the deposit published just before it was applied first
+            futures.add(sequencer.withdraw(account.getAccountId(), new Money(1.0, "USD"), "Withdrawal " + i));
+        }
+        for (CompletableFuture<Transaction> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(0.0, account.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testConcurrentTransfersConserveTotalMoney() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(1000.0, "USD")));
+        }
+        Random random = new Random(42);
+        List<CompletableFuture<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            Account from = accounts.get(random.nextInt(accounts.size()));
+            Account to = accounts.get(random.nextInt(accounts.size()));
+            futures.add(sequencer.transfer(from.getAccountId(), to.getAccountId(),
+                new Money(1 + random.nextInt(50), "USD"), "Stress transfer"));
+        }
+        for (CompletableFuture<Transaction> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof InsufficientFundsException);
+            }
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            total = total.add(account.getBalance().getAmount());
+        }
+        assertEquals(0, new BigDecimal("16000").compareTo(total));
+    }
+
+    @Test
+    void testClosedSequencerRejectsCommands() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+        sequencer.close();
+        CompletableFuture<Transaction> deposit = sequencer.deposit(account.getAccountId(), new Money(1.0, "USD"), "Late");
+        assertTrue(deposit.isCompletedExceptionally());
+    }
+
+    @Test
+    void testJournaledCommandsAreDurableWhenCompleted(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("ledger.journal");
+        String accountId;
+        try (Journal journal = new Journal(file)) {
+            AccountService journaled = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService journaledTransactions = new TransactionService(journaled);
+            accountId = journaled.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD")).getAccountId();
+            try (SequencedTransactionService journaledSequencer = new SequencedTransactionService(journaledTransactions, 2, 256)) {
+                List<CompletableFuture<Transaction>> futures = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    futures.add(journaledSequencer.deposit(accountId, new Money(1.0, "USD"), "Deposit"));
+                }
+                for (CompletableFuture<Transaction> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+                assertTrue(journal.getDurablePosition() >= journal.getAppendedPosition());
+            }
+        }
+        try (Journal journal = new Journal(file)) {
+            AccountService recovered = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            JournalRecovery.recover(journal, recovered, new TransactionService(recovered));
+            assertEquals(500.0, recovered.getBalance(accountId).getAmount().doubleValue());
+        }
+    }
+
+    @Test
+    void testJournalFailureIsNotReportedAsRejection(@TempDir Path tempDir) throws Exception {
+        // A long group-commit delay keeps the deposit waiting for durability while the journal fails
+        try (Journal journal = new Journal(tempDir.resolve("ledger.journal"), false, 2_000_000)) {
+            AccountService journaled = new AccountService(new StripedLocks(), BalanceMode.MONEY, journal);
+            TransactionService journaledTransactions = new TransactionService(journaled);
+            Account account = journaled.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+            try (SequencedTransactionService journaledSequencer = new SequencedTransactionService(journaledTransactions, 1, 256)) {
+                CompletableFuture<Transaction> applied = journaledSequencer.deposit(account.getAccountId(),
+                        new Money(1.0, "USD"), "Deposit");
+                while (account.getBalance().getAmount().signum() == 0) {
+                    Thread.onSpinWait();
+                }
+                journal.fail(new IllegalStateException("disk gone"));
+
+                ExecutionException failure = assertThrows(ExecutionException.class,
+                        () -> applied.get(30, TimeUnit.SECONDS));
+                assertTrue(failure.getCause() instanceof JournalException);
+                assertTrue(failure.getCause().getMessage().contains("was applied"));
+
+                // Later commands are refused before they change anything
+                CompletableFuture<Transaction> refused = journaledSequencer.deposit(account.getAccountId(),
+                        new Money(1.0, "USD"), "Deposit");
+                failure = assertThrows(ExecutionException.class, () -> refused.get(30, TimeUnit.SECONDS));
+                assertTrue(failure.getCause() instanceof JournalException);
+                assertEquals(1.0, account.getBalance().getAmount().doubleValue());
+            }
+        }
+    }
+}
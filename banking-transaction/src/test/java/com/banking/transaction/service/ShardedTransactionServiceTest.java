@@ -0,0 +1,304 @@
+package com.banking.transaction.service;
+
+import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
+import com.banking.account.service.ShardedAccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.JournalException;
+import com.banking.core.journal.Journal;
+import com.banking.core.metrics.Outcome;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
+import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.journal.JournalRecovery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTransactionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ShardedAccountService accountService;
+    private ShardedTransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new ShardedAccountService(4);
+        transactionService = new ShardedTransactionService(accountService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionService.close();
+    }
+
+    @Test
+    void testSingleShardOperations() {
+        Account account = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        Transaction deposit = transactionService.deposit(account.getAccountId(), new Money(50.0, "USD"), "Deposit");
+        transactionService.withdraw(account.getAccountId(), new Money(30.0, "USD"), "Withdrawal");
+
+        assertEquals(120.0, transactionService.calculateAccountBalance(account.getAccountId()).getAmount().doubleValue());
+        assertEquals(2, transactionService.getTransactionsByAccount(account.getAccountId()).size());
+        assertSame(deposit, transactionService.getTransaction(deposit.getTransactionId()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransaction("UNKNOWN"));
+    }
+
+    @Test
+    void testCrossShardTransfer() {
+        Account[] pair = crossShardPair();
+        String fromId = pair[0].getAccountId();
+        String toId = pair[1].getAccountId();
+
+        Transaction transfer = transactionService.transfer(fromId, toId, new Money(40.0, "USD"), "Transfer");
+
+        assertEquals(60.0, accountService.getBalance(fromId).getAmount().doubleValue());
+        assertEquals(140.0, accountService.getBalance(toId).getAmount().doubleValue());
+        assertSame(transfer, transactionService.getTransaction(transfer.getTransactionId()));
+        assertEquals(transfer, transactionService.getTransactionsByAccount(fromId).get(0));
+        assertEquals(transfer, transactionService.getTransactionsByAccount(toId).get(0));
+        assertEquals(1, transactionService.getAllTransactions().size());
+    }
+
+    @Test
+    void testFailedCrossShardTransferChangesNothing() {
+        Account[] pair = crossShardPair();
+        String fromId = pair[0].getAccountId();
+        String toId = pair[1].getAccountId();
+        accountService.deactivateAccount(toId);
+
+        assertThrows(RuntimeException.class,
+                () -> transactionService.transfer(fromId, toId, new Money(40.0, "USD"), "Transfer"));
+        assertThrows(InsufficientFundsException.class,
+                () -> transactionService.transfer(fromId, toId, new Money(400.0, "USD"), "Transfer"));
+
+        assertEquals(100.0, accountService.getBalance(fromId).getAmount().doubleValue());
+        assertEquals(100.0, accountService.getBalance(toId).getAmount().doubleValue());
+        assertTrue(transactionService.getAllTransactions().isEmpty());
+    }
+
+    @Test
+    void testCrossShardPosting() {
+        Account[] pair = crossShardPair();
+        Account third = accountService.createAccount("CUST003", AccountType.CHECKING, new Money(0.0, "USD"));
+
+        List<Transaction> posted = transactionService.post(Arrays.asList(
+                PostingLeg.debit(pair[0].getAccountId(), new Money(30.0, "USD")),
+                PostingLeg.credit(pair[1].getAccountId(), new Money(20.0, "USD")),
+                PostingLeg.credit(third.getAccountId(), new Money(10.0, "USD"))), "Split");
+
+        assertEquals(2, posted.size());
+        assertEquals(70.0, pair[0].getBalance().getAmount().doubleValue());
+        assertEquals(120.0, pair[1].getBalance().getAmount().doubleValue());
+        assertEquals(10.0, third.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testBatchSplitsAcrossShardsInOrder() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(10.0, "USD")));
+        }
+        List<BatchEntry> entries = new ArrayList<>();
+        for (Account account : accounts) {
+            entries.add(BatchEntry.withdrawal(account.getAccountId(), new Money(8.0, "USD"), "First"));
+            // Rejected: only applies if the withdrawal above has not run yet
+            entries.add(BatchEntry.withdrawal(account.getAccountId(), new Money(8.0, "USD"), "Second"));
+        }
+        entries.add(BatchEntry.deposit("UNKNOWN", new Money(1.0, "USD"), "Unknown"));
+
+        List<BatchResult> results = transactionService.processBatch(entries);
+
+        assertEquals(entries.size(), results.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            assertTrue(results.get(2 * i).isApplied());
+            assertFalse(results.get(2 * i + 1).isApplied());
+            assertEquals(2 * i + 1, results.get(2 * i + 1).getIndex());
+            assertEquals(2.0, accounts.get(i).getBalance().getAmount().doubleValue());
+        }
+        assertFalse(results.get(entries.size() - 1).isApplied());
+    }
+
+    @Test
+    void testBatchWithCrossShardTransfer() {
+        Account[] pair = crossShardPair();
+        String fromId = pair[0].getAccountId();
+        String toId = pair[1].getAccountId();
+
+        List<BatchResult> results = transactionService.processBatch(Arrays.asList(
+                BatchEntry.transfer(fromId, toId, new Money(60.0, "USD"), "Move"),
+                BatchEntry.transfer(fromId, toId, new Money(60.0, "USD"), "Too much"),
+                BatchEntry.withdrawal(toId, new Money(150.0, "USD"), "Spend")));
+
+        assertTrue(results.get(0).isApplied());
+        assertFalse(results.get(1).isApplied());
+        assertTrue(results.get(2).isApplied());
+        assertEquals(40.0, accountService.getBalance(fromId).getAmount().doubleValue());
+        assertEquals(10.0, accountService.getBalance(toId).getAmount().doubleValue());
+    }
+
+    @Test
+    void testConcurrentCrossShardTransfersConserveTotalMoney() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(1000.0, "USD")));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 10_000; i++) {
+                    Account from = accounts.get(random.nextInt(accounts.size()));
+                    Account to = accounts.get(random.nextInt(accounts.size()));
+                    try {
+                        transactionService.transfer(from.getAccountId(), to.getAccountId(),
+                                new Money(1 + random.nextInt(50), "USD"), "Stress transfer");
+                    } catch (InsufficientFundsException expected) {
+                        // Rejected transfers leave both balances untouched
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            total = total.add(account.getBalance().getAmount());
+        }
+        assertEquals(0, new BigDecimal("32000").compareTo(total));
+    }
+
+    @Test
+    void testRecoveryRestoresCrossShardChanges() {
+        Path file = tempDir.resolve("ledger.journal");
+        String fromId;
+        String toId;
+        Transaction transfer;
+        try (Journal journal = new Journal(file)) {
+            ShardedAccountService accounts = new ShardedAccountService(4, BalanceMode.MONEY, journal);
+            try (ShardedTransactionService transactions = new ShardedTransactionService(accounts)) {
+                Account from = accounts.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+                Account to;
+                do {
+                    to = accounts.createAccount("CUST002", AccountType.CHECKING, new Money(100.0, "USD"));
+                } while (accounts.shardOf(to.getAccountId()) == accounts.shardOf(from.getAccountId()));
+                fromId = from.getAccountId();
+                toId = to.getAccountId();
+                transfer = transactions.transfer(fromId, toId, new Money(25.0, "USD"), "Transfer");
+                transactions.deposit(toId, new Money(5.0, "USD"), "Deposit");
+            }
+        }
+
+        try (Journal journal = new Journal(file)) {
+            ShardedAccountService accounts = new ShardedAccountService(4, BalanceMode.MONEY, journal);
+            try (ShardedTransactionService transactions = new ShardedTransactionService(accounts)) {
+                JournalRecovery.recover(journal, accounts, transactions, 0);
+                assertEquals(75.0, accounts.getBalance(fromId).getAmount().doubleValue());
+                assertEquals(130.0, accounts.getBalance(toId).getAmount().doubleValue());
+                assertEquals(transfer.getTimestamp(),
+                        transactions.getTransaction(transfer.getTransactionId()).getTimestamp());
+                assertEquals(2, transactions.getTransactionsByAccount(toId).size());
+            }
+        }
+    }
+
+    @Test
+    void testCrossShardChangesThatCannotBeJournaledAreNotApplied() {
+        Path file = tempDir.resolve("ledger.journal");
+        try (Journal journal = new Journal(file)) {
+            ShardedAccountService accounts = new ShardedAccountService(4, BalanceMode.MONEY, journal);
+            try (ShardedTransactionService transactions = new ShardedTransactionService(accounts)) {
+                Account from = accounts.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+                Account to;
+                do {
+                    to = accounts.createAccount("CUST002", AccountType.CHECKING, new Money(100.0, "USD"));
+                } while (accounts.shardOf(to.getAccountId()) == accounts.shardOf(from.getAccountId()));
+                String fromId = from.getAccountId();
+                String toId = to.getAccountId();
+                char[] chars = new char[Transaction.MAX_DESCRIPTION_LENGTH + 1];
+                Arrays.fill(chars, 'x');
+                String tooLong = new String(chars);
+
+                assertThrows(IllegalArgumentException.class,
+                        () -> transactions.transfer(fromId, toId, new Money(5.0, "USD"), tooLong));
+                assertThrows(IllegalArgumentException.class, () -> transactions.post(Arrays.asList(
+                    PostingLeg.debit(fromId, new Money(5.0, "USD")),
+                    PostingLeg.credit(toId, new Money(5.0, "USD"))
+                ), tooLong));
+
+                journal.fail(new IllegalStateException("disk gone"));
+                assertThrows(JournalException.class,
+                        () -> transactions.transfer(fromId, toId, new Money(5.0, "USD"), "Transfer"));
+                assertThrows(JournalException.class, () -> transactions.processBatch(Arrays.asList(
+                    BatchEntry.transfer(fromId, toId, new Money(5.0, "USD"), "Transfer"),
+                    BatchEntry.deposit(toId, new Money(5.0, "USD"), "Deposit")
+                )));
+                assertEquals(100.0, accounts.getBalance(fromId).getAmount().doubleValue());
+                assertEquals(100.0, accounts.getBalance(toId).getAmount().doubleValue());
+                assertTrue(transactions.getTransactionsByAccount(fromId).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void testMetricsCountDelegatedOperationsOnce() {
+        ServiceMetrics metrics = new ServiceMetrics();
+        ShardedAccountService meteredAccounts = new ShardedAccountService(4, BalanceMode.MONEY, null, metrics);
+        try (ShardedTransactionService metered = new ShardedTransactionService(meteredAccounts)) {
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                accounts.add(meteredAccounts.createAccount("CUST" + i, AccountType.CHECKING, new Money(10.0, "USD")));
+            }
+            List<BatchEntry> entries = new ArrayList<>();
+            for (Account account : accounts) {
+                entries.add(BatchEntry.deposit(account.getAccountId(), new Money(1.0, "USD"), "Deposit"));
+            }
+            metered.processBatch(entries);
+            for (int i = 1; i < accounts.size(); i++) {
+                metered.transfer(accounts.get(0).getAccountId(), accounts.get(i).getAccountId(),
+                        new Money(0.5, "USD"), "Transfer");
+            }
+            metered.deposit(accounts.get(0).getAccountId(), new Money(1.0, "USD"), "Deposit");
+        }
+
+        assertEquals(16, metrics.operation(ServiceMetrics.ACCOUNT_CREATE).getCount());
+        // The batch ran as one sub-batch per shard but is one operation
+        assertEquals(1, metrics.operation(ServiceMetrics.BATCH).getCount());
+        assertEquals(15, metrics.operation(ServiceMetrics.TRANSFER).getCount(Outcome.SUCCESS));
+        assertEquals(1, metrics.operation(ServiceMetrics.DEPOSIT).getCount());
+    }
+
+    private Account[] crossShardPair() {
+        Account first = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        Account second;
+        do {
+            second = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(100.0, "USD"));
+        } while (accountService.shardOf(second.getAccountId()) == accountService.shardOf(first.getAccountId()));
+        return new Account[] {first, second};
+    }
+}
@@ -0,0 +1,144 @@
+package com.banking.transaction.service;
+
+import com.banking.account.domain.Account;
+import com.banking.account.service.AccountService;
+import com.banking.core.domain.AccountType;
+import com.banking.core.domain.Money;
+import com.banking.core.exception.InsufficientFundsException;
+import com.banking.transaction.domain.PostingLeg;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    private AccountService accountService;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService();
+        transactionService = new TransactionService(accountService);
+    }
+
+    @Test
+    void testConcurrentTransfersConserveTotalMoney() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(1000.0, "USD")));
+        }
+        BigDecimal totalBefore = total(accounts);
+
+        runConcurrently(seed -> {
+            Random random = new Random(seed);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Account from = accounts.get(random.nextInt(accounts.size()));
+                Account to = accounts.get(random.nextInt(accounts.size()));
+                try {
+                    transactionService.transfer(from.getAccountId(), to.getAccountId(),
+                            new Money(1 + random.nextInt(50), "USD"), "Stress transfer");
+                } catch (InsufficientFundsException expected) {
+                    // Rejected transfers must leave both balances untouched
+                }
+            }
+        });
+
+        assertEquals(0, totalBefore.compareTo(total(accounts)), "Total money changed under concurrent transfers");
+        for (Account account : accounts) {
+            assertTrue(account.getBalance().getAmount().signum() >= 0, "Negative balance on " + account.getAccountId());
+        }
+    }
+
+    @Test
+    void testConcurrentPostingsConserveTotalMoney() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            accounts.add(accountService.createAccount("CUST" + i, AccountType.CHECKING, new Money(1000.0, "USD")));
+        }
+        BigDecimal totalBefore = total(accounts);
+
+        runConcurrently(seed -> {
+            Random random = new Random(seed);
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 4; i++) {
+                Account payer = accounts.get(random.nextInt(accounts.size()));
+                Account payee = accounts.get(random.nextInt(accounts.size()));
+                Account fees = accounts.get(random.nextInt(accounts.size()));
+                int amount = 2 + random.nextInt(50);
+                try {
+                    transactionService.post(Arrays.asList(
+                        PostingLeg.debit(payer.getAccountId(), new Money(amount, "USD")),
+                        PostingLeg.credit(payee.getAccountId(), new Money(amount - 1, "USD")),
+                        PostingLeg.credit(fees.getAccountId(), new Money(1, "USD"))
+                    ), "Stress posting");
+                } catch (InsufficientFundsException expected) {
+                    // Rejected postings must leave every balance untouched
+                }
+            }
+        });
+
+        assertEquals(0, totalBefore.compareTo(total(accounts)), "Total money changed under concurrent postings");
+        for (Account account : accounts) {
+            assertTrue(account.getBalance().getAmount().signum() >= 0, "Negative balance on " + account.getAccountId());
+        }
+    }
+
+    @Test
+    void testConcurrentDepositsAndWithdrawalsAreNotLost() throws Exception {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+
+        runConcurrently(seed -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                transactionService.deposit(account.getAccountId(), new Money(2.0, "USD"), "Stress deposit");
+                transactionService.withdraw(account.getAccountId(), new Money(1.0, "USD"), "Stress withdrawal");
+            }
+        });
+
+        assertEquals((double) THREADS * OPERATIONS_PER_THREAD, account.getBalance().getAmount().doubleValue());
+    }
+
+    private void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.run(seed);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private static BigDecimal total(List<Account> accounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            total = total.add(account.getBalance().getAmount());
+        }
+        return total;
+    }
+
+    private interface Worker {
+        void run(long seed);
+    }
+}
@@ -1,14 +1,32 @@
 package com.banking.transaction.service;
 
 import com.banking.account.domain.Account;
+import com.banking.account.domain.BalanceMode;
 import com.banking.account.service.AccountService;
+import com.banking.account.store.HeapAccountStore;
+import com.banking.core.concurrent.StripedLocks;
 import com.banking.core.domain.AccountType;
 import com.banking.core.domain.Money;
 import com.banking.core.domain.TransactionType;
 import com.banking.core.exception.InsufficientFundsException;
+import com.banking.core.exception.InvalidAccountException;
+import com.banking.core.metrics.OperationMetrics;
+import com.banking.core.metrics.Outcome;
+import com.banking.core.metrics.ServiceMetrics;
+import com.banking.transaction.domain.BatchEntry;
+import com.banking.transaction.domain.BatchResult;
+import com.banking.transaction.domain.PostingLeg;
 import com.banking.transaction.domain.Transaction;
+import com.banking.transaction.domain.TransactionPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TransactionServiceTest {
@@ -75,5 +93,283 @@ class TransactionServiceTest {
         var transactions = transactionService.getTransactionsByAccount(account.getAccountId());
         assertEquals(2, transactions.size());
     }
-}
 
+    @Test
+    void testTransactionHistoryIsNewestFirstOnBothSidesOfTransfer() {
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+        Transaction deposit = transactionService.deposit(from.getAccountId(), new Money(10.0, "USD"), "Deposit");
+        Transaction transfer = transactionService.transfer(from.getAccountId(), to.getAccountId(), new Money(20.0, "USD"), "Transfer");
+        Transaction withdrawal = transactionService.withdraw(to.getAccountId(), new Money(5.0, "USD"), "Withdrawal");
+
+        var fromHistory = transactionService.getTransactionsByAccount(from.getAccountId());
+        assertEquals(2, fromHistory.size());
+        assertEquals(transfer, fromHistory.get(0));
+        assertEquals(deposit, fromHistory.get(1));
+
+        var toHistory = transactionService.getTransactionsByAccount(to.getAccountId());
+        assertEquals(2, toHistory.size());
+        assertEquals(withdrawal, toHistory.get(0));
+        assertEquals(transfer, toHistory.get(1));
+
+        assertTrue(transactionService.getTransactionsByAccount("UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void testPaginatedTransactionHistory() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+        for (int i = 1; i <= 5; i++) {
+            transactionService.deposit(account.getAccountId(), new Money(i, "USD"), "Deposit " + i);
+        }
+
+        TransactionPage first = transactionService.getTransactionsByAccount(account.getAccountId(), null, 2);
+        assertEquals(2, first.getTransactions().size());
+        assertEquals("Deposit 5", first.getTransactions().get(0).getDescription());
+        assertTrue(first.hasMore());
+
+        TransactionPage second = transactionService.getTransactionsByAccount(account.getAccountId(), first.getNextCursor(), 2);
+        assertEquals("Deposit 3", second.getTransactions().get(0).getDescription());
+        assertEquals("Deposit 2", second.getTransactions().get(1).getDescription());
+
+        TransactionPage last = transactionService.getTransactionsByAccount(account.getAccountId(), second.getNextCursor(), 2);
+        assertEquals(1, last.getTransactions().size());
+        assertEquals("Deposit 1", last.getTransactions().get(0).getDescription());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void testPageLimitIsCapped() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+        for (int i = 0; i < TransactionService.MAX_PAGE_SIZE + 5; i++) {
+            transactionService.deposit(account.getAccountId(), new Money(1.0, "USD"), "Deposit " + i);
+        }
+
+        TransactionPage first = transactionService.getTransactionsByAccount(account.getAccountId(), null,
+                Integer.MAX_VALUE);
+        assertEquals(TransactionService.MAX_PAGE_SIZE, first.getTransactions().size());
+        assertTrue(first.hasMore());
+        TransactionPage rest = transactionService.getTransactionsByAccount(account.getAccountId(),
+                first.getNextCursor(), Integer.MAX_VALUE);
+        assertEquals(5, rest.getTransactions().size());
+        assertFalse(rest.hasMore());
+    }
+
+    @Test
+    void testPaginationRejectsInvalidArguments() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(0.0, "USD"));
+        assertThrows(IllegalArgumentException.class,
+            () -> transactionService.getTransactionsByAccount(account.getAccountId(), null, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> transactionService.getTransactionsByAccount(account.getAccountId(), "not-a-cursor", 10));
+    }
+
+    @Test
+    void testProcessBatch() {
+        Account payroll = accountService.createAccount("EMPLOYER", AccountType.CURRENT, new Money(1000.0, "USD"));
+        Account alice = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(0.0, "USD"));
+        Account bob = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+
+        List<BatchResult> results = transactionService.processBatch(Arrays.asList(
+            BatchEntry.transfer(payroll.getAccountId(), alice.getAccountId(), new Money(600.0, "USD"), "Salary"),
+            BatchEntry.transfer(payroll.getAccountId(), bob.getAccountId(), new Money(600.0, "USD"), "Salary"),
+            BatchEntry.deposit("missing", new Money(1.0, "USD"), "Unknown account"),
+            BatchEntry.withdrawal(alice.getAccountId(), new Money(-5.0, "USD"), "Negative"),
+            BatchEntry.deposit(bob.getAccountId(), new Money(10.0, "USD"), "Bonus")
+        ));
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isApplied());
+        assertEquals(TransactionType.TRANSFER, results.get(0).getTransaction().getType());
+        assertFalse(results.get(1).isApplied());
+        assertNotNull(results.get(1).getError());
+        assertFalse(results.get(2).isApplied());
+        assertFalse(results.get(3).isApplied());
+        assertTrue(results.get(4).isApplied());
+        assertEquals(4, results.get(4).getIndex());
+
+        assertEquals(400.0, payroll.getBalance().getAmount().doubleValue());
+        assertEquals(600.0, alice.getBalance().getAmount().doubleValue());
+        assertEquals(10.0, bob.getBalance().getAmount().doubleValue());
+        assertEquals(2, transactionService.getAllTransactions().size());
+    }
+
+    @Test
+    void testBatchTransferToInactiveAccountLeavesSourceUnchanged() {
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+        accountService.deactivateAccount(to.getAccountId());
+
+        List<BatchResult> results = transactionService.processBatch(Collections.singletonList(
+            BatchEntry.transfer(from.getAccountId(), to.getAccountId(), new Money(40.0, "USD"), "Transfer")));
+
+        assertFalse(results.get(0).isApplied());
+        assertEquals(100.0, from.getBalance().getAmount().doubleValue());
+        assertTrue(transactionService.getTransactionsByAccount(from.getAccountId()).isEmpty());
+    }
+
+    @Test
+    void testBatchEntriesWithoutAccountsAreRejected() {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+
+        List<BatchResult> results = transactionService.processBatch(Arrays.asList(
+            BatchEntry.deposit(null, new Money(1.0, "USD"), "No account"),
+            BatchEntry.withdrawal(" ", new Money(1.0, "USD"), "Blank account"),
+            BatchEntry.transfer(account.getAccountId(), "", new Money(1.0, "USD"), "Blank destination"),
+            BatchEntry.transfer(null, account.getAccountId(), new Money(1.0, "USD"), "No source"),
+            BatchEntry.deposit(account.getAccountId(), new Money(5.0, "USD"), "Valid")
+        ));
+
+        for (int i = 0; i < 4; i++) {
+            assertFalse(results.get(i).isApplied());
+            assertNotNull(results.get(i).getError());
+        }
+        assertTrue(results.get(4).isApplied());
+        assertEquals(105.0, account.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testEmptyBatchRejected() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.processBatch(Collections.emptyList()));
+    }
+
+    @Test
+    void testTransferToInactiveAccountLeavesSourceUnchanged() {
+        Account from = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account to = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+        accountService.deactivateAccount(to.getAccountId());
+
+        assertThrows(InvalidAccountException.class, () ->
+            transactionService.transfer(from.getAccountId(), to.getAccountId(), new Money(40.0, "USD"), "Transfer"));
+        assertEquals(100.0, from.getBalance().getAmount().doubleValue());
+        assertTrue(transactionService.getAllTransactions().isEmpty());
+    }
+
+    @Test
+    void testPostSplitPayment() {
+        Account payer = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        Account merchant = accountService.createAccount("CUST002", AccountType.CURRENT, new Money(0.0, "USD"));
+        Account fees = accountService.createAccount("BANK", AccountType.CURRENT, new Money(0.0, "USD"));
+
+        List<Transaction> transactions = transactionService.post(Arrays.asList(
+            PostingLeg.debit(payer.getAccountId(), new Money(60.0, "USD")),
+            PostingLeg.credit(merchant.getAccountId(), new Money(58.0, "USD")),
+            PostingLeg.credit(fees.getAccountId(), new Money(2.0, "USD"))
+        ), "Card payment");
+
+        assertEquals(2, transactions.size());
+        assertEquals(TransactionType.TRANSFER, transactions.get(0).getType());
+        assertEquals(merchant.getAccountId(), transactions.get(0).getRelatedAccountId());
+        assertEquals(40.0, payer.getBalance().getAmount().doubleValue());
+        assertEquals(58.0, merchant.getBalance().getAmount().doubleValue());
+        assertEquals(2.0, fees.getBalance().getAmount().doubleValue());
+        assertEquals(2, transactionService.getTransactionsByAccount(payer.getAccountId()).size());
+    }
+
+    @Test
+    void testPostAppliesNoLegWhenOneFails() {
+        Account payer = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        Account merchant = accountService.createAccount("CUST002", AccountType.CURRENT, new Money(0.0, "USD"));
+        Account fees = accountService.createAccount("BANK", AccountType.CURRENT, new Money(0.0, "USD"));
+        accountService.deactivateAccount(fees.getAccountId());
+
+        assertThrows(InvalidAccountException.class, () -> transactionService.post(Arrays.asList(
+            PostingLeg.debit(payer.getAccountId(), new Money(60.0, "USD")),
+            PostingLeg.credit(merchant.getAccountId(), new Money(58.0, "USD")),
+            PostingLeg.credit(fees.getAccountId(), new Money(2.0, "USD"))
+        ), "Card payment"));
+
+        assertEquals(100.0, payer.getBalance().getAmount().doubleValue());
+        assertEquals(0.0, merchant.getBalance().getAmount().doubleValue());
+        assertTrue(transactionService.getAllTransactions().isEmpty());
+    }
+
+    @Test
+    void testPostRejectsUnbalancedLegs() {
+        Account payer = accountService.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        Account merchant = accountService.createAccount("CUST002", AccountType.CURRENT, new Money(0.0, "USD"));
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.post(Arrays.asList(
+            PostingLeg.debit(payer.getAccountId(), new Money(60.0, "USD")),
+            PostingLeg.credit(merchant.getAccountId(), new Money(50.0, "USD"))
+        ), "Unbalanced"));
+        assertEquals(100.0, payer.getBalance().getAmount().doubleValue());
+    }
+
+    @Test
+    void testGetBalanceAt() throws InterruptedException {
+        Account account = accountService.createAccount("CUST001", AccountType.SAVINGS, new Money(100.0, "USD"));
+        Account other = accountService.createAccount("CUST002", AccountType.CHECKING, new Money(10.0, "USD"));
+        Account payer = accountService.createAccount("CUST003", AccountType.CHECKING, new Money(100.0, "USD"));
+        String accountId = account.getAccountId();
+        LocalDateTime opened = LocalDateTime.now();
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(transactionService.getBalanceAt(accountId, opened).getAmount()));
+
+        Thread.sleep(2);
+        transactionService.deposit(accountId, new Money(50.0, "USD"), "Deposit");
+        Thread.sleep(2);
+        LocalDateTime afterDeposit = LocalDateTime.now();
+        Thread.sleep(2);
+        // The payer's first transactions are two transfers of one posting
+        transactionService.post(Arrays.asList(
+                PostingLeg.debit(payer.getAccountId(), new Money(30.0, "USD")),
+                PostingLeg.credit(accountId, new Money(10.0, "USD")),
+                PostingLeg.credit(other.getAccountId(), new Money(20.0, "USD"))), "Posting");
+        Thread.sleep(2);
+        LocalDateTime afterPosting = LocalDateTime.now();
+
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(transactionService.getBalanceAt(accountId, opened).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(transactionService.getBalanceAt(accountId, afterDeposit).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(160).compareTo(transactionService.getBalanceAt(accountId, afterPosting).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(10).compareTo(
+                transactionService.getBalanceAt(other.getAccountId(), afterDeposit).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(
+                transactionService.getBalanceAt(other.getAccountId(), afterPosting).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(
+                transactionService.getBalanceAt(payer.getAccountId(), afterDeposit).getAmount()));
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(
+                transactionService.getBalanceAt(payer.getAccountId(), afterPosting).getAmount()));
+        assertThrows(InvalidAccountException.class, () -> transactionService.getBalanceAt("NONEXISTENT", afterPosting));
+
+        // Before the accounts existed, with and without transactions since
+        Account idle = accountService.createAccount("CUST004", AccountType.SAVINGS, new Money(5.0, "USD"));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getBalanceAt(accountId, account.getOpenedAt().minusSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getBalanceAt(idle.getAccountId(), idle.getOpenedAt().minusSeconds(1)));
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(
+                transactionService.getBalanceAt(idle.getAccountId(), idle.getOpenedAt()).getAmount()));
+    }
+
+    @Test
+    void testMetricsCountOutcomes() {
+        assertFalse(accountService.getMetrics().isEnabled());
+        ServiceMetrics metrics = new ServiceMetrics();
+        AccountService meteredAccounts = new AccountService(
+                new StripedLocks(StripedLocks.DEFAULT_STRIPES, metrics.getLockWaits()), BalanceMode.MONEY, null,
+                new HeapAccountStore(), metrics);
+        TransactionService metered = new TransactionService(meteredAccounts);
+        Account from = meteredAccounts.createAccount("CUST001", AccountType.CHECKING, new Money(100.0, "USD"));
+        Account to = meteredAccounts.createAccount("CUST002", AccountType.CHECKING, new Money(0.0, "USD"));
+
+        metered.deposit(from.getAccountId(), new Money(10.0, "USD"), "Deposit");
+        assertThrows(InvalidAccountException.class,
+                () -> metered.deposit("NONEXISTENT", new Money(10.0, "USD"), "Deposit"));
+        assertThrows(InsufficientFundsException.class,
+                () -> metered.withdraw(from.getAccountId(), new Money(500.0, "USD"), "Withdrawal"));
+        metered.transfer(from.getAccountId(), to.getAccountId(), new Money(25.0, "USD"), "Transfer");
+        // A batch with a rejected entry still succeeds as a whole
+        metered.processBatch(Arrays.asList(
+                BatchEntry.deposit(from.getAccountId(), new Money(1.0, "USD"), "Deposit"),
+                BatchEntry.withdrawal(to.getAccountId(), new Money(99.0, "USD"), "Withdrawal")));
+
+        assertEquals(2, metrics.operation(ServiceMetrics.ACCOUNT_CREATE).getCount(Outcome.SUCCESS));
+        OperationMetrics deposits = metrics.operation(ServiceMetrics.DEPOSIT);
+        assertEquals(1, deposits.getCount(Outcome.SUCCESS));
+        assertEquals(1, deposits.getCount(Outcome.INVALID_ACCOUNT));
+        assertEquals(2, deposits.getLatency().getCount());
+        assertEquals(1, metrics.operation(ServiceMetrics.WITHDRAWAL).getCount(Outcome.INSUFFICIENT_FUNDS));
+        assertEquals(1, metrics.operation(ServiceMetrics.TRANSFER).getCount(Outcome.SUCCESS));
+        assertEquals(1, metrics.operation(ServiceMetrics.BATCH).getCount(Outcome.SUCCESS));
+        assertEquals(0, metrics.operation(ServiceMetrics.POSTING).getCount());
+    }
+}